@@ -6,8 +6,11 @@
 package org.example.productService.advices;
 
 import org.example.productService.dtos.ErrorResponseDto;
+import org.example.productService.exception.BadRequestException;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 @ControllerAdvice
@@ -15,6 +18,15 @@ import org.springframework.web.bind.annotation.RestController;
 //@RestControllerAdvice // Use this and remove the above 2 annotations when you want to handle exceptions globally
 public class ExceptionAdvices {
 
+    @ExceptionHandler(BadRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)     // The most specific handler wins, hence checked before the RuntimeException one below
+    public ErrorResponseDto handleBadRequestException(BadRequestException e) {
+        ErrorResponseDto dto = new ErrorResponseDto();
+        dto.setStatus("BAD_REQUEST");
+        dto.setMessage(e.getMessage());
+        return dto;
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ErrorResponseDto handleRuntimeException(RuntimeException e) {    // This method is used to handle a specific exception
         ErrorResponseDto dto = new ErrorResponseDto();
@@ -36,23 +36,37 @@
 //        );
 //        List<MyClass> result = response.getBody();
 // Command to run Redis server --> redis-server
+// EnableScheduling - Turns on the @Scheduled methods of the beans (e.g. CategoryCountReconciler), run on Spring's task scheduler.
 
 package org.example.productService.configurations;
 
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.example.productService.models.Product;
+import org.example.productService.services.cachingService.ProductCache;
+import org.example.productService.services.cachingService.ProductRedisSerializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
+@EnableScheduling
 public class ApplicationConfiguration {
 
     @Bean
     //@LoadBalanced // Comment this line if you want to disable load balancing for the RestTemplate and FakeStore API calls will only work if you comment this
-    public RestTemplate createRestTemplate() {
-        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
+    public RestTemplate createRestTemplate(CloseableHttpClient upstreamHttpClient) {
+        // Shared pooled HttpClient (see UpstreamHttpClientConfiguration) instead of the factory's default client
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(upstreamHttpClient);
 
         // return new RestTemplate();
         return new RestTemplate(factory);
@@ -63,10 +77,34 @@ public class ApplicationConfiguration {
 //        return new RestTemplate();
 //    }
 
+    // Keys are stored as plain UTF-8 strings (e.g. PRODUCT_1) and values with the compact ProductCodec layout, instead of the default JDK serialization of both
     @Bean
-    public RedisTemplate<String, Object> getRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
-        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+    public RedisTemplate<String, Product> getRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        RedisTemplate<String, Product> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(redisConnectionFactory);
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        redisTemplate.setHashKeySerializer(RedisSerializer.string());
+        redisTemplate.setValueSerializer(new ProductRedisSerializer());
+        redisTemplate.setHashValueSerializer(new ProductRedisSerializer());
         return redisTemplate;
     }
+
+    // Same key/value layout as above for the non-blocking (reactive) Redis client, so both the product services read each other's cached products
+    @Bean
+    public ReactiveRedisTemplate<String, Product> getReactiveRedisTemplate(ReactiveRedisConnectionFactory reactiveRedisConnectionFactory) {
+        RedisSerializationContext<String, Product> serializationContext = RedisSerializationContext.<String, Product>newSerializationContext(RedisSerializer.string())
+                .value(new ProductRedisSerializer())
+                .hashValue(new ProductRedisSerializer())
+                .build();
+        return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, serializationContext);
+    }
+
+    // Subscribes to the product cache invalidation channel, so that updates done on other instances are removed from the local (L1) cache of this instance
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory, ProductCache productCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(productCache, new ChannelTopic(ProductCache.INVALIDATION_CHANNEL));
+        return container;
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ HTTP clients used to call the upstream FakeStore API, shared by all the requests:
+    RestTemplate (blocking) - Apache HttpClient 5 with one pooling connection manager
+    WebClient (non-blocking) - Reactor Netty with its own connection pool
+ Keep-alive/connection pooling - Opening a TCP (+TLS) connection costs a few round trips, so connections are kept open and reused by the next requests to the same route (scheme + host + port).
+    max-total - Connections across all the routes, max-per-route - Connections to one host (FakeStore API is a single route). The HttpClient default is just 5 per route, which serializes the calls under load.
+ Timeouts - connect (TCP handshake), read (waiting for the response), pool acquire (waiting for a free pooled connection). Without them a slow upstream holds the request threads forever.
+ Connection TTL and idle eviction - Connections are closed after the TTL (so DNS/load balancer changes are picked up) and when idle for long (before the server or a NAT closes them half-open).
+ Compression - Responses are requested with "Accept-Encoding: gzip, deflate" and decompressed transparently (on by default in HttpClient 5, enabled explicitly for Reactor Netty).
+ HTTP/2 - Negotiated with ALPN over TLS by the WebClient (falls back to HTTP/1.1). Many concurrent requests are multiplexed over one connection. The classic (blocking) HttpClient 5 API only speaks HTTP/1.1.
+*/
+
+package org.example.productService.configurations;
+
+import io.netty.channel.ChannelOption;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.example.productService.services.monitoringService.InstrumentedConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+public class UpstreamHttpClientConfiguration {
+    @Value("${upstream.http.max-total:200}")
+    private int maxTotal;
+
+    @Value("${upstream.http.max-per-route:100}")
+    private int maxPerRoute;
+
+    @Value("${upstream.http.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${upstream.http.read-timeout:5s}")
+    private Duration readTimeout;
+
+    @Value("${upstream.http.pool-acquire-timeout:1s}")
+    private Duration poolAcquireTimeout;
+
+    @Value("${upstream.http.connection-ttl:5m}")
+    private Duration connectionTtl;
+
+    @Value("${upstream.http.idle-eviction:30s}")
+    private Duration idleEviction;
+
+    @Bean(destroyMethod = "close")
+    public InstrumentedConnectionManager upstreamConnectionManager() {
+        InstrumentedConnectionManager connectionManager = new InstrumentedConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(readTimeout))
+                .setTimeToLive(TimeValue.of(connectionTtl))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))     // Checks a connection idle for a while is still open before reusing it
+                .build());
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient upstreamHttpClient(InstrumentedConnectionManager upstreamConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(upstreamConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolAcquireTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction))    // Background thread closing the connections idle for longer
+                .build();   // Content compression is enabled by default
+    }
+
+    // Applied by Spring Boot to every WebClient.Builder it hands out (ProductServiceFakeStoreImpl, ReactiveProductServiceFakeStoreImpl)
+    @Bean
+    public WebClientCustomizer upstreamWebClientCustomizer() {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("upstream")
+                .maxConnections(maxTotal)
+                .pendingAcquireTimeout(poolAcquireTimeout)
+                .maxIdleTime(idleEviction)
+                .maxLifeTime(connectionTtl)
+                .evictInBackground(idleEviction)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                .compress(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+
+        return webClientBuilder -> webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient));
+    }
+}
@@ -38,27 +38,48 @@
 
 package org.example.productService.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.example.productService.dtos.product.*;
+import org.example.productService.dtos.search.SortingCriteria;
+import org.example.productService.exception.BadRequestException;
 import org.example.productService.exception.ProductNotFoundException;
 import org.example.productService.models.Product;
 import org.example.productService.services.ProductService;
 import org.example.productService.services.ProductServiceDBImpl;
+import org.example.productService.services.paginationService.KeysetCursor;
+import org.example.productService.services.sortingService.SorterFactory;
+import org.example.productService.services.rankingService.PopularityTracker;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
 @RestController
 @RequestMapping("/products/")
 public class ProductController {
+    private static final int MAX_WINDOW_SIZE = 1000;
+    private static final int MAX_BULK_IDS = 100;
+    private static final int MAX_BULK_PRODUCTS = 10_000;
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
     private final ProductService productService;    // Dependency Inversion
     private ProductServiceDBImpl productServiceDBImpl;
     private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final PopularityTracker popularityTracker;
 
     // Solution 1 - Constructor Injection (Dependency Injection)
     /* public ProductController(@Qualifier("fakeStoreProductService") ProductService productService) {
@@ -66,9 +87,11 @@ public class ProductController {
     }*/
 
     // Solution 2 - [Better Implementation] Constructor Injection using application.properties configuration
-    public ProductController(@Value("${productService}") String productServiceBeanName, ApplicationContext context, RestTemplate restTemplate) {
+    public ProductController(@Value("${productService}") String productServiceBeanName, ApplicationContext context, RestTemplate restTemplate, ObjectMapper objectMapper, PopularityTracker popularityTracker) {
         this.productService = (ProductService) context.getBean(productServiceBeanName);
         this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.popularityTracker = popularityTracker;
     }
 
     // Setter/Method Injection
@@ -108,6 +131,27 @@ public class ProductController {
         return response;
     }
 
+    // Bulk ingestion of up to MAX_BULK_PRODUCTS products per call, products with an id are inserted or updated (upsert)
+    @PostMapping("/bulk")
+    public BulkCreateProductsResponseDto createProducts(@RequestBody BulkCreateProductsRequestDto bulkCreateProductsRequestDto) {
+        List<BulkProductDto> productDtos = bulkCreateProductsRequestDto.getProducts();
+        if (productDtos == null || productDtos.isEmpty() || productDtos.size() > MAX_BULK_PRODUCTS)
+            throw new BadRequestException("products should have between 1 and " + MAX_BULK_PRODUCTS + " products");
+
+        // DTO --> Model (Data conversion)
+        List<Product> productsRequest = productDtos.stream().map(BulkProductDto::toProduct).toList();
+
+        // Service called (using Model data)
+        List<Product> products = productService.createProducts(productsRequest);
+
+        // Model --> DTO (Data conversion)
+        BulkCreateProductsResponseDto response = new BulkCreateProductsResponseDto();
+        response.setCount(products.size());
+        response.setIds(products.stream().map(Product::getId).toList());
+
+        return response;
+    }
+
     @GetMapping("")
     public GetAllProductsResponseDto getAllProducts() {
         List<GetProductDto> responseDto = new ArrayList<>();
@@ -127,6 +171,72 @@ public class ProductController {
         return response;
     }
 
+    // NDJSON (Newline Delimited JSON) export of the whole catalog, one product JSON per line. Asked with the header "Accept: application/x-ndjson".
+    // StreamingResponseBody - Products are written straight to the response output stream while they are read from the database, so memory stays flat whatever the catalog size (unlike getAllProducts() which builds the complete list first).
+    @GetMapping(value = "", produces = NDJSON_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportAllProducts() {
+        ObjectWriter productWriter = objectMapper.writerFor(GetProductDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);     // Let the output stream buffer decide when to flush instead of flushing every product
+
+        StreamingResponseBody responseBody = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                productService.streamAllProducts(product -> {
+                    try {
+                        productWriter.writeValue(generator, GetProductDto.fromProduct(product));
+                        generator.writeRaw('\n');
+                    }
+                    catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))
+                .body(responseBody);
+    }
+
+    // Cursor (keyset) based pagination, e.g. /products/?limit=20&sortingCriteria=PRICE_LOW_TO_HIGH&cursor={nextCursor of the previous page}
+    // Unlike offset pagination, every page costs the same however deep it is
+    @GetMapping(value = "", params = "limit")
+    public GetProductsWindowResponseDto getProductsWindow(@RequestParam("limit") int limit,
+                                                          @RequestParam(value = "cursor", required = false) String cursor,
+                                                          @RequestParam(value = "sortingCriteria", required = false) SortingCriteria sortingCriteria) {
+        if (limit < 1 || limit > MAX_WINDOW_SIZE)
+            throw new BadRequestException("limit should be between 1 and " + MAX_WINDOW_SIZE);
+        SorterFactory.checkSupported(sortingCriteria);
+
+        // Service called
+        Window<Product> products = productService.getProductsAfter(cursor, sortingCriteria, limit);
+
+        // Model --> DTO (Data conversion)
+        GetProductsWindowResponseDto response = new GetProductsWindowResponseDto();
+        response.setProducts(products.map(GetProductDto::fromProduct).getContent());
+
+        if (products.hasNext())
+            response.setNextCursor(KeysetCursor.encode(products.positionAt(products.size() - 1)));
+
+        return response;
+    }
+
+    // Batch lookup, e.g. /products/bulk?ids=1,2,3 - One call (and one cache round trip) for all the products of a cart/page instead of one call per product
+    // Products are returned in the order of the ids, ids which don't exist are left out
+    @GetMapping("/bulk")
+    public GetAllProductsResponseDto getProductsByIds(@RequestParam("ids") List<Long> productIds) {
+        if (productIds.isEmpty() || productIds.size() > MAX_BULK_IDS)
+            throw new BadRequestException("ids should have between 1 and " + MAX_BULK_IDS + " product ids");
+
+        // Service called
+        List<Product> products = productService.getProductsByIds(productIds);
+
+        // Model --> DTO (Data conversion)
+        GetAllProductsResponseDto response = new GetAllProductsResponseDto();
+        response.setProducts(products.stream().map(GetProductDto::fromProduct).toList());
+
+        return response;
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<GetProductDto> getSingleProduct(@PathVariable("id") Long productId) throws ProductNotFoundException {
         try {
@@ -140,6 +250,8 @@ public class ProductController {
             if (product == null)
                 return null;
 
+            popularityTracker.recordView(productId);     // In-memory counter only, written to Redis in the background
+
             return new ResponseEntity<>(GetProductDto.fromProduct(product), HttpStatus.OK);
         }
         catch (RuntimeException exception) {
@@ -150,6 +262,23 @@ public class ProductController {
         }
     }
 
+    // Called by the order service for every ordered product, counts towards the popularity ranking of the product
+    // Unknown products aren't counted (404), and orders beyond the caps of the flush interval are rejected (429, see PopularityTracker)
+    @PostMapping("/{id}/orders")
+    public ResponseEntity<Void> recordOrder(@PathVariable("id") Long productId) {
+        try {
+            if (productService.getProductById(productId) == null)
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        catch (ProductNotFoundException exception) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        if (!popularityTracker.recordOrder(productId))
+            return new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS);
+        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+    }
+
     @PutMapping("/{id}")
     public GetProductDto replaceProduct(@PathVariable("id") Long id, @RequestBody CreateProductDto productDto) {
         Product product = productService.replaceProduct(id, productDto.toProduct());
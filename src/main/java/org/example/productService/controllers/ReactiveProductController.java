@@ -0,0 +1,69 @@
+/*
+ Reactive endpoints backed by the ReactiveProductService (/reactive/products/...), same contract as ProductController.
+ Controller methods return Mono/Flux instead of values: the request thread is released as soon as the method returns, and the response is written when the upstream API/Redis answers.
+ [Important] Both spring-boot-starter-web and spring-boot-starter-webflux are on the classpath, in which case Spring Boot starts the servlet (Spring MVC) stack. Spring MVC handles Mono/Flux return values as async requests,
+ and the same controller runs unchanged on Netty if the web starter is removed (spring.main.web-application-type=reactive).
+ Flux with "Accept: application/x-ndjson" streams the products one per line as they arrive, otherwise they are collected into a JSON array.
+*/
+
+package org.example.productService.controllers;
+
+import org.example.productService.dtos.product.*;
+import org.example.productService.services.ReactiveProductService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/reactive/products")
+public class ReactiveProductController {
+    private final ReactiveProductService reactiveProductService;
+
+    public ReactiveProductController(ReactiveProductService reactiveProductService) {
+        this.reactiveProductService = reactiveProductService;
+    }
+
+    @PostMapping("")
+    public Mono<CreateProductResponseDto> createProduct(@RequestBody CreateProductRequestDto createProductRequestDto) {
+        return reactiveProductService.createProduct(createProductRequestDto.toProduct())
+                .map(product -> {
+                    CreateProductResponseDto response = new CreateProductResponseDto();
+                    response.setProduct(CreateProductDto.fromProduct(product));
+                    return response;
+                });
+    }
+
+    @GetMapping(value = "", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<GetProductDto> getAllProducts() {
+        return reactiveProductService.getAllProducts()
+                .map(GetProductDto::fromProduct);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<GetProductDto> getSingleProduct(@PathVariable("id") Long productId) {
+        return reactiveProductService.getProductById(productId)
+                .map(GetProductDto::fromProduct);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<GetProductDto> replaceProduct(@PathVariable("id") Long id, @RequestBody CreateProductDto productDto) {
+        return reactiveProductService.replaceProduct(id, productDto.toProduct())
+                .map(GetProductDto::fromProduct);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<PatchProductResponseDto> updateProduct(@PathVariable("id") Long productId, @RequestBody CreateProductDto productDto) {
+        return reactiveProductService.partialUpdateProduct(productId, productDto.toProduct())
+                .map(product -> {
+                    PatchProductResponseDto response = new PatchProductResponseDto();
+                    response.setProduct(GetProductDto.fromProduct(product));
+                    return response;
+                });
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteProduct(@PathVariable("id") Long productId) {
+        return reactiveProductService.deleteProduct(productId);
+    }
+}
@@ -46,10 +46,14 @@ package org.example.productService.controllers;
 import org.example.productService.dtos.product.GetProductDto;
 import org.example.productService.dtos.search.SearchRequestDto;
 import org.example.productService.dtos.search.SearchResponseDto;
+import org.example.productService.dtos.search.SearchWindowResponseDto;
 import org.example.productService.exception.ProductNotFoundException;
 import org.example.productService.models.Product;
 import org.example.productService.services.SearchService;
+import org.example.productService.services.paginationService.KeysetCursor;
+import org.example.productService.services.sortingService.SorterFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Window;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -69,10 +73,11 @@ public class SearchController {
     //      int pageNumber
     //      int pageSize
     public SearchResponseDto complexSearch(@RequestBody SearchRequestDto searchRequest) throws ProductNotFoundException {
+        SorterFactory.checkSupported(searchRequest.getSortingCriteria());     // 400 for a sort no search path supports
         SearchResponseDto response = new SearchResponseDto();
 
         // Call the search service to get the results
-        Page<Product> productsPage = searchService.search(
+        SearchService.SearchResult searchResult = searchService.search(
                 searchRequest.getQuery(),
                 searchRequest.getFilters(),
                 searchRequest.getSortingCriteria(),
@@ -81,7 +86,7 @@ public class SearchController {
         );
 
         // Set the results in the response
-        Page<GetProductDto> productDtoPage = productsPage.map(GetProductDto::fromProduct);
+        Page<GetProductDto> productDtoPage = searchResult.page().map(GetProductDto::fromProduct);
 
         // [Pagination Information]
         // int totalPages = productDtoPage.getTotalPages();
@@ -93,6 +98,30 @@ public class SearchController {
         // boolean hasPrevious = productDtoPage.hasPrevious();
 
         response.setProductsPage(productDtoPage);
+        response.setFacets(searchResult.facets());
+
+        return response;
+    }
+
+    @PostMapping("/seek")   // Cursor (keyset) based search, pageSize and cursor are used instead of pageNumber
+    public SearchWindowResponseDto seekSearch(@RequestBody SearchRequestDto searchRequest) {
+        SorterFactory.checkSupported(searchRequest.getSortingCriteria());
+        SearchWindowResponseDto response = new SearchWindowResponseDto();
+
+        // Call the search service to get the results
+        Window<Product> productsWindow = searchService.seekSearch(
+                searchRequest.getQuery(),
+                searchRequest.getFilters(),
+                searchRequest.getSortingCriteria(),
+                searchRequest.getCursor(),
+                searchRequest.getPageSize()
+        );
+
+        // Set the results in the response along with the cursor of the next page (if any)
+        response.setProducts(productsWindow.map(GetProductDto::fromProduct).getContent());
+
+        if (productsWindow.hasNext())
+            response.setNextCursor(KeysetCursor.encode(productsWindow.positionAt(productsWindow.size() - 1)));
 
         return response;
     }
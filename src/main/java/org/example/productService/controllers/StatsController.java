@@ -0,0 +1,69 @@
+// Operational statistics of this instance (cache hit ratios, upstream connection pool, etc.), to be scraped by monitoring or checked while debugging performance issues.
+
+package org.example.productService.controllers;
+
+import org.example.productService.dtos.stats.CacheStatsDto;
+import org.example.productService.dtos.stats.ProductCacheStatsResponseDto;
+import org.example.productService.dtos.stats.ThreadStatsDto;
+import org.example.productService.dtos.stats.UpstreamPoolStatsDto;
+import org.example.productService.services.cachingService.ProductCache;
+import org.example.productService.services.monitoringService.InstrumentedConnectionManager;
+import org.example.productService.services.monitoringService.VirtualThreadPinningMonitor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+    private final ProductCache productCache;
+    private final ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;     // Only present with virtual threads enabled
+    private final boolean virtualThreadsEnabled;
+    private final InstrumentedConnectionManager upstreamConnectionManager;
+
+    public StatsController(ProductCache productCache,
+                           InstrumentedConnectionManager upstreamConnectionManager,
+                           ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor,
+                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled) {
+        this.productCache = productCache;
+        this.upstreamConnectionManager = upstreamConnectionManager;
+        this.pinningMonitor = pinningMonitor;
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+    }
+
+    @GetMapping("/cache")
+    public ProductCacheStatsResponseDto getProductCacheStats() {
+        ProductCacheStatsResponseDto response = new ProductCacheStatsResponseDto();
+
+        CacheStatsDto local = CacheStatsDto.fromCounters(productCache.getLocalCounters());
+        local.setSize(productCache.getLocalSize());
+        response.setLocal(local);
+
+        response.setRedis(CacheStatsDto.fromCounters(productCache.getRedisCounters()));
+        response.setUpstreamLoads(productCache.getUpstreamLoads());
+        response.setCoalescedLoads(productCache.getCoalescedLoads());
+        response.setEarlyRefreshes(productCache.getEarlyRefreshes());
+
+        return response;
+    }
+
+    // Connection pool of the blocking upstream (FakeStore API) client: usage and time spent waiting for a free connection
+    @GetMapping("/upstream")
+    public UpstreamPoolStatsDto getUpstreamPoolStats() {
+        return UpstreamPoolStatsDto.fromConnectionManager(upstreamConnectionManager);
+    }
+
+    @GetMapping("/threads")
+    public ThreadStatsDto getThreadStats() {
+        ThreadStatsDto response = new ThreadStatsDto();
+        response.setVirtualThreadsEnabled(virtualThreadsEnabled);
+
+        VirtualThreadPinningMonitor monitor = pinningMonitor.getIfAvailable();
+        if (monitor != null)
+            response.setPinnedEvents(monitor.getPinnedEvents());
+
+        return response;
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.productService.dtos.product;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class BulkCreateProductsRequestDto {
+    private List<BulkProductDto> products;
+}
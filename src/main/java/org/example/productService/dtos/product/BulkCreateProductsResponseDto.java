@@ -0,0 +1,13 @@
+package org.example.productService.dtos.product;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class BulkCreateProductsResponseDto {
+    private int count;
+    private List<Long> ids;     // In the order of the request
+}
@@ -0,0 +1,18 @@
+package org.example.productService.dtos.product;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.example.productService.models.Product;
+
+@Getter
+@Setter
+public class BulkProductDto extends CreateProductRequestDto {
+    private Long id;    // Optional, product is inserted if null and upserted (inserted or updated) otherwise
+
+    @Override
+    public Product toProduct() {
+        Product product = super.toProduct();
+        product.setId(this.id);
+        return product;
+    }
+}
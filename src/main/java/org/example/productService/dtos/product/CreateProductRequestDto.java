@@ -30,6 +30,9 @@ public class CreateProductRequestDto {
     private double price;
     private String imageUrl;
     private String categoryName;
+    private String brand;
+    private String os;
+    private String ram;
 
     // Convert the DTO to a Product model
     public Product toProduct() {
@@ -39,6 +42,9 @@ public class CreateProductRequestDto {
         product.setDescription(this.description);
         product.setPrice(this.price);
         product.setImageUrl(this.imageUrl);
+        product.setBrand(this.brand);
+        product.setOs(this.os);
+        product.setRam(this.ram);
 
         Category category = new Category();
         category.setName(this.categoryName);
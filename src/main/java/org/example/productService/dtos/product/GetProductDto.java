@@ -15,6 +15,9 @@ public class GetProductDto {
     private double price;
     private String imageUrl;
     private String category;
+    private String brand;
+    private String os;
+    private String ram;
 
     public static GetProductDto fromProduct(Product product) {
         GetProductDto getProductDto = new GetProductDto();
@@ -24,6 +27,9 @@ public class GetProductDto {
         getProductDto.setDescription(product.getDescription());
         getProductDto.setPrice(product.getPrice());
         getProductDto.setImageUrl(product.getImageUrl());
+        getProductDto.setBrand(product.getBrand());
+        getProductDto.setOs(product.getOs());
+        getProductDto.setRam(product.getRam());
 
         if (product.getCategory() != null)
             getProductDto.setCategory(product.getCategory().getName());
@@ -0,0 +1,15 @@
+// Response of the cursor (keyset) based pagination. nextCursor is null on the last page, else it has to be passed as 'cursor' to get the next page.
+
+package org.example.productService.dtos.product;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class GetProductsWindowResponseDto {
+    private List<GetProductDto> products;
+    private String nextCursor;
+}
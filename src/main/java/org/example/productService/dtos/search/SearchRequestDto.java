@@ -13,4 +13,5 @@ public class SearchRequestDto {
     private SortingCriteria sortingCriteria;
     private int pageNumber;
     private int pageSize;
+    private String cursor;  // Only used by the cursor (keyset) based search, null for the first page
 }
\ No newline at end of file
@@ -5,6 +5,8 @@ import lombok.Setter;
 import org.example.productService.dtos.product.GetProductDto;
 import org.springframework.data.domain.Page;
 
+import java.util.Map;
+
 @Getter
 @Setter
 public class SearchResponseDto {
@@ -13,4 +15,5 @@ public class SearchResponseDto {
 //    private int pageSize;
 
     private Page<GetProductDto> productsPage; // Page object will take care of the pagination attributes and methods for us
+    private Map<String, Map<String, Integer>> facets;  // facet key (brand, os, ram, category, price) --> value --> number of matching products
 }
@@ -0,0 +1,16 @@
+// Response of the cursor (keyset) based search. nextCursor is null on the last page, else it has to be passed as 'cursor' in the next search request.
+
+package org.example.productService.dtos.search;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.example.productService.dtos.product.GetProductDto;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class SearchWindowResponseDto {
+    private List<GetProductDto> products;
+    private String nextCursor;
+}
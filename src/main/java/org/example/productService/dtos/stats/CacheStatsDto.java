@@ -0,0 +1,28 @@
+package org.example.productService.dtos.stats;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.example.productService.services.cachingService.CacheCounters;
+
+@Getter
+@Setter
+public class CacheStatsDto {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRatio;
+    private Integer size;   // Only known for the local cache
+
+    public static CacheStatsDto fromCounters(CacheCounters counters) {
+        CacheStatsDto cacheStatsDto = new CacheStatsDto();
+
+        cacheStatsDto.setHits(counters.getHits());
+        cacheStatsDto.setMisses(counters.getMisses());
+        cacheStatsDto.setEvictions(counters.getEvictions());
+
+        long lookups = counters.getHits() + counters.getMisses();
+        cacheStatsDto.setHitRatio(lookups == 0 ? 0 : (double) counters.getHits() / lookups);
+
+        return cacheStatsDto;
+    }
+}
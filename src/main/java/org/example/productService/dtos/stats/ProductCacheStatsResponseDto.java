@@ -0,0 +1,14 @@
+package org.example.productService.dtos.stats;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ProductCacheStatsResponseDto {
+    private CacheStatsDto local;    // L1 - In-process cache
+    private CacheStatsDto redis;    // L2 - Redis
+    private long upstreamLoads;     // Loads from the upstream API (one per group of concurrent misses)
+    private long coalescedLoads;    // Misses which waited for a load already in flight instead of calling the upstream API
+    private long earlyRefreshes;    // Reloads of hot products before their Redis entry expired
+}
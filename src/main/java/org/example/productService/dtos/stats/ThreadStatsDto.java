@@ -0,0 +1,11 @@
+package org.example.productService.dtos.stats;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ThreadStatsDto {
+    private boolean virtualThreadsEnabled;
+    private Long pinnedEvents;      // Null when the pinning monitor isn't running (platform threads mode)
+}
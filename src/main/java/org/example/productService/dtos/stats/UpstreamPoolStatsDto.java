@@ -0,0 +1,36 @@
+package org.example.productService.dtos.stats;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.hc.core5.pool.PoolStats;
+import org.example.productService.services.monitoringService.InstrumentedConnectionManager;
+
+@Getter
+@Setter
+public class UpstreamPoolStatsDto {
+    private int leased;         // Connections in use right now
+    private int available;      // Idle connections kept alive for reuse
+    private int pending;        // Requests waiting for a connection right now
+    private int max;
+    private long leases;
+    private long leaseTimeouts;
+    private double averageLeaseWaitMillis;
+    private double maxLeaseWaitMillis;
+
+    public static UpstreamPoolStatsDto fromConnectionManager(InstrumentedConnectionManager connectionManager) {
+        UpstreamPoolStatsDto upstreamPoolStatsDto = new UpstreamPoolStatsDto();
+
+        PoolStats poolStats = connectionManager.getTotalStats();
+        upstreamPoolStatsDto.setLeased(poolStats.getLeased());
+        upstreamPoolStatsDto.setAvailable(poolStats.getAvailable());
+        upstreamPoolStatsDto.setPending(poolStats.getPending());
+        upstreamPoolStatsDto.setMax(poolStats.getMax());
+
+        upstreamPoolStatsDto.setLeases(connectionManager.getLeases());
+        upstreamPoolStatsDto.setLeaseTimeouts(connectionManager.getLeaseTimeouts());
+        upstreamPoolStatsDto.setAverageLeaseWaitMillis(connectionManager.getAverageLeaseWaitMillis());
+        upstreamPoolStatsDto.setMaxLeaseWaitMillis(connectionManager.getMaxLeaseWaitMillis());
+
+        return upstreamPoolStatsDto;
+    }
+}
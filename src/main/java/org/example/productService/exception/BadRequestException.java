@@ -0,0 +1,14 @@
+// Thrown when the request itself is invalid (a malformed filter value, cursor, ...), so that the advice answers 400 Bad Request with the message instead of a generic error.
+// Unchecked, as it's raised deep inside the services (filters, cursors) where a checked exception would have to be declared by every caller.
+
+package org.example.productService.exception;
+
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+
+    public BadRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
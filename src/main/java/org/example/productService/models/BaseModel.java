@@ -16,16 +16,23 @@
         GenerationType.IDENTITY - The primary key is generated by the database using an auto-increment column. This strategy is supported by most databases.
         GenerationType.SEQUENCE - The primary key is generated using a sequence. This strategy is supported by Oracle, PostgreSQL, and other databases.
         GenerationType.TABLE - The primary key is generated using a database table to store the next available ID. This strategy is the least efficient and should be avoided.
+
+ CreationTimestamp / UpdateTimestamp - Hibernate sets createdAt when the row is inserted and lastModifiedAt on every insert and update (flush of a dirty entity), so no service has to remember it.
+    Writes which bypass Hibernate (ProductBulkRepository, CategoryUpsertRepository) set both columns themselves.
+    lastModifiedAt is the watermark CatalogChangeRefresher polls, hence every write of a row has to move it forward.
 */
 
 package org.example.productService.models;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.MappedSuperclass;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.util.Date;
 
@@ -36,7 +43,10 @@ public class BaseModel {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;    // ID will be generated by the database and not by the user
+    @CreationTimestamp
+    @Column(updatable = false)
     private Date createdAt;
+    @UpdateTimestamp
     private Date lastModifiedAt;
     private boolean isDeleted;
 }
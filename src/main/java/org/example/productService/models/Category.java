@@ -28,32 +28,28 @@ package org.example.productService.models;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
-import org.hibernate.annotations.Fetch;
-import org.hibernate.annotations.FetchMode;
 
 import java.util.List;
 
 @Getter
 @Setter
 @Entity
+@Table(indexes = @Index(name = "idx_category_last_modified_at_id", columnList = "last_modified_at, id"))    // Change polling, see Product
 public class Category extends BaseModel {
     @Column(nullable = false, unique = true, name = "category_name")  // Column annotation is used to specify the column details of the entity. In this case, we are specifying that the name column is not nullable (validation, cannot be empty) and unique. We are also specifying the name of the column in the database as category_name.
     private String name;
 
-    @Basic(fetch = FetchType.LAZY)
-    private String description;
+    private String description;     // Loaded with the category: @Basic(fetch = FetchType.LAZY) is ignored by Hibernate without bytecode enhancement, which this build doesn't do
 
-    @OneToMany(fetch = FetchType.EAGER)
-    @Fetch(FetchMode.SELECT)
+    @OneToMany     // LAZY (default for collections). Was EAGER + FetchMode.SELECT, which ran one extra query per loaded category for its featured products.
     private List<Product> featuredProducts;
 
-    @OneToMany(mappedBy = "category")   // Collections by default FetchType = LAZY
-    @Fetch(FetchMode.JOIN)
+    @OneToMany(mappedBy = "category")   // Collections by default FetchType = LAZY (FetchMode.JOIN would make it EAGER again, loading every product of the category with it)
     // category attribute of Product is representing this relation; [Important] If same relation is represented from both the classes, Spring may end up representing the relation twice in the database. To avoid this, we need to tell Spring that they are the same relation. This can be done by using the mappedBy attribute in the @OneToMany annotation to tell that it has already been marked by someone else.
     // @OneToMany(mappedBy = "category", cascade = {CascadeType.PERSIST, CascadeType.REMOVE})  // Example of cascade
     private List<Product> allProducts;
 
-    @OneToOne(cascade = {})
+    @OneToOne(cascade = {}, fetch = FetchType.LAZY)
     private Subcategory subcategory;
 
     private int countOfProducts;
@@ -7,27 +7,52 @@
 // @JoinColumn - It is used to specify the foreign key column that will be used to join two entities in a relationship. It is typically applied in associations such as @ManyToOne, @OneToOne, and @OneToMany.
 // @JsonInclude - It is used to specify how to include or exclude fields from the JSON response.
 // @Table - It is used to specify the table name for the entity.
+// Soft delete - Deleting a product only flags its row (is_deleted), so nothing cascades through the foreign keys (category_featured_products) and the change stays visible to change polling (CatalogChangeRefresher).
+//      @SQLDelete - SQL Hibernate runs instead of DELETE when a product entity is removed (repository.delete/deleteById). Deleted rows are physically removed later, in small batches, by DeletedProductPurger.
+//      @SQLRestriction - SQL condition Hibernate adds to every query loading products (JPQL, criteria, find by id, collections of products), so that deleted rows are never read. Native SQL has to add it itself.
 
 package org.example.productService.models;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
-import jakarta.persistence.Entity;
-import jakarta.persistence.ManyToOne;
-import jakarta.persistence.Table;
+import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.SQLRestriction;
 
 @Getter
 @Setter
 @JsonInclude(JsonInclude.Include.NON_NULL)  // To exclude null values from the JSON response
 @Entity
-@Table(name = "products")
+// Change polling (CatalogChangeRefresher) seeks on (last_modified_at, id), the index turns every poll into a range scan of the changed rows only
+// (is_deleted, category_id, price) - Every read starts with is_deleted = false, then filters by category and price range (search, listings), all of it answered from this index (covering) without reading the rows
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_last_modified_at_id", columnList = "last_modified_at, id"),
+        @Index(name = "idx_products_is_deleted_category_id_price", columnList = "is_deleted, category_id, price")
+})
+@SQLDelete(sql = "UPDATE products SET is_deleted = true, last_modified_at = NOW(6) WHERE id = ?")
+@SQLRestriction("is_deleted = false")
+// Fetch plans - Associations are LAZY by default, each use case asks for exactly what it renders with an entity graph on its repository method, so that they are loaded in the same query (JOIN) instead of one query per product (N+1)
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = Product.LIST_GRAPH, attributeNodes = @NamedAttributeNode("category")),
+        @NamedEntityGraph(name = Product.SEARCH_GRAPH, attributeNodes = @NamedAttributeNode("category")),
+        @NamedEntityGraph(name = Product.DETAIL_GRAPH,
+                attributeNodes = @NamedAttributeNode(value = "category", subgraph = "category.subcategory"),
+                subgraphs = @NamedSubgraph(name = "category.subcategory", attributeNodes = @NamedAttributeNode("subcategory")))
+})
 public class Product extends BaseModel {
+    public static final String LIST_GRAPH = "Product.list";       // Product listings - product + category name
+    public static final String SEARCH_GRAPH = "Product.search";   // Search result pages - product + category name
+    public static final String DETAIL_GRAPH = "Product.detail";   // Single product - product + category + subcategory
+
     private String title;
     private String description;
     private Double price;
     private String imageUrl;
+    private String brand;   // Searchable attributes, used by the brand/os/ram filters of SearchService
+    private String os;
+    private String ram;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)      // Default for @ManyToOne is EAGER, which loads the category (and everything eager inside it) with every product, by a separate query per category
     private Category category;    // Tell spring the cardinality of the relation between Product and Category for creation of table in the database
 }
@@ -0,0 +1,82 @@
+/*
+ Writes of category.count_of_products with plain JDBC.
+ Delta update - UPDATE category SET count_of_products = count_of_products + ? WHERE id = ?
+    The database adds the delta to the current value under the row lock, so concurrent writers can't lose each other's increments (a read-modify-write through the entity could).
+    All the deltas of a transaction are sent as one JDBC batch, ordered by category id so that two transactions touching the same categories lock them in the same order (no deadlock).
+ Reconciliation - Recomputes every count from the (not deleted) products with one UPDATE ... JOIN (COUNT(*) GROUP BY) and only writes the rows which drifted.
+    The counts of a few categories (the ones touched by polled changes, see CatalogChangeRefresher) are recomputed the same way, counting only their products through the category_id index.
+*/
+
+package org.example.productService.repositories;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+@Repository
+public class CategoryCountRepository {
+    private static final String INCREMENT_SQL = "UPDATE category SET count_of_products = count_of_products + ? WHERE id = ?";
+
+    private static final String RECONCILE_SQL = """
+            UPDATE category c
+            LEFT JOIN (SELECT category_id, COUNT(*) AS actual FROM products WHERE is_deleted = false GROUP BY category_id) p ON p.category_id = c.id
+            SET c.count_of_products = COALESCE(p.actual, 0)
+            WHERE c.count_of_products IS NULL OR c.count_of_products <> COALESCE(p.actual, 0)""";
+
+    private static final String RECONCILE_CATEGORIES_SQL = """
+            UPDATE category c
+            LEFT JOIN (SELECT category_id, COUNT(*) AS actual FROM products WHERE is_deleted = false AND category_id IN (%1$s) GROUP BY category_id) p ON p.category_id = c.id
+            SET c.count_of_products = COALESCE(p.actual, 0)
+            WHERE c.id IN (%1$s) AND (c.count_of_products IS NULL OR c.count_of_products <> COALESCE(p.actual, 0))""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CategoryCountRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Adds every delta (category id --> change in number of products) to its category, zero deltas are skipped
+    public void applyDeltas(Map<Long, Integer> deltas) {
+        List<Map.Entry<Long, Integer>> updates = new ArrayList<>();
+        for (Map.Entry<Long, Integer> delta : new TreeMap<>(deltas).entrySet())
+            if (delta.getValue() != 0)
+                updates.add(delta);
+
+        if (updates.isEmpty())
+            return;
+
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                statement.setInt(1, updates.get(i).getValue());
+                statement.setLong(2, updates.get(i).getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return updates.size();
+            }
+        });
+    }
+
+    // Sets every count to the actual number of products of the category, returns the number of categories which had drifted
+    public int reconcile() {
+        return jdbcTemplate.update(RECONCILE_SQL);
+    }
+
+    // Same as reconcile() for the given categories only
+    public int reconcile(Collection<Long> categoryIds) {
+        if (categoryIds.isEmpty())
+            return 0;
+
+        List<Long> ids = new ArrayList<>(new TreeSet<>(categoryIds));     // Same lock order as applyDeltas
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<Object> parameters = new ArrayList<>(ids);
+        parameters.addAll(ids);
+        return jdbcTemplate.update(String.format(RECONCILE_CATEGORIES_SQL, placeholders), parameters.toArray());
+    }
+}
@@ -5,13 +5,25 @@
 package org.example.productService.repositories;
 
 import org.example.productService.models.Category;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByName(String name);
 
+    List<Category> findAllByNameIn(Collection<String> names);   // SELECT * FROM category WHERE category_name IN (...) - One query for all the names
+
+    // Categories written after the watermark (last_modified_at, id) and before upTo, see ProductRepository.findChangedSince
+    @Query("SELECT c FROM Category c WHERE c.lastModifiedAt < :upTo AND (c.lastModifiedAt > :since OR (c.lastModifiedAt = :since AND c.id > :afterId)) ORDER BY c.lastModifiedAt, c.id")
+    List<Category> findChangedSince(@Param("since") Date since, @Param("afterId") long afterId, @Param("upTo") Date upTo, Limit limit);
+
     @Override
     Category save(Category category);
 }
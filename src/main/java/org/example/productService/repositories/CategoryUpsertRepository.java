@@ -0,0 +1,56 @@
+/*
+ Atomic get-or-create of a category by name in a single statement:
+    INSERT INTO category (...) VALUES (...) ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id)
+ If the name is new the row is inserted, if it already exists (unique constraint uc_category_name) nothing is changed and LAST_INSERT_ID is set to the existing id.
+ Either way the driver returns the category id as the generated key, so there is no "SELECT, then INSERT if missing" window in which two requests both try to insert the same name and one of them fails on the unique constraint.
+ REQUIRES_NEW - Runs and commits in its own short transaction, so that the lock on the new category row isn't held till the (possibly long, bulk) product transaction commits, which would serialize every request using that category.
+*/
+
+package org.example.productService.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+@Repository
+public class CategoryUpsertRepository {
+    private static final String UPSERT_SQL = """
+            INSERT INTO category (category_name, count_of_products, is_deleted, created_at, last_modified_at)
+            VALUES (?, 0, false, ?, ?)
+            ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CategoryUpsertRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Returns the id of the category with this name, creating it if it doesn't exist
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long getOrCreateIdByName(String name) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, name);
+            statement.setTimestamp(2, now);
+            statement.setTimestamp(3, now);
+            return statement;
+        }, keyHolder);
+
+        Number id = keyHolder.getKey();
+        if (id != null)
+            return id.longValue();
+
+        // No generated key is returned by the driver when the duplicate row needed no change, read the id instead
+        return jdbcTemplate.queryForObject("SELECT id FROM category WHERE category_name = ?", Long.class, name);
+    }
+}
@@ -1,5 +1,5 @@
 package org.example.productService.repositories;
 
 public class CustomQueries {
-    public final static String GET_PRODUCTS_WITH_SUBCATEGORY_NAME = "SELECT * FROM products p JOIN category c ON p.category_id = c.id JOIN Subcategory sc ON c.name = sc.name";
+    public final static String GET_PRODUCTS_WITH_SUBCATEGORY_NAME = "SELECT * FROM products p JOIN category c ON p.category_id = c.id JOIN Subcategory sc ON c.name = sc.name WHERE p.is_deleted = false";     // Native SQL doesn't get the @SQLRestriction of Product
 }
@@ -0,0 +1,134 @@
+/*
+ Bulk writes of products with plain JDBC batching, for ingesting thousands of products per call.
+ Why not productRepository.saveAll() - With GenerationType.IDENTITY Hibernate has to execute every INSERT on its own to read back the generated id, hence JDBC batching is disabled for these entities (one round trip per product).
+ JDBC batch - Many executions of one PreparedStatement sent together. With rewriteBatchedStatements=true (datasource url) the MySQL driver rewrites the batch into multi-row statements:
+    INSERT INTO products (...) VALUES (...), (...), (...)      -- One statement (and round trip) per batch instead of per product
+ AUTO_INCREMENT still generates the ids: a multi-row INSERT gets consecutive ids, and the driver returns them all as generated keys, so the id strategy of the entities doesn't have to change.
+ Upsert - Products coming with an id are written with INSERT ... ON DUPLICATE KEY UPDATE, i.e. inserted if the id doesn't exist and updated otherwise, in the same single statement.
+    Upserting a soft deleted product restores it, hence it counts as a new product of its category (findCategoryIdsByIds skips deleted rows).
+*/
+
+package org.example.productService.repositories;
+
+import org.example.productService.models.Product;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.*;
+import java.util.*;
+
+@Repository
+public class ProductBulkRepository {
+    private static final String INSERT_SQL = """
+            INSERT INTO products (title, description, price, image_url, brand, os, ram, category_id, created_at, last_modified_at, is_deleted)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false)""";
+
+    // Row alias (AS new) instead of the deprecated VALUES(column) function, MySQL 8.0.19+
+    private static final String UPSERT_SQL = """
+            INSERT INTO products (id, title, description, price, image_url, brand, os, ram, category_id, created_at, last_modified_at, is_deleted)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false) AS new
+            ON DUPLICATE KEY UPDATE title = new.title, description = new.description, price = new.price, image_url = new.image_url,
+                brand = new.brand, os = new.os, ram = new.ram, category_id = new.category_id, last_modified_at = new.last_modified_at, is_deleted = false""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Inserts the products (without ids) in one batch and sets the generated ids on them
+    public void insertAll(List<Product> products) {
+        if (products.isEmpty())
+            return;
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        setColumns(statement, 1, products.get(i), now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return products.size();
+                    }
+                },
+                keyHolder);
+
+        // Generated keys come back in the order of the rows
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < products.size(); i++)
+            products.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+    }
+
+    // Inserts or updates the products (with ids) in one batch
+    public void upsertAll(List<Product> products) {
+        if (products.isEmpty())
+            return;
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                statement.setLong(1, products.get(i).getId());
+                setColumns(statement, 2, products.get(i), now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return products.size();
+            }
+        });
+    }
+
+    // Current category id of every existing product among the ids (products without a category or deleted are left out), used to adjust the category counts of upserted products
+    public Map<Long, Long> findCategoryIdsByIds(Collection<Long> ids) {
+        Map<Long, Long> categoryIds = new HashMap<>();
+        if (ids.isEmpty())
+            return categoryIds;
+
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.query("SELECT id, category_id FROM products WHERE category_id IS NOT NULL AND is_deleted = false AND id IN (" + placeholders + ")",
+                resultSet -> {
+                    categoryIds.put(resultSet.getLong(1), resultSet.getLong(2));
+                },
+                ids.toArray());
+        return categoryIds;
+    }
+
+    // Physically deletes up to batchSize products soft deleted before deletedBefore (and their featured product links) in one short transaction, returns the number deleted.
+    // Rows are found through idx_products_is_deleted_category_id_price and locked (FOR UPDATE) till the commit, so a concurrent upsert can't restore a row being purged.
+    @Transactional
+    public int purgeDeleted(Timestamp deletedBefore, int batchSize) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM products WHERE is_deleted = true AND last_modified_at < ? LIMIT ? FOR UPDATE",
+                Long.class, deletedBefore, batchSize);
+        if (ids.isEmpty())
+            return 0;
+
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.update("DELETE FROM category_featured_products WHERE featured_products_id IN (" + placeholders + ")", ids.toArray());
+        return jdbcTemplate.update("DELETE FROM products WHERE id IN (" + placeholders + ")", ids.toArray());
+    }
+
+    // Sets title ... last_modified_at starting at the given parameter index
+    private static void setColumns(PreparedStatement statement, int index, Product product, Timestamp now) throws SQLException {
+        statement.setString(index++, product.getTitle());
+        statement.setString(index++, product.getDescription());
+        statement.setObject(index++, product.getPrice(), Types.DOUBLE);
+        statement.setString(index++, product.getImageUrl());
+        statement.setString(index++, product.getBrand());
+        statement.setString(index++, product.getOs());
+        statement.setString(index++, product.getRam());
+        statement.setObject(index++, product.getCategory() == null ? null : product.getCategory().getId(), Types.BIGINT);
+        statement.setTimestamp(index++, now);
+        statement.setTimestamp(index, now);
+    }
+}
@@ -60,20 +60,31 @@
 
 package org.example.productService.repositories;
 
+import jakarta.persistence.QueryHint;
 import org.example.productService.models.Product;
+import org.example.productService.repositories.projections.ProductChange;
+import org.example.productService.repositories.projections.ProductSummary;
 import org.example.productService.repositories.projections.ProductWithIdAndTitle;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductSummaryQueries {   // JpaSpecificationExecutor - To run the search Specifications (Criteria API) built by SearchService, ProductSummaryQueries - Projection reads of the search
     // Create and Update operations is done using save()
     // If the product you try to save has an ID:
     // JPA will see if a product with that ID exists:
@@ -93,8 +104,49 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Override
     Optional<Product> findById(Long id);
 
+    // Fetch plans (named entity graphs declared on Product), picked explicitly per use case by ProductServiceDBImpl and SearchService
+    @EntityGraph(Product.DETAIL_GRAPH)
     Product findByIdIs(Long id);
 
+    @EntityGraph(Product.LIST_GRAPH)
+    @Query("SELECT p FROM Product p")
+    List<Product> findAllForListing();
+
+    // Rows written after the watermark (last_modified_at, id) and before upTo, in that order: one seek on idx_products_last_modified_at_id per batch (see CatalogChangeRefresher)
+    // Native SQL, so that soft deleted rows are read too (@SQLRestriction would hide them): their deletion is a change as well
+    @Query(value = """
+            SELECT id, last_modified_at AS lastModifiedAt, is_deleted AS deleted FROM products
+            WHERE last_modified_at < :upTo AND (last_modified_at > :since OR (last_modified_at = :since AND id > :afterId))
+            ORDER BY last_modified_at, id LIMIT :limit""", nativeQuery = true)
+    List<ProductChange> findChangesSince(@Param("since") Date since, @Param("afterId") long afterId, @Param("upTo") Date upTo, @Param("limit") int limit);
+
+    @EntityGraph(Product.LIST_GRAPH)
+    List<Product> findAllByIdIn(Collection<Long> ids);
+
+    @EntityGraph(Product.LIST_GRAPH)
+    List<Product> findAllByCategory_Id(Long categoryId);
+
+    // Projection reads for the list and search responses (see ProductSummary), nothing is hydrated into the persistence context
+    @Query(ProductSummary.SELECT + "FROM Product p LEFT JOIN p.category c")
+    List<ProductSummary> findAllSummaries();
+
+    @Query(ProductSummary.SELECT + "FROM Product p LEFT JOIN p.category c WHERE p.id IN :ids")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Override
+    @EntityGraph(Product.SEARCH_GRAPH)
+    Page<Product> findAll(Specification<Product> specification, Pageable pageable);
+
+    // Stream - Rows are read one by one from an open JDBC result set instead of loading the whole table in a List. Has to be consumed inside a transaction and closed afterwards.
+    // MySQL driver only streams the rows (forward-only cursor) when fetch size is Integer.MIN_VALUE, otherwise it buffers the complete result set in memory.
+    // Read-only hint skips the dirty-checking snapshots as the products are never modified.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category")
+    Stream<Product> streamAllBy();
+
     Optional<List<Product>> findAllByTitleContaining(String title); // Find all products by title containing a given string
 
     Page<Product> findAllByTitleContainingAndCategory_Id(String title, Long categoryId, Pageable pageable); // Find all products by title containing a given string and category id and also applies pagination to the result set based on the Pageable parameter.
@@ -129,6 +181,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<ProductWithIdAndTitle> randomSearchMethod(Long x);     // Projection: ProductWithIdAndTitle
 
     // SQL
-    @Query(value = "select p.id as id, p.title as title from product p where p.id = :productId", nativeQuery = true)
+    @Query(value = "select p.id as id, p.title as title from products p where p.id = :productId and p.is_deleted = false", nativeQuery = true)
     List<ProductWithIdAndTitle> randomSearchMethod2(Long productId);
 }
@@ -0,0 +1,14 @@
+// Custom repository fragment - Spring Data merges the implementation (ProductSummaryQueriesImpl, found by the "Impl" suffix) into ProductRepository, for the queries which can't be derived or written as a single @Query.
+
+package org.example.productService.repositories;
+
+import org.example.productService.models.Product;
+import org.example.productService.repositories.projections.ProductSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface ProductSummaryQueries {
+    // Same as findAll(Specification, Pageable) but reads ProductSummary projections instead of Product entities
+    Page<ProductSummary> findSummaries(Specification<Product> specification, Pageable pageable);
+}
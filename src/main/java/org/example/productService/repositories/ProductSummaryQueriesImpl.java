@@ -0,0 +1,66 @@
+package org.example.productService.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+import org.example.productService.repositories.projections.ProductSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class ProductSummaryQueriesImpl implements ProductSummaryQueries {
+    private final EntityManager entityManager;
+
+    public ProductSummaryQueriesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<ProductSummary> findSummaries(Specification<Product> specification, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+
+        // SELECT p.id, p.title, ..., c.category_name FROM products p LEFT JOIN category c ON ... WHERE {specification} ORDER BY ... LIMIT ... OFFSET ...
+        CriteriaQuery<ProductSummary> query = criteriaBuilder.createQuery(ProductSummary.class);
+        Root<Product> product = query.from(Product.class);
+        Join<Product, Category> category = product.join("category", JoinType.LEFT);
+        query.select(criteriaBuilder.construct(ProductSummary.class,
+                product.get("id"), product.get("title"), product.get("description"), product.get("price"), product.get("imageUrl"),
+                product.get("brand"), product.get("os"), product.get("ram"), category.get("name")));
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(product, query, criteriaBuilder);
+        if (predicate != null)
+            query.where(predicate);
+        if (pageable.getSort().isSorted())
+            query.orderBy(toOrders(pageable.getSort(), product, criteriaBuilder));
+
+        TypedQuery<ProductSummary> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<ProductSummary> content = typedQuery.getResultList();
+
+        // COUNT query is skipped when the page tells the total already (first page not full, etc.)
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(specification));
+    }
+
+    private long count(Specification<Product> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(criteriaBuilder.count(product));
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(product, query, criteriaBuilder);
+        if (predicate != null)
+            query.where(predicate);
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
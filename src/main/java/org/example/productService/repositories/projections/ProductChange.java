@@ -0,0 +1,12 @@
+package org.example.productService.repositories.projections;
+
+import java.util.Date;
+
+// Row of the products table written since a change poll watermark (see ProductRepository.findChangesSince), deleted rows included
+public interface ProductChange {
+    Long getId();
+
+    Date getLastModifiedAt();
+
+    Boolean getDeleted();
+}
@@ -0,0 +1,37 @@
+// Class based (DTO) projection - Only the columns rendered by GetProductDto, with the category name joined in the same query.
+// Selected with a constructor expression (SELECT new ...ProductSummary(...)), so Hibernate creates plain records: no managed entities, no proxies, no dirty-checking snapshots kept in the persistence context.
+// Records are used rather than interface projections (like ProductWithIdAndTitle), which are backed by a proxy over a tuple per row.
+
+package org.example.productService.repositories.projections;
+
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+
+public record ProductSummary(Long id, String title, String description, Double price, String imageUrl,
+                             String brand, String os, String ram, String categoryName) {
+
+    // JPQL select list of the constructor expression, "p" is the product and "c" its (left joined) category
+    public static final String SELECT = "SELECT new org.example.productService.repositories.projections.ProductSummary(" +
+            "p.id, p.title, p.description, p.price, p.imageUrl, p.brand, p.os, p.ram, c.name) ";
+
+    // Detached Product holding only the projected fields, for the callers working with the Product model
+    public Product toProduct() {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(title);
+        product.setDescription(description);
+        product.setPrice(price);
+        product.setImageUrl(imageUrl);
+        product.setBrand(brand);
+        product.setOs(os);
+        product.setRam(ram);
+
+        if (categoryName != null) {
+            Category category = new Category();
+            category.setName(categoryName);
+            product.setCategory(category);
+        }
+
+        return product;
+    }
+}
@@ -0,0 +1,65 @@
+// Specification - Spring Data JPA abstraction over the JPA Criteria API. Each Specification builds one SQL predicate (WHERE clause fragment) and they can be combined using and()/or().
+// Used by SearchService to push the search filters down into the database, so that only the requested page is fetched (LIMIT/OFFSET) instead of loading every matching row into memory.
+// Repository has to extend JpaSpecificationExecutor<Model> to be able to run a Specification: findAll(Specification, Pageable) issues the page query and the count query.
+
+package org.example.productService.repositories.specifications;
+
+import org.example.productService.models.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public class ProductSpecifications {
+
+    // WHERE title LIKE '%query%'
+    public static Specification<Product> titleContains(String query) {
+        return (root, criteriaQuery, criteriaBuilder) -> {
+            if (query == null || query.isBlank())
+                return criteriaBuilder.conjunction();   // No text query, match everything
+
+            return criteriaBuilder.like(root.get("title"), "%" + escapeLikePattern(query) + "%", '\\');
+        };
+    }
+
+    // WHERE {attribute} IN (value1, value2, ...) - values of the same filter are OR'ed
+    public static Specification<Product> attributeIn(String attribute, List<String> values) {
+        return (root, criteriaQuery, criteriaBuilder) -> {
+            if (values == null || values.isEmpty())
+                return criteriaBuilder.conjunction();
+
+            return root.get(attribute).in(values);
+        };
+    }
+
+    // JOIN category c ON c.id = products.category_id WHERE c.category_name IN (value1, value2, ...)
+    public static Specification<Product> categoryNameIn(List<String> values) {
+        return (root, criteriaQuery, criteriaBuilder) -> {
+            if (values == null || values.isEmpty())
+                return criteriaBuilder.conjunction();
+
+            return root.join("category").get("name").in(values);
+        };
+    }
+
+    // WHERE price >= {lowPrice}
+    public static Specification<Product> priceAtLeast(double lowPrice) {
+        return (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(root.get("price"), lowPrice);
+    }
+
+    // WHERE price <= {highPrice}
+    public static Specification<Product> priceAtMost(double highPrice) {
+        return (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.lessThanOrEqualTo(root.get("price"), highPrice);
+    }
+
+    // WHERE price IS NOT NULL
+    public static Specification<Product> hasPrice() {
+        return (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.isNotNull(root.get("price"));
+    }
+
+    // '%' and '_' typed by the user should be matched literally and not as LIKE wildcards
+    private static String escapeLikePattern(String query) {
+        return query.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -4,21 +4,33 @@
 
 package org.example.productService.services;
 
+import org.example.productService.dtos.search.SortingCriteria;
 import org.example.productService.exception.ProductNotFoundException;
 import org.example.productService.models.Product;
+import org.springframework.data.domain.Window;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ProductService {
 
     Product createProduct(Product product);
 
+    List<Product> createProducts(List<Product> products);   // Bulk ingestion, products with an id are upserted. Returns the products with their ids set.
+
     List<Product> getAllProducts();
 
+    void streamAllProducts(Consumer<Product> action);   // Hands the products one by one to the action without keeping the whole catalog in memory
+
+    Window<Product> getProductsAfter(String cursor, SortingCriteria sortingCriteria, int limit);    // Keyset pagination, cursor is null for the first page
+
     Product partialUpdateProduct(Long productId, Product product) throws ProductNotFoundException;
 
     Product getProductById(Long id) throws ProductNotFoundException;
 
+    List<Product> getProductsByIds(Collection<Long> ids);   // Batch lookup in the order of the ids, the ids which don't exist are left out
+
     Product replaceProduct(Long id, Product product);
 
     void deleteProduct(Long id);
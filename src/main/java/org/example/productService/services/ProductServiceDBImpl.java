@@ -3,29 +3,56 @@
 
 package org.example.productService.services;
 
+import jakarta.persistence.EntityManager;
+import org.example.productService.dtos.search.SortingCriteria;
 import org.example.productService.exception.ProductNotFoundException;
 import org.example.productService.models.Category;
 import org.example.productService.models.Product;
-import org.example.productService.repositories.CategoryRepository;
+import org.example.productService.repositories.ProductBulkRepository;
 import org.example.productService.repositories.ProductRepository;
+import org.example.productService.repositories.projections.ProductSummary;
+import org.example.productService.services.cachingService.CategoryIdCache;
+import org.example.productService.services.countingService.CategoryCountDeltas;
+import org.example.productService.services.indexingService.ProductSearchIndex;
+import org.example.productService.services.paginationService.KeysetCursor;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 // Logic to save the product in the database
 @Service("dBProductService")
 public class ProductServiceDBImpl implements ProductService {
+    private static final int STREAM_CLEAR_INTERVAL = 1000;
+    private static final int BULK_BATCH_SIZE = 1000;    // Rows per multi-row INSERT statement (keeps the statement below max_allowed_packet)
+
     private final ProductRepository productRepository;  // Dependency Inversion
-    private final CategoryRepository categoryRepository; // Dependency Inversion
+    private final ProductBulkRepository productBulkRepository;
+    private final CategoryIdCache categoryIdCache;
+    private final CategoryCountDeltas categoryCountDeltas;
+    private final ProductSearchIndex productSearchIndex;
+    private final EntityManager entityManager;
 
     // Constructor Injection
-    public ProductServiceDBImpl(ProductRepository productRepository, CategoryRepository categoryRepository) {
+    public ProductServiceDBImpl(ProductRepository productRepository, ProductBulkRepository productBulkRepository,
+                                CategoryIdCache categoryIdCache, CategoryCountDeltas categoryCountDeltas, ProductSearchIndex productSearchIndex, EntityManager entityManager) {
         this.productRepository = productRepository;
-        this.categoryRepository = categoryRepository;
+        this.productBulkRepository = productBulkRepository;
+        this.categoryIdCache = categoryIdCache;
+        this.categoryCountDeltas = categoryCountDeltas;
+        this.productSearchIndex = productSearchIndex;
+        this.entityManager = entityManager;
     }
 
     @Override
+    @Transactional  // Product row and the count of its category are committed together
     public Product createProduct(Product product) {
         // Get the category of the product
         Category categoryToBeSaved = getCategoryInProduct(product);
@@ -34,7 +61,47 @@ public class ProductServiceDBImpl implements ProductService {
         product.setCategory(categoryToBeSaved);
 
         // Save the product in the database
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+
+        // count_of_products of the category, written once before the commit
+        categoryCountDeltas.increment(categoryToBeSaved.getId());
+
+        // Keep the search index current, only once the product is committed
+        afterCommit(() -> productSearchIndex.index(savedProduct));
+
+        return savedProduct;
+    }
+
+    @Override
+    @Transactional  // All the batches (and the category counts) are committed together
+    public List<Product> createProducts(List<Product> products) {
+        // Categories of all the products resolved from the CategoryIdCache (+ one IN query for the uncached names and one upsert per category not seen before) instead of one lookup per product
+        Map<String, Category> categoriesByName = resolveCategories(products);
+        for (Product product : products)
+            product.setCategory(categoriesByName.get(product.getCategory().getName()));
+
+        List<Product> newProducts = new ArrayList<>();
+        List<Product> upsertedProducts = new ArrayList<>();
+        for (Product product : products)
+            (product.getId() == null ? newProducts : upsertedProducts).add(product);
+
+        // Category counts: +1 for every new product, upserted products only count if they are new or moved to another category
+        // Deltas are summed per category, so the whole ingestion costs one UPDATE per category touched
+        Map<Long, Long> previousCategoryIds = productBulkRepository.findCategoryIdsByIds(upsertedProducts.stream().map(Product::getId).toList());
+        for (Product product : newProducts)
+            categoryCountDeltas.increment(product.getCategory().getId());
+        for (Product product : upsertedProducts)
+            categoryCountDeltas.move(previousCategoryIds.get(product.getId()), product.getCategory().getId());
+
+        for (int from = 0; from < newProducts.size(); from += BULK_BATCH_SIZE)
+            productBulkRepository.insertAll(newProducts.subList(from, Math.min(from + BULK_BATCH_SIZE, newProducts.size())));
+        for (int from = 0; from < upsertedProducts.size(); from += BULK_BATCH_SIZE)
+            productBulkRepository.upsertAll(upsertedProducts.subList(from, Math.min(from + BULK_BATCH_SIZE, upsertedProducts.size())));
+
+        // Keep the search index current (one lock for the whole batch), only once the products are committed
+        afterCommit(() -> productSearchIndex.indexBatch(products));
+
+        return products;
     }
 
     @Override
@@ -42,10 +109,40 @@ public class ProductServiceDBImpl implements ProductService {
         // List<Product> products = productRepository.findAllByCategory_Subcategories_NameEquals("Nishant");   // JPA query method (attribute of/inside Attribute call), Get all products by subcategory name
         // List<Product> products = productRepository.JPQLFunction1(100.0);    // JPQL query method, Get all products with price greater than 100
         // List<Product> products = productRepository.JPQLFunction2("Nishant");    // JPQL query method, Get all products with subcategory name "Nishant"
-        return productRepository.findAll();
+        // Only the rendered columns (and the category name) in one query, read into projections instead of managed entities
+        return productRepository.findAllSummaries().stream()
+                .map(ProductSummary::toProduct)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)     // Streamed result set is only open inside a transaction
+    public void streamAllProducts(Consumer<Product> action) {
+        try (Stream<Product> products = productRepository.streamAllBy()) {
+            int count = 0;
+            for (Iterator<Product> iterator = products.iterator(); iterator.hasNext(); ) {
+                action.accept(iterator.next());
+
+                // Products already handed out are detached, so that the persistence context (and memory) doesn't grow with the catalog size
+                if (++count % STREAM_CLEAR_INTERVAL == 0)
+                    entityManager.clear();
+            }
+        }
     }
 
     @Override
+    public Window<Product> getProductsAfter(String cursor, SortingCriteria sortingCriteria, int limit) {
+        // SELECT * FROM products WHERE (price, id) > (:lastPrice, :lastId) ORDER BY price, id LIMIT {limit}
+        // No OFFSET and no COUNT query, hence every page costs the same however deep it is
+        Sort sort = KeysetCursor.seekSort(sortingCriteria);
+        ScrollPosition position = KeysetCursor.decode(cursor, sortingCriteria);
+
+        // project("category") - Loads the category with the window query (fetch graph) instead of one query per product later
+        return productRepository.findBy(KeysetCursor.seekSpecification(sortingCriteria), query -> query.project("category").sortBy(sort).limit(limit).scroll(position));
+    }
+
+    @Override
+    @Transactional
     public Product partialUpdateProduct(Long productId, Product product) throws ProductNotFoundException {
         // Get the product to be updated
         Optional<Product> productRequested = productRepository.findById(productId);
@@ -67,39 +164,68 @@ public class ProductServiceDBImpl implements ProductService {
             productToBeUpdated.setImageUrl(product.getImageUrl());
         if (product.getCategory() != null) {
             Category categoryToBeSaved = getCategoryInProduct(product);
+            Category previousCategory = productToBeUpdated.getCategory();
+
+            // getId() of the lazy category proxy doesn't load it
+            categoryCountDeltas.move(previousCategory == null ? null : previousCategory.getId(), categoryToBeSaved.getId());
             productToBeUpdated.setCategory(categoryToBeSaved);
         }
 
         // Save the updated product in the database
-        return productRepository.save(productToBeUpdated);
+        Product savedProduct = productRepository.save(productToBeUpdated);
+
+        // Keep the search index current, only once the product is committed
+        afterCommit(() -> productSearchIndex.index(savedProduct));
+
+        return savedProduct;
     }
 
     // Helper method to get the category of the product
+    // Category id comes from the CategoryIdCache (created atomically if the name is new) and the category is referenced by id: no SELECT by name on every write
     private Category getCategoryInProduct(Product product) {
         String categoryName = product.getCategory().getName();
+        long categoryId = categoryIdCache.getOrCreateId(categoryName);
 
-        Optional<Category> category = categoryRepository.findByName(categoryName);
-        Category categoryToBeSaved;
+        // Plain (not managed) category holding the id and the name it was looked up by: the id is enough to set the foreign key, and the name read by the
+        // search index and the response doesn't load it either (a getReference proxy would be loaded by getName())
+        Category category = new Category();
+        category.setId(categoryId);
+        category.setName(categoryName);
+        return category;
+    }
 
-        /**
-         * category.orElseGet(product::getCategory) checks if category contains a value:
-         * This method is a part of the Optional class.
-         * If category is present (not empty), it assigns that value to categoryToBeSaved.
-         * If category is empty, it calls product.getCategory() and assigns the returned value to categoryToBeSaved.
+    // Runs the index change once the current transaction has committed, so that a rolled back write (e.g. a failed batch or count update) is never searchable, nor a rolled back delete missing from the search
+    // Without an active transaction it runs immediately
+    private void afterCommit(Runnable indexChange) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            indexChange.run();
+            return;
+        }
 
-         categoryToBeSaved = category.orElseGet(product::getCategory); // Above if-else block can be replaced with this line for function coding style
-         */
-        if (category.isEmpty()) {   // Better implementation of if-else block for function coding style in comments above
-            // Category newCategory = new Category();   // No need to save the new category in the database if cascade is used (It will be saved automatically when the product is saved by JPA)
-            // categoryToBeSaved.setName(categoryName);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                indexChange.run();
+            }
+        });
+    }
 
-            Category newCategory = categoryRepository.save(product.getCategory()); // Save the category in the database
-            categoryToBeSaved = newCategory;
-        }
-        else
-            categoryToBeSaved = category.get();
+    // Categories of the bulk products by name, new ones are created
+    private Map<String, Category> resolveCategories(List<Product> products) {
+        Set<String> categoryNames = new HashSet<>();
+        for (Product product : products)
+            categoryNames.add(product.getCategory().getName());
 
-        return categoryToBeSaved;
+        // JDBC batch insert only needs the id, hence plain (not managed) categories holding the id and the name are enough
+        Map<String, Category> categoriesByName = new HashMap<>();
+        categoryIdCache.getOrCreateIds(categoryNames).forEach((name, id) -> {
+            Category category = new Category();
+            category.setId(id);
+            category.setName(name);
+            categoriesByName.put(name, category);
+        });
+
+        return categoriesByName;
     }
 
     @Override
@@ -107,6 +233,20 @@ public class ProductServiceDBImpl implements ProductService {
         return productRepository.findByIdIs(productId);
     }
 
+    @Override
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        // SELECT * FROM products WHERE id IN (...) - One query for all the ids
+        Map<Long, Product> productsById = new HashMap<>();
+        for (ProductSummary summary : productRepository.findSummariesByIdIn(ids))
+            productsById.put(summary.id(), summary.toProduct());
+
+        // IN query doesn't keep the order of the ids
+        return ids.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     // TODO
     @Override
     public Product replaceProduct(Long id, Product product) {
@@ -114,7 +254,17 @@ public class ProductServiceDBImpl implements ProductService {
     }
 
     @Override
+    @Transactional
     public void deleteProduct(Long id) {
-        productRepository.deleteById(id);
+        // deleteById() loads the product anyway, loading it here gives its category for the count (an already deleted product isn't found)
+        // delete() runs the @SQLDelete of Product: the row is only flagged as deleted, DeletedProductPurger removes it later
+        productRepository.findById(id).ifPresent(product -> {
+            if (product.getCategory() != null)
+                categoryCountDeltas.decrement(product.getCategory().getId());
+            productRepository.delete(product);
+        });
+
+        // Keep the search index current, only once the delete is committed
+        afterCommit(() -> productSearchIndex.remove(id));
     }
 }
@@ -42,11 +42,14 @@ package org.example.productService.services;
 
 import org.example.productService.dtos.fakestore.FakeStoreCreateProductRequestDto;
 import org.example.productService.dtos.fakestore.FakeStoreGetProductResponseDto;
+import org.example.productService.dtos.search.SortingCriteria;
 import org.example.productService.exception.ProductNotFoundException;
 import org.example.productService.models.Product;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.example.productService.services.cachingService.ProductCache;
+import org.example.productService.services.paginationService.KeysetCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
@@ -57,23 +60,29 @@ import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 
 @Service("fakeStoreProductService")
 // @Primary
 public class ProductServiceFakeStoreImpl implements ProductService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductServiceFakeStoreImpl.class);
+    private static final int UPSTREAM_BATCH_CONCURRENCY = 16;   // Max concurrent upstream calls for the misses of one batch lookup (or the products of one bulk create)
+
     private final WebClient webClient;
     private final RestTemplate restTemplate;
-    private RedisTemplate<String, Object> redisTemplate;
+    private final ProductCache productCache;    // L1 (in-process) + L2 (Redis) cache
 
     // Error (IMPORTANT): Could not autowire. No beans of 'RestTemplate' or 'WebClient' types found, hence manually create a bean of RestTemplate in the configuration class
-    public ProductServiceFakeStoreImpl(WebClient.Builder webClientBuilder, RestTemplate restTemplate, RedisTemplate redisTemplate) {
+    public ProductServiceFakeStoreImpl(WebClient.Builder webClientBuilder, RestTemplate restTemplate, ProductCache productCache) {
         this.webClient = webClientBuilder.baseUrl("https://fakestoreapi.com").build();
         this.restTemplate = restTemplate;
-        this.redisTemplate = redisTemplate;
+        this.productCache = productCache;
     }
 
     @Override
@@ -95,6 +104,22 @@ public class ProductServiceFakeStoreImpl implements ProductService {
         return createProductResponse;
     }
 
+    @Override
+    public List<Product> createProducts(List<Product> products) {
+        // FakeStore API only creates one product per call, hence the products are posted concurrently (non-blocking WebClient) and waited for once
+        // flatMapSequential - Responses are returned in the order of the products, whatever order they arrive in. A failed call fails the whole batch.
+        return Flux.fromIterable(products)
+                .flatMapSequential(product -> webClient.post()
+                        .uri("/products")
+                        .bodyValue(FakeStoreCreateProductRequestDto.fromProduct(product))
+                        .retrieve()
+                        .bodyToMono(FakeStoreGetProductResponseDto.class)
+                        .map(FakeStoreGetProductResponseDto::toProduct),
+                        UPSTREAM_BATCH_CONCURRENCY)
+                .collectList()
+                .block();
+    }
+
     @Override
     public List<Product> getAllProducts() {
          // [Important] List<FakeStoreCreateProductResponseDto> will not work due to Type Erasure in Java (Generics are removed and replaced with Object during compilation) but Array/ParameterizedTypeReference will work here
@@ -111,10 +136,26 @@ public class ProductServiceFakeStoreImpl implements ProductService {
                                         .map(FakeStoreGetProductResponseDto::toProduct)
                                         .toList();
 
+        // Fill the cache with the whole catalog (one pipeline), so that the following lookups by id don't go to the 3rd party API
+        productCache.putAll(products);
+
         // Return Model
         return products;
     }
 
+    @Override
+    public void streamAllProducts(Consumer<Product> action) {
+        // FakeStore API returns the whole catalog in one response, hence nothing more to stream than handing the products one by one
+        getAllProducts().forEach(action);
+    }
+
+    @Override
+    public Window<Product> getProductsAfter(String cursor, SortingCriteria sortingCriteria, int limit) {
+        // FakeStore API only supports fetching all the products or the first N products, hence there is no cursor to seek to upstream.
+        // The (small) catalog is fetched whole, which also fills the product cache, and the seek runs over it in memory.
+        return KeysetCursor.seek(getAllProducts(), sortingCriteria, KeysetCursor.decode(cursor, sortingCriteria), limit);
+    }
+
     @Override
     public Product partialUpdateProduct(Long productId, Product product) {
         /** Error: PATCH method not supported by RestTemplate */
@@ -137,20 +178,64 @@ public class ProductServiceFakeStoreImpl implements ProductService {
                 .bodyToMono(FakeStoreGetProductResponseDto.class)
                 .block(); // Blocking for simplicity (Sync call)
 
+        // Cached copy is stale now, remove it from both the cache tiers (and from the other instances)
+        productCache.invalidate(productId);
+
         return response.toProduct();
     }
 
     @Override
     public Product getProductById(Long productId) throws ProductNotFoundException {
-        // Try to fetch the product from Redis.
-        Product product = (Product) redisTemplate.opsForHash().get("PRODUCTS", "PRODUCT_" + productId);     // Category/Table: "PRODUCTS", Hash Key: "PRODUCT_123"
+        // Cache HIT - Product returned from the local L1 cache or Redis L2
+        // Cache MISS - Product fetched from the 3rd party API and stored in both the cache tiers. Concurrent misses of the same product share that one API call and cache fill.
+        Product product = productCache.getOrLoad(productId, () -> fetchProduct(productId));
 
-        // Cache HIT
-        if (product != null) {
-            return product;
+        if (product == null) {
+            throw new ProductNotFoundException("Product with id: " + productId + " doesn't exist. Retry some other product.");
         }
 
-        // Fetch the product from the 3rd party API and store it in Redis for future requests
+        return product;
+    }
+
+    @Override
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().toList();
+
+        // L1 + one MGET to Redis for all the ids
+        Map<Long, Product> products = new HashMap<>(productCache.getAll(distinctIds));
+
+        // Only the misses go to the 3rd party API. FakeStore has no batch endpoint, hence the misses are fetched concurrently (non-blocking WebClient) and waited for once, instead of one after the other
+        // Misses already being loaded by another request (single or batch lookup) are joined instead of fetched again, the cache fills the fetched ones in one pipeline
+        List<Long> missingIds = distinctIds.stream().filter(id -> !products.containsKey(id)).toList();
+        if (!missingIds.isEmpty())
+            products.putAll(productCache.loadAll(missingIds, this::fetchProducts));
+
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Unknown ids are missing from the result
+    private Map<Long, Product> fetchProducts(List<Long> productIds) {
+        return Flux.fromIterable(productIds)
+                .flatMap(id -> webClient.get()
+                        .uri("/products/{id}", id)
+                        .retrieve()
+                        .bodyToMono(FakeStoreGetProductResponseDto.class)     // Empty for an unknown id
+                        .map(FakeStoreGetProductResponseDto::toProduct)
+                        .onErrorResume(exception -> {
+                            // One failed id (error status, timeout, bad body) is left out like an unknown one instead of failing the whole batch
+                            logger.warn("Could not fetch product {} for a batch lookup", id, exception);
+                            return Mono.empty();
+                        }),
+                        UPSTREAM_BATCH_CONCURRENCY)
+                .collectMap(Product::getId)
+                .block();
+    }
+
+    // Returns null if the product doesn't exist in FakeStore, so that the miss is not cached
+    private Product fetchProduct(Long productId) {
         ResponseEntity<FakeStoreGetProductResponseDto> fakeStoreProductResponse = restTemplate.getForEntity(
                 "https://fakestoreapi.com/products/" + productId,
                 FakeStoreGetProductResponseDto.class
@@ -158,22 +243,16 @@ public class ProductServiceFakeStoreImpl implements ProductService {
 
         FakeStoreGetProductResponseDto fakeStoreProductDto = fakeStoreProductResponse.getBody();
 
-        // Cache MISS
-        product = fakeStoreProductDto.toProduct();
-
-        // Store the product in Redis.
-        redisTemplate.opsForHash().put("PRODUCTS", "PRODUCT_" + productId, product);
-
-        if (product == null) {
-            throw new ProductNotFoundException("Product with id: " + productId + " doesn't exist. Retry some other product.");
-        }
-
-        return product;
+        return fakeStoreProductDto == null ? null : fakeStoreProductDto.toProduct();
     }
 
-    // TODO
     @Override
-    public void deleteProduct(Long id) {}
+    public void deleteProduct(Long id) {
+        restTemplate.delete("https://fakestoreapi.com/products/{id}", id);
+
+        // Remove the deleted product from both the cache tiers (and from the other instances)
+        productCache.invalidate(id);
+    }
 
     // For PUT requests, you should use the put() method of RestTemplate. If you need to get a response object from a PUT request, you can use the exchange() method with HttpMethod.PUT.
     public Product replaceProduct(Long id, Product product) {
@@ -193,15 +272,15 @@ public class ProductServiceFakeStoreImpl implements ProductService {
 //                requestForEntity("https://fakestoreapi.com/products/{id}",HttpMethod.PUT, fakeStoreProductDto, FakeStoreGetProductResponseDto.class,id).getBody();
 
 
+        // Cached copy is stale now, remove it from both the cache tiers (and from the other instances)
+        productCache.invalidate(id);
+
         return fakeStoreProductDtoResponse.getBody().toProduct();
     }
 
-    @Autowired
-    private RestTemplateBuilder restTemplateBuilder;
-
     // Custom method to make any HTTP requests
+    // Uses the shared RestTemplate (pooled connections) instead of building a new RestTemplate and HTTP client for every call
     private <T> ResponseEntity<T> requestForEntity(String url, HttpMethod httpMethod, @Nullable Object request, Class<T> responseType, Object... uriVariables) throws RestClientException {
-        RestTemplate restTemplate = restTemplateBuilder.build();
         RequestCallback requestCallback = restTemplate.httpEntityCallback(request, responseType);
         ResponseExtractor<ResponseEntity<T>> responseExtractor = restTemplate.responseEntityExtractor(responseType);
         return restTemplate.execute(url, httpMethod, requestCallback, responseExtractor, uriVariables);
@@ -0,0 +1,27 @@
+/*
+ Non-blocking variant of the ProductService.
+ Mono - Publisher of 0 or 1 item, Flux - Publisher of 0 to N items (Project Reactor). Nothing happens till someone subscribes (here the web layer), and no thread waits while the upstream API or Redis is responding:
+ the result is pushed to the subscriber by the event-loop thread which received the response. Hence a handful of event-loop threads can hold thousands of concurrent upstream calls,
+ whereas the blocking ProductService keeps one request thread busy (waiting) per call.
+*/
+
+package org.example.productService.services;
+
+import org.example.productService.models.Product;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveProductService {
+
+    Mono<Product> createProduct(Product product);
+
+    Flux<Product> getAllProducts();
+
+    Mono<Product> getProductById(Long id);    // Errors with ProductNotFoundException if the product doesn't exist
+
+    Mono<Product> partialUpdateProduct(Long productId, Product product);
+
+    Mono<Product> replaceProduct(Long id, Product product);
+
+    Mono<Void> deleteProduct(Long id);
+}
@@ -0,0 +1,160 @@
+/*
+ Reactive FakeStore product service - Same flow as ProductServiceFakeStoreImpl (local L1 --> Redis L2 --> FakeStore API), but every I/O is non-blocking:
+    FakeStore API - WebClient (no .block())
+    Redis - ReactiveRedisTemplate (Lettuce driver, non-blocking)
+ The local L1 of the ProductCache is shared with the blocking service, so both the paths see each other's invalidations.
+ Concurrent misses of the same product subscribe to one shared in-flight Mono (cache()), hence one upstream call and one Redis fill per product, like SingleFlight on the blocking path.
+*/
+
+package org.example.productService.services;
+
+import org.example.productService.dtos.fakestore.FakeStoreCreateProductRequestDto;
+import org.example.productService.dtos.fakestore.FakeStoreGetProductResponseDto;
+import org.example.productService.exception.ProductNotFoundException;
+import org.example.productService.models.Product;
+import org.example.productService.services.cachingService.ProductCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ReactiveProductServiceFakeStoreImpl implements ReactiveProductService {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveProductServiceFakeStoreImpl.class);
+
+    private final WebClient webClient;
+    private final ReactiveRedisTemplate<String, Product> reactiveRedisTemplate;
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final ProductCache productCache;
+    private final Duration redisTtl;
+    private final ConcurrentHashMap<Long, Mono<Product>> inFlightLoads = new ConcurrentHashMap<>();
+
+    public ReactiveProductServiceFakeStoreImpl(WebClient.Builder webClientBuilder,
+                                               ReactiveRedisTemplate<String, Product> reactiveRedisTemplate,
+                                               ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+                                               ProductCache productCache,
+                                               @Value("${cache.products.redis.ttl:1h}") Duration redisTtl) {
+        this.webClient = webClientBuilder.baseUrl("https://fakestoreapi.com").build();
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+        this.productCache = productCache;
+        this.redisTtl = redisTtl;
+    }
+
+    @Override
+    public Mono<Product> createProduct(Product product) {
+        return webClient.post()
+                .uri("/products")
+                .bodyValue(FakeStoreCreateProductRequestDto.fromProduct(product))
+                .retrieve()
+                .bodyToMono(FakeStoreGetProductResponseDto.class)
+                .map(FakeStoreGetProductResponseDto::toProduct);
+    }
+
+    @Override
+    public Flux<Product> getAllProducts() {
+        return webClient.get()
+                .uri("/products")
+                .retrieve()
+                .bodyToFlux(FakeStoreGetProductResponseDto.class)     // Products are emitted while the JSON array is being parsed
+                .map(FakeStoreGetProductResponseDto::toProduct);
+    }
+
+    @Override
+    public Mono<Product> getProductById(Long productId) {
+        // defer - Check the local cache at subscription time, not when the Mono is built
+        return Mono.defer(() -> {
+            Product product = productCache.getLocal(productId);
+            if (product != null)
+                return Mono.just(product);
+
+            return getFromRedis(productId)
+                    .doOnNext(productCache::putLocal)   // Promote to L1
+                    .switchIfEmpty(Mono.defer(() -> load(productId)));
+        });
+    }
+
+    @Override
+    public Mono<Product> partialUpdateProduct(Long productId, Product product) {
+        return webClient.patch()
+                .uri("/products/{id}", productId)
+                .bodyValue(FakeStoreCreateProductRequestDto.fromProduct(product))
+                .retrieve()
+                .bodyToMono(FakeStoreGetProductResponseDto.class)
+                .map(FakeStoreGetProductResponseDto::toProduct)
+                .flatMap(updatedProduct -> invalidate(productId).thenReturn(updatedProduct));
+    }
+
+    @Override
+    public Mono<Product> replaceProduct(Long id, Product product) {
+        return webClient.put()
+                .uri("/products/{id}", id)
+                .bodyValue(FakeStoreCreateProductRequestDto.fromProduct(product))
+                .retrieve()
+                .bodyToMono(FakeStoreGetProductResponseDto.class)
+                .map(FakeStoreGetProductResponseDto::toProduct)
+                .flatMap(replacedProduct -> invalidate(id).thenReturn(replacedProduct));
+    }
+
+    @Override
+    public Mono<Void> deleteProduct(Long id) {
+        return webClient.delete()
+                .uri("/products/{id}", id)
+                .retrieve()
+                .toBodilessEntity()
+                .then(invalidate(id));
+    }
+
+    // Upstream call shared by the concurrent misses of the same product; removed once it completes so that later misses load again
+    private Mono<Product> load(Long productId) {
+        return inFlightLoads.computeIfAbsent(productId, id -> webClient.get()
+                .uri("/products/{id}", id)
+                .retrieve()
+                .bodyToMono(FakeStoreGetProductResponseDto.class)   // FakeStore answers an unknown id with an empty body
+                .map(FakeStoreGetProductResponseDto::toProduct)
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException("Product with id: " + id + " doesn't exist. Retry some other product.")))
+                .flatMap(product -> putInRedis(product).thenReturn(product))
+                .doOnNext(productCache::putLocal)
+                .doFinally(signal -> inFlightLoads.remove(id))
+                .cache());
+    }
+
+    private Mono<Product> getFromRedis(Long productId) {
+        return reactiveRedisTemplate.opsForValue()
+                .get(ProductCache.KEY_PREFIX + productId)
+                .onErrorResume(exception -> {
+                    // Redis being down (or an undecodable value) shouldn't fail the request, the product is loaded from the upstream API instead
+                    logger.warn("Could not read product {} from Redis", productId, exception);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Boolean> putInRedis(Product product) {
+        return reactiveRedisTemplate.opsForValue()
+                .set(ProductCache.KEY_PREFIX + product.getId(), product, redisTtl)
+                .onErrorResume(exception -> {
+                    logger.warn("Could not cache product {} in Redis", product.getId(), exception);
+                    return Mono.just(false);
+                });
+    }
+
+    // Removes the product from both the cache tiers and tells the other instances to drop their local copy
+    private Mono<Void> invalidate(Long productId) {
+        return Mono.fromRunnable(() -> productCache.invalidateLocal(productId))
+                .then(reactiveRedisTemplate.delete(ProductCache.KEY_PREFIX + productId))
+                .then(reactiveStringRedisTemplate.convertAndSend(ProductCache.INVALIDATION_CHANNEL, productCache.invalidationMessage(productId)))
+                .onErrorResume(exception -> {
+                    logger.warn("Could not invalidate product {} in Redis", productId, exception);
+                    return Mono.empty();
+                })
+                .then();
+    }
+}
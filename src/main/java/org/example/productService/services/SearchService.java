@@ -2,54 +2,150 @@ package org.example.productService.services;
 
 import org.example.productService.dtos.search.FilterDto;
 import org.example.productService.dtos.search.SortingCriteria;
+import org.example.productService.exception.BadRequestException;
 import org.example.productService.exception.ProductNotFoundException;
 import org.example.productService.models.Product;
 import org.example.productService.repositories.ProductRepository;
-import org.example.productService.services.filteringService.FilterFactory;
-import org.example.productService.services.sortingService.SorterFactory;
+import org.example.productService.repositories.projections.ProductSummary;
+import org.example.productService.repositories.specifications.ProductSpecifications;
+import org.example.productService.services.facetingService.FacetedProducts;
+import org.example.productService.services.indexingService.ProductSearchIndex;
+import org.example.productService.services.paginationService.KeysetCursor;
+import org.example.productService.services.parallelService.SearchParallelism;
+import org.example.productService.services.planningService.SearchPlan;
+import org.example.productService.services.planningService.SearchPlanCache;
+import org.example.productService.services.rankingService.RankingEngine;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @Service
 public class SearchService {
     private final ProductRepository productRepository;
-    
-    public SearchService(ProductRepository productService) {
+    private final ProductSearchIndex productSearchIndex;
+    private final SearchPlanCache searchPlanCache;
+    private final RankingEngine rankingEngine;
+    private final SearchParallelism parallelism;
+
+    public SearchService(ProductRepository productService, ProductSearchIndex productSearchIndex, SearchPlanCache searchPlanCache, RankingEngine rankingEngine, SearchParallelism parallelism) {
         this.productRepository = productService;
+        this.productSearchIndex = productSearchIndex;
+        this.searchPlanCache = searchPlanCache;
+        this.rankingEngine = rankingEngine;
+        this.parallelism = parallelism;
+    }
+
+    // Page of the results and the facet counts (facet key --> value --> number of products) of the search
+    public record SearchResult(Page<Product> page, Map<String, Map<String, Integer>> facets) {
+    }
+
+    public SearchResult search(String query, List<FilterDto> filters, SortingCriteria sortingCriteria, int pageNumber, int pageSize) throws ProductNotFoundException {
+        // Filters and sorting compiled once per shape of request and reused from the plan cache
+        SearchPlan plan = searchPlanCache.getPlan(filters, sortingCriteria);
+
+        // Search in the in-memory inverted index once it's built, else fallback to searching in the database
+        if (productSearchIndex.isReady())
+            return searchIndex(query, plan, pageNumber, pageSize);
+
+        // Facets are only counted on the index path, the database fallback would need one GROUP BY query per facet
+        return new SearchResult(searchDatabase(query, plan, pageNumber, pageSize), Map.of());
     }
 
-    public Page<Product> search(String query, List<FilterDto> filters, SortingCriteria sortingCriteria, int pageNumber, int pageSize) throws ProductNotFoundException {
-        Optional<List<Product>> productsRequested = productRepository.findAllByTitleContaining(query);
+    private SearchResult searchIndex(String query, SearchPlan plan, int pageNumber, int pageSize) throws ProductNotFoundException {
+        // Resolve the query from the inverted index and apply the filters if provided (no database call)
+        // Facet counts come from the same candidates through bitset intersections, instead of one GROUP BY query per facet
+        FacetedProducts facetedProducts = productSearchIndex.searchWithFacets(query, plan);
+        int[] ordinals = facetedProducts.ordinals();
 
         // Check if the product exists
-        if (productsRequested.isEmpty())
+        if (ordinals.length == 0)
             throw new ProductNotFoundException(String.format("Product with tile '%s' not found", query));
 
-        List<Product> products = productsRequested.get();
+        // Apply sorting if provided: only the products up to the end of the requested page have to be in order (top-k instead of sorting every match), in parallel chunks for broad searches
+        // Sorting reads the columns of the catalog snapshot the search was done on, so it runs outside the index lock without seeing later writes
+        Pageable pageable = PageRequest.of(pageNumber - 1, pageSize);
+        int limit = (int) Math.min(pageable.getOffset() + pageSize, ordinals.length);
+        // Relevance/popularity are ranked by scores (BM25, popularity counters) instead of a comparator
+        int[] sortedOrdinals = plan.isRanked()
+                ? rankingEngine.rankFirst(facetedProducts, plan.getSortingCriteria(), limit)
+                : plan.sortFirst(facetedProducts.catalog(), ordinals, limit, parallelism);
 
-        // Apply filters if provided
-        for (FilterDto filter : filters) {
-            products = FilterFactory.getFilterFromKey(filter.getKey()).applyFilter(products, filter.getValues());
-        }
+        // Paginate the results and hit the database only to load the products of the final page
+        int fromIndex = (int) Math.min(pageable.getOffset(), sortedOrdinals.length);
+        int toIndex = Math.min(fromIndex + pageSize, sortedOrdinals.length);
 
-        // Apply sorting if provided
-        if (sortingCriteria != null) {
-            products = SorterFactory.getSorterByCriteria(sortingCriteria).applySorting(products);
+        List<Long> pageProductIds = new ArrayList<>(toIndex - fromIndex);
+        for (int i = fromIndex; i < toIndex; i++)
+            pageProductIds.add(facetedProducts.catalog().getId(sortedOrdinals[i]));
+
+        return new SearchResult(new PageImpl<>(loadProductsInOrder(pageProductIds), pageable, ordinals.length), facetedProducts.facets());
+    }
+
+    // IN query doesn't keep the order of the ids, hence put the products back in the order decided by the search
+    private List<Product> loadProductsInOrder(List<Long> productIds) {
+        Map<Long, Product> productsById = new HashMap<>();
+        for (ProductSummary summary : productRepository.findSummariesByIdIn(productIds))   // Projection: only the rendered columns, category name joined
+            productsById.put(summary.id(), summary.toProduct());
+
+        List<Product> products = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            Product product = productsById.get(productId);
+            if (product != null)    // Product deleted after the search
+                products.add(product);
         }
+        return products;
+    }
 
-        // Paginate the results
-        // 1. Creates a Pageable object directly, adjusting the page number to be zero-based.
-        // 2. Uses PageImpl constructor with the full list of products, letting Spring handle the pagination internally.
-        // 3. Eliminates the need for manual sublist creation, reducing potential for errors and improving efficiency.
-        Pageable pageable = PageRequest.of(pageNumber - 1, pageSize);
-        Page<Product> paginatedProducts = new PageImpl<>(products, pageable, products.size());
+    private Page<Product> searchDatabase(String query, SearchPlan plan, int pageNumber, int pageSize) throws ProductNotFoundException {
+        // SELECT * FROM products
+        // WHERE title LIKE '%query%'
+        // AND {one predicate per filter key}
+        // ORDER BY {sorting criteria}
+        // LIMIT {pageSize} OFFSET (pageNumber - 1) * pageSize
+        // Filtering, sorting and paging is done by the database, so only the requested page is loaded in memory instead of every matching product.
+        Specification<Product> specification = buildSpecification(query, plan);
+
+        // Apply sorting if provided (relevance/popularity need the index, the database keeps its own order for them)
+        Sort sort = plan.getSort();
+
+        // Paginate the results (page number is 1-based in the request and 0-based in Pageable)
+        // findSummaries(Specification, Pageable) runs the page query with LIMIT/OFFSET and a separate COUNT query for the total number of elements.
+        // Rows are read into ProductSummary projections (only the rendered columns, category name joined) instead of managed entities.
+        Pageable pageable = PageRequest.of(pageNumber - 1, pageSize, sort);
+        Page<Product> paginatedProducts = productRepository.findSummaries(specification, pageable).map(ProductSummary::toProduct);
+
+        // Check if the product exists
+        if (paginatedProducts.getTotalElements() == 0)
+            throw new ProductNotFoundException(String.format("Product with tile '%s' not found", query));
 
         return paginatedProducts;
     }
 
+    // Cursor (keyset) based search: WHERE {filters} AND (price, id) > (:lastPrice, :lastId) ORDER BY price, id LIMIT {pageSize}
+    // No OFFSET and no COUNT query, hence every page costs the same however deep it is
+    public Window<Product> seekSearch(String query, List<FilterDto> filters, SortingCriteria sortingCriteria, String cursor, int pageSize) {
+        if (pageSize < 1)
+            throw new BadRequestException("pageSize should be greater than 0");
+
+        Specification<Product> specification = buildSpecification(query, searchPlanCache.getPlan(filters, null))     // Seek order comes from KeysetCursor, not from the plan
+                .and(KeysetCursor.seekSpecification(sortingCriteria));
+        Sort sort = KeysetCursor.seekSort(sortingCriteria);
+        ScrollPosition position = KeysetCursor.decode(cursor, sortingCriteria);
+
+        return productRepository.findBy(specification, fluentQuery -> fluentQuery.project("category").sortBy(sort).limit(pageSize).scroll(position));
+    }
+
+    // WHERE title LIKE '%query%' AND {one predicate per filter key}
+    private Specification<Product> buildSpecification(String query, SearchPlan plan) {
+        // Filters (AND operation between them) are compiled with the plan
+        return ProductSpecifications.titleContains(query).and(plan.getFilterSpecification());
+    }
+
     public Page<Product> simpleSearch(String query, Long categoryId, int pageNumber, int pageSize, String sortingAttribute) {
         // SELECT * from products
         // WHERE title like "%query%"
@@ -0,0 +1,124 @@
+/*
+ In-process (L1) cache - Lives in the heap of the application instance, so a hit costs a HashMap lookup instead of a network round trip to Redis.
+ It is bounded both by number of entries and by total weight (approximate bytes), and every entry expires after a TTL, so the hottest items stay in memory without the heap growing with the catalog.
+ LRU (Least Recently Used) eviction - LinkedHashMap in access order keeps the least recently read entry first, which is the one removed when the cache is full.
+ ReentrantLock is used instead of synchronized, so that a thread waiting for the lock doesn't pin a virtual thread to its carrier thread.
+*/
+
+package org.example.productService.services.cachingService;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+public class BoundedLocalCache<K, V> {
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final ToIntFunction<V> weigher;
+    private final CacheCounters counters = new CacheCounters();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);   // true: access order (LRU)
+    private long totalWeight;
+
+    public BoundedLocalCache(int maxEntries, long maxWeight, Duration ttl, ToIntFunction<V> weigher) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttl.toNanos();
+        this.weigher = weigher;
+    }
+
+    public V get(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+
+            if (entry == null) {
+                counters.recordMiss();
+                return null;
+            }
+
+            if (System.nanoTime() - entry.writtenAt >= ttlNanos) {
+                // Expired
+                remove(key, entry);
+                counters.recordEviction();
+                counters.recordMiss();
+                return null;
+            }
+
+            counters.recordHit();
+            return entry.value;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(K key, V value) {
+        int weight = weigher.applyAsInt(value);
+        if (weight > maxWeight)
+            return;     // Would evict everything else
+
+        lock.lock();
+        try {
+            Entry<V> previous = entries.put(key, new Entry<>(value, weight, System.nanoTime()));
+            if (previous != null)
+                totalWeight -= previous.weight;
+            totalWeight += weight;
+
+            evictIfRequired();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.remove(key);
+            if (entry != null)
+                totalWeight -= entry.weight;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheCounters getCounters() {
+        return counters;
+    }
+
+    // Remove the least recently used entries till the cache is back within its bounds
+    private void evictIfRequired() {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+
+        while ((entries.size() > maxEntries || totalWeight > maxWeight) && iterator.hasNext()) {
+            totalWeight -= iterator.next().getValue().weight;
+            iterator.remove();
+            counters.recordEviction();
+        }
+    }
+
+    private void remove(K key, Entry<V> entry) {
+        entries.remove(key);
+        totalWeight -= entry.weight;
+    }
+
+    private record Entry<V>(V value, int weight, long writtenAt) {
+    }
+}
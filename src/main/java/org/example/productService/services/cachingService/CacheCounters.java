@@ -0,0 +1,34 @@
+package org.example.productService.services.cachingService;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Hit/Miss/Eviction counters of one cache tier. LongAdder is used instead of AtomicLong as it doesn't become a point of contention when many request threads update it at the same time.
+public class CacheCounters {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void recordEviction() {
+        evictions.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+}
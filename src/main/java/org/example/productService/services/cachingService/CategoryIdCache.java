@@ -0,0 +1,107 @@
+/*
+ Category name --> id cache for the write paths (create/patch/bulk create of products), which otherwise look up the category by name on every write.
+ Categories are few, hence all of them are kept (warmed at startup). There is no staleness guarantee: this service doesn't rename or delete categories, but when that happens outside of it
+ an entry stays wrong till CatalogChangeRefresher polls the change (refresh), and a write in between may still use the old name --> id mapping.
+ Misses are resolved with CategoryUpsertRepository's atomic get-or-create, and concurrent misses of the same name in this instance share one call (SingleFlight), so a burst of creates in a new category results in one insert.
+*/
+
+package org.example.productService.services.cachingService;
+
+import org.example.productService.models.Category;
+import org.example.productService.repositories.CategoryRepository;
+import org.example.productService.repositories.CategoryUpsertRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class CategoryIdCache {
+    private static final Logger logger = LoggerFactory.getLogger(CategoryIdCache.class);
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryUpsertRepository categoryUpsertRepository;
+    private final ConcurrentHashMap<String, Long> idsByName = new ConcurrentHashMap<>();
+    private final SingleFlight<String, Long> singleFlight = new SingleFlight<>();
+
+    public CategoryIdCache(CategoryRepository categoryRepository, CategoryUpsertRepository categoryUpsertRepository) {
+        this.categoryRepository = categoryRepository;
+        this.categoryUpsertRepository = categoryUpsertRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        try {
+            for (Category category : categoryRepository.findAll())
+                idsByName.put(category.getName(), category.getId());
+            logger.info("Category id cache warmed with {} categories", idsByName.size());
+        }
+        catch (RuntimeException exception) {
+            logger.warn("Category id cache could not be warmed, categories will be loaded on first use", exception);
+        }
+    }
+
+    public long getOrCreateId(String name) {
+        Long id = idsByName.get(name);
+        if (id != null)
+            return id;
+
+        return singleFlight.execute(name, () -> {
+            long createdId = categoryUpsertRepository.getOrCreateIdByName(name);
+            idsByName.put(name, createdId);
+            return createdId;
+        });
+    }
+
+    // Id of the name if it's cached, null otherwise (never hits the database)
+    public Long getCachedId(String name) {
+        return idsByName.get(name);
+    }
+
+    // Category changed in the database: its id is cached under its current name only. Returns its previous name (null if it wasn't cached).
+    public String refresh(long id, String name) {
+        String previousName = null;
+        for (Iterator<Map.Entry<String, Long>> iterator = idsByName.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (entry.getValue() == id) {
+                previousName = entry.getKey();
+                if (!previousName.equals(name))
+                    iterator.remove();
+            }
+        }
+        idsByName.put(name, id);
+        return previousName;
+    }
+
+    // Ids of all the names: cached ones from memory, the others with one IN query, and only the names which don't exist yet are created
+    public Map<String, Long> getOrCreateIds(Collection<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        List<String> missingNames = new ArrayList<>();
+
+        for (String name : names) {
+            Long id = idsByName.get(name);
+            if (id != null)
+                ids.put(name, id);
+            else
+                missingNames.add(name);
+        }
+
+        if (missingNames.isEmpty())
+            return ids;
+
+        for (Category category : categoryRepository.findAllByNameIn(missingNames)) {
+            idsByName.put(category.getName(), category.getId());
+            ids.put(category.getName(), category.getId());
+        }
+
+        for (String name : missingNames)
+            if (!ids.containsKey(name))
+                ids.put(name, getOrCreateId(name));
+
+        return ids;
+    }
+}
@@ -0,0 +1,443 @@
+/*
+ Two-tier cache for the products fetched from the FakeStore API:
+    L1 - BoundedLocalCache inside this instance (no network call, bounded, short TTL)
+    L2 - Redis shared by all the instances (one key per product with its own expiry)
+ Read: L1 --> L2 (and copy into L1) --> caller loads from the upstream API and puts the product in both tiers.
+ Write (update/delete): product is removed from both tiers and an invalidation message is published on a Redis pub/sub channel, so that every other instance removes it from its own L1 as well.
+
+ Redis Pub/Sub - Publisher sends a message to a channel without knowing the subscribers, Redis delivers it to every instance subscribed to that channel at that moment (fire and forget, no persistence).
+ A Redis hash field can't have its own expiry, hence products are stored as separate keys ("PRODUCT_{id}") instead of fields of a "PRODUCTS" hash.
+
+ getAll/putAll - Bulk lookups use a single MGET and bulk fills a single pipeline of SETs, so N products cost one Redis round trip instead of N.
+ getOrLoad - Misses of the same product are coalesced (SingleFlight), so only one request per instance calls the upstream API and fills the cache.
+    loadAll does the same for the misses of a bulk lookup: ids already being loaded are joined, the others are loaded together and cached in one pipeline.
+ Probabilistic early refresh (XFetch) - A hot key would still expire for everyone at the same moment. Instead, each read of a Redis entry re-fetches it early with probability growing as its expiry gets closer:
+    refresh if  now - delta * beta * ln(random(0, 1)) >= expiry     (delta = time taken to load a product, beta > 1 refreshes earlier, 0 disables it)
+ so one of the many readers of a hot key reloads it shortly before it expires, while rarely read keys are practically never refreshed early.
+    L1 entries remember the expiry of the Redis entry they were copied from, so that the check also runs on L1 hits (most reads of a hot key never reach Redis).
+    The refresh runs in the background (one at a time per product), the reader that triggered it is answered with the cached product right away.
+    It runs on the Spring managed applicationTaskExecutor: virtual threads with spring.threads.virtual.enabled, otherwise its bounded platform thread pool, shut down with the application context.
+ Generations - A load (or early refresh) which started before a write may finish after its invalidation and would put the old product back in both the tiers.
+    Every invalidation bumps the generation of the product, a loaded product is only cached if its generation is still the one read before the load.
+    Generations are striped (a fixed array indexed by the hash of the id) to stay bounded, an invalidation of another product of the same stripe only skips a cache fill.
+*/
+
+package org.example.productService.services.cachingService;
+
+import org.example.productService.models.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+public class ProductCache implements MessageListener {
+    public static final String INVALIDATION_CHANNEL = "product-cache-invalidation";
+    private static final Logger logger = LoggerFactory.getLogger(ProductCache.class);
+    public static final String KEY_PREFIX = "PRODUCT_";
+    private static final long UNKNOWN_EXPIRY = Long.MAX_VALUE;      // Copied without reading its TTL (MGET), never refreshed early from L1
+    private static final int GENERATION_STRIPES = 4096;     // Power of 2
+
+    private final BoundedLocalCache<Long, LocalEntry> localCache;
+    private final RedisTemplate<String, Product> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Duration redisTtl;
+    private final double earlyRefreshBeta;
+    private final CacheCounters redisCounters = new CacheCounters();
+    private final SingleFlight<Long, Product> singleFlight = new SingleFlight<>();
+    private final LongAdder earlyRefreshes = new LongAdder();
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();    // Products being refreshed early in the background
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);     // Bumped on every invalidation of a product of the stripe
+    private final AsyncTaskExecutor refreshExecutor;
+    private volatile long averageLoadNanos;     // Moving average of the upstream load time (delta of XFetch)
+    private final String instanceId = UUID.randomUUID().toString();    // To ignore the invalidation messages published by this instance
+
+    public ProductCache(RedisTemplate<String, Product> redisTemplate,
+                        StringRedisTemplate stringRedisTemplate,
+                        @Qualifier("applicationTaskExecutor") AsyncTaskExecutor refreshExecutor,
+                        @Value("${cache.products.local.max-entries:10000}") int localMaxEntries,
+                        @Value("${cache.products.local.max-weight-bytes:67108864}") long localMaxWeightBytes,
+                        @Value("${cache.products.local.ttl:5m}") Duration localTtl,
+                        @Value("${cache.products.redis.ttl:1h}") Duration redisTtl,
+                        @Value("${cache.products.early-refresh.beta:1.0}") double earlyRefreshBeta) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.refreshExecutor = refreshExecutor;
+        this.redisTtl = redisTtl;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.localCache = new BoundedLocalCache<>(localMaxEntries, localMaxWeightBytes, localTtl, entry -> weigh(entry.product()));
+    }
+
+    // Returns null on a miss in both the tiers
+    public Product get(Long productId) {
+        LocalEntry localEntry = localCache.get(productId);
+        if (localEntry != null)
+            return localEntry.product();
+
+        long generation = generation(productId);
+        RedisEntry entry = getFromRedis(productId);
+        if (entry.product() != null)
+            putLocal(productId, entry, generation);     // Promote to L1
+
+        return entry.product();
+    }
+
+    // Returns the cached product or loads it with the loader (null from the loader means the product doesn't exist and is not cached)
+    public Product getOrLoad(Long productId, Supplier<Product> loader) {
+        LocalEntry localEntry = localCache.get(productId);
+        if (localEntry == null) {
+            long generation = generation(productId);
+            RedisEntry entry = getFromRedis(productId);
+            if (entry.product() == null)
+                return load(productId, loader);
+
+            localEntry = putLocal(productId, entry, generation);        // Promote to L1
+        }
+
+        if (localEntry.expiresAtMillis() != UNKNOWN_EXPIRY && shouldRefreshEarly(localEntry.expiresAtMillis() - System.currentTimeMillis()))
+            refreshInBackground(productId, loader);
+
+        return localEntry.product();
+    }
+
+    // Loads the products missing in both the tiers (e.g. the ids getAll didn't find), ids not returned by the loader don't exist and are not cached
+    public Map<Long, Product> loadAll(Collection<Long> productIds, Function<List<Long>, Map<Long, Product>> loader) {
+        return singleFlight.executeAll(productIds, ids -> {
+            Map<Long, Long> generationsBefore = new HashMap<>();
+            ids.forEach(productId -> generationsBefore.put(productId, generation(productId)));
+
+            Map<Long, Product> products = loader.apply(ids);
+
+            List<Product> current = products.entrySet().stream()
+                    .filter(entry -> generation(entry.getKey()) == generationsBefore.get(entry.getKey()))     // Not cached if invalidated during the load
+                    .map(Map.Entry::getValue)
+                    .toList();
+            putAll(current);
+            current.stream()
+                    .map(Product::getId)
+                    .filter(productId -> generation(productId) != generationsBefore.get(productId))
+                    .forEach(this::evict);      // Invalidated between the check and the put
+            return products;
+        });
+    }
+
+    public void put(Product product) {
+        localCache.put(product.getId(), new LocalEntry(product, System.currentTimeMillis() + redisTtl.toMillis()));
+
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + product.getId(), product, redisTtl);
+        }
+        catch (DataAccessException exception) {
+            logger.warn("Could not cache product {} in Redis", product.getId(), exception);
+        }
+    }
+
+    // Bulk lookup: L1 first, then one MGET for all the remaining ids (a single round trip however many ids). Ids missing in both the tiers are left out of the result.
+    public Map<Long, Product> getAll(Collection<Long> productIds) {
+        Map<Long, Product> products = new HashMap<>();
+        List<Long> remainingIds = new ArrayList<>();
+        Map<Long, Long> remainingGenerations = new HashMap<>();
+
+        for (Long productId : productIds) {
+            LocalEntry localEntry = localCache.get(productId);
+            if (localEntry != null)
+                products.put(productId, localEntry.product());
+            else {
+                remainingIds.add(productId);
+                remainingGenerations.put(productId, generation(productId));
+            }
+        }
+
+        if (remainingIds.isEmpty())
+            return products;
+
+        try {
+            List<Product> redisProducts = redisTemplate.opsForValue().multiGet(remainingIds.stream().map(productId -> KEY_PREFIX + productId).toList());
+
+            for (int i = 0; i < remainingIds.size(); i++) {
+                Product product = redisProducts == null ? null : redisProducts.get(i);   // MGET returns the values in the order of the keys, null for the missing ones
+                if (product == null) {
+                    redisCounters.recordMiss();
+                    continue;
+                }
+
+                redisCounters.recordHit();
+                putLocal(remainingIds.get(i), new RedisEntry(product, -1), remainingGenerations.get(remainingIds.get(i)));
+                products.put(remainingIds.get(i), product);
+            }
+        }
+        catch (DataAccessException | SerializationException exception) {
+            logger.warn("Could not read {} products from Redis", remainingIds.size(), exception);
+            remainingIds.forEach(productId -> redisCounters.recordMiss());
+        }
+
+        return products;
+    }
+
+    // Bulk fill: all the SET commands (each with its own expiry) are sent in one pipeline, i.e. one round trip instead of one per product
+    public void putAll(Collection<Product> products) {
+        if (products.isEmpty())
+            return;
+
+        long expiresAtMillis = System.currentTimeMillis() + redisTtl.toMillis();
+        products.forEach(product -> localCache.put(product.getId(), new LocalEntry(product, expiresAtMillis)));
+
+        try {
+            RedisSerializer<String> keySerializer = RedisSerializer.string();
+            @SuppressWarnings("unchecked")
+            RedisSerializer<Product> valueSerializer = (RedisSerializer<Product>) redisTemplate.getValueSerializer();
+            Expiration expiration = Expiration.from(redisTtl);
+
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Product product : products)
+                    connection.stringCommands().set(keySerializer.serialize(KEY_PREFIX + product.getId()), valueSerializer.serialize(product), expiration, RedisStringCommands.SetOption.upsert());
+                return null;
+            });
+        }
+        catch (DataAccessException exception) {
+            logger.warn("Could not cache {} products in Redis", products.size(), exception);
+        }
+    }
+
+    // Called on every write path (update/replace/delete) of a product
+    public void invalidate(Long productId) {
+        bumpGeneration(productId);      // Before the removal, so that a load still in flight doesn't cache the old product afterwards
+        localCache.invalidate(productId);
+
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.delete(KEY_PREFIX + productId)))
+                redisCounters.recordEviction();     // Expiry of the keys is done by Redis itself, hence only the invalidations are counted here
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, invalidationMessage(productId));
+        }
+        catch (DataAccessException exception) {
+            logger.warn("Could not invalidate product {} in Redis", productId, exception);
+        }
+    }
+
+    // In-memory only (no Redis call), for the reactive service which talks to Redis through the non-blocking client itself
+    public Product getLocal(Long productId) {
+        LocalEntry localEntry = localCache.get(productId);
+        return localEntry == null ? null : localEntry.product();
+    }
+
+    public void putLocal(Product product) {
+        localCache.put(product.getId(), new LocalEntry(product, UNKNOWN_EXPIRY));
+    }
+
+    public void invalidateLocal(Long productId) {
+        bumpGeneration(productId);
+        localCache.invalidate(productId);
+    }
+
+    // Message to publish on the INVALIDATION_CHANNEL so that the other instances remove the product from their L1
+    public String invalidationMessage(Long productId) {
+        return instanceId + ":" + productId;
+    }
+
+    // Invalidation published by another instance: product is already removed from Redis, only the local copy has to go
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(":");
+        if (parts.length != 2 || instanceId.equals(parts[0]))
+            return;
+
+        Long productId = Long.parseLong(parts[1]);
+        bumpGeneration(productId);
+        localCache.invalidate(productId);
+    }
+
+    public CacheCounters getLocalCounters() {
+        return localCache.getCounters();
+    }
+
+    public CacheCounters getRedisCounters() {
+        return redisCounters;
+    }
+
+    public int getLocalSize() {
+        return localCache.size();
+    }
+
+    public long getUpstreamLoads() {
+        return singleFlight.getLoads();
+    }
+
+    public long getCoalescedLoads() {
+        return singleFlight.getCoalesced();
+    }
+
+    public long getEarlyRefreshes() {
+        return earlyRefreshes.sum();
+    }
+
+    // Concurrent loads of the same product share a single upstream call and a single cache fill
+    private Product load(Long productId, Supplier<Product> loader) {
+        return singleFlight.execute(productId, () -> {
+            long generation = generation(productId);
+            long start = System.nanoTime();
+            Product product = loader.get();
+            long elapsed = System.nanoTime() - start;
+            averageLoadNanos = averageLoadNanos == 0 ? elapsed : (averageLoadNanos * 7 + elapsed) / 8;
+
+            if (product != null && generation(productId) == generation) {     // Not cached if the product was invalidated during the load
+                put(product);
+                if (generation(productId) != generation)
+                    evict(productId);       // Invalidated between the check and the put, its removal may have run before the put
+            }
+            return product;
+        });
+    }
+
+    // Removes a product this instance has just cached, without publishing an invalidation (the write which made it stale already did)
+    private void evict(Long productId) {
+        localCache.invalidate(productId);
+
+        try {
+            redisTemplate.delete(KEY_PREFIX + productId);
+        }
+        catch (DataAccessException exception) {
+            logger.warn("Could not remove stale product {} from Redis", productId, exception);
+        }
+    }
+
+    private long generation(Long productId) {
+        return generations.get(Long.hashCode(productId) & (GENERATION_STRIPES - 1));
+    }
+
+    private void bumpGeneration(Long productId) {
+        generations.incrementAndGet(Long.hashCode(productId) & (GENERATION_STRIPES - 1));
+    }
+
+    // Reloads the product on another thread, a reader already refreshing it (or loading it after a miss) is joined through the single flight and not started again
+    private void refreshInBackground(Long productId, Supplier<Product> loader) {
+        if (!refreshing.add(productId))
+            return;
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(productId, loader);
+                }
+                catch (RuntimeException exception) {
+                    logger.warn("Could not refresh product {} early, it is loaded again once it expires", productId, exception);
+                }
+                finally {
+                    refreshing.remove(productId);
+                }
+            });
+            earlyRefreshes.increment();
+        }
+        catch (TaskRejectedException exception) {
+            // Executor saturated or shutting down, the cached product is still served and is loaded again once it expires
+            refreshing.remove(productId);
+        }
+    }
+
+    // Copies a product read from Redis into L1, unless it was invalidated since the read (generation read before it)
+    private LocalEntry putLocal(Long productId, RedisEntry entry, long generation) {
+        long expiresAtMillis = entry.ttlMillis() < 0 ? UNKNOWN_EXPIRY : System.currentTimeMillis() + entry.ttlMillis();    // No expiry / already gone (-1/-2) or TTL not read
+        LocalEntry localEntry = new LocalEntry(entry.product(), expiresAtMillis);
+        if (generation(productId) != generation)
+            return localEntry;
+
+        localCache.put(productId, localEntry);
+        if (generation(productId) != generation)
+            localCache.invalidate(productId);
+        return localEntry;
+    }
+
+    private boolean shouldRefreshEarly(long ttlMillis) {
+        if (earlyRefreshBeta <= 0 || ttlMillis < 0)     // Disabled, or the Redis entry has already expired
+            return false;
+
+        double deltaMillis = averageLoadNanos / 1_000_000.0;
+        return -deltaMillis * earlyRefreshBeta * Math.log(ThreadLocalRandom.current().nextDouble()) >= ttlMillis;
+    }
+
+    // Value and remaining TTL of the key are read in a single round trip (pipeline), the TTL is only needed for the early refresh
+    private RedisEntry getFromRedis(Long productId) {
+        try {
+            Product product;
+            long ttlMillis = -1;
+
+            if (earlyRefreshBeta > 0) {
+                byte[] key = RedisSerializer.string().serialize(KEY_PREFIX + productId);
+                List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    connection.stringCommands().get(key);
+                    connection.keyCommands().pTtl(key);
+                    return null;
+                });
+                product = (Product) results.get(0);
+                ttlMillis = results.get(1) == null ? -1 : (Long) results.get(1);
+            }
+            else {
+                product = redisTemplate.opsForValue().get(KEY_PREFIX + productId);
+            }
+
+            if (product == null)
+                redisCounters.recordMiss();
+            else
+                redisCounters.recordHit();
+
+            return new RedisEntry(product, ttlMillis);
+        }
+        catch (DataAccessException exception) {
+            // Redis being down shouldn't fail the request, the product is loaded from the upstream API instead
+            logger.warn("Could not read product {} from Redis", productId, exception);
+            redisCounters.recordMiss();
+            return RedisEntry.MISS;
+        }
+        catch (SerializationException exception) {
+            // Value written with an unknown codec version (e.g. by a newer instance during a rolling deploy), reloaded from the upstream API and overwritten
+            logger.warn("Could not decode cached product {}", productId, exception);
+            redisCounters.recordMiss();
+            return RedisEntry.MISS;
+        }
+    }
+
+    private record RedisEntry(Product product, long ttlMillis) {
+        static final RedisEntry MISS = new RedisEntry(null, -1);
+    }
+
+    // L1 copy of a product with the expiry of its Redis entry (epoch millis), which the early refresh is computed against
+    private record LocalEntry(Product product, long expiresAtMillis) {
+    }
+
+    // Approximate heap size of a cached product in bytes (object headers + 2 bytes per character of the strings)
+    private static int weigh(Product product) {
+        int weight = 128;
+        weight += 2 * length(product.getTitle());
+        weight += 2 * length(product.getDescription());
+        weight += 2 * length(product.getImageUrl());
+        if (product.getCategory() != null)
+            weight += 64 + 2 * length(product.getCategory().getName());
+        return weight;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ Compact binary layout of a cached product. Redis by default stores values with JDK serialization, which writes class names and field descriptors of the whole object graph in every value (and fails as Product isn't Serializable).
+ Layout:
+    [version: 1 byte][present fields: 2 bytes bitmask][id: 8 bytes][price: 8 bytes][category id: 8 bytes][strings: varint length + UTF-8 bytes]...
+ Only the fields which are not null are written (see bitmask). Version byte allows changing the layout later while still reading (or safely ignoring) the values written by older instances.
+ Varint - Integer written 7 bits per byte (highest bit tells if more bytes follow), so lengths below 128 take a single byte.
+*/
+
+package org.example.productService.services.cachingService;
+
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class ProductCodec {
+    public static final byte VERSION = 1;
+
+    private static final int ID = 1;
+    private static final int PRICE = 1 << 1;
+    private static final int TITLE = 1 << 2;
+    private static final int DESCRIPTION = 1 << 3;
+    private static final int IMAGE_URL = 1 << 4;
+    private static final int BRAND = 1 << 5;
+    private static final int OS = 1 << 6;
+    private static final int RAM = 1 << 7;
+    private static final int CATEGORY_ID = 1 << 8;
+    private static final int CATEGORY_NAME = 1 << 9;
+
+    public static byte[] encode(Product product) {
+        Category category = product.getCategory();
+        Long categoryId = category == null ? null : category.getId();
+        String categoryName = category == null ? null : category.getName();
+
+        int fields = 0;
+        fields |= product.getId() != null ? ID : 0;
+        fields |= product.getPrice() != null ? PRICE : 0;
+        fields |= product.getTitle() != null ? TITLE : 0;
+        fields |= product.getDescription() != null ? DESCRIPTION : 0;
+        fields |= product.getImageUrl() != null ? IMAGE_URL : 0;
+        fields |= product.getBrand() != null ? BRAND : 0;
+        fields |= product.getOs() != null ? OS : 0;
+        fields |= product.getRam() != null ? RAM : 0;
+        fields |= categoryId != null ? CATEGORY_ID : 0;
+        fields |= categoryName != null ? CATEGORY_NAME : 0;
+
+        Writer writer = new Writer();
+        writer.writeByte(VERSION);
+        writer.writeShort(fields);
+
+        if (product.getId() != null)
+            writer.writeLong(product.getId());
+        if (product.getPrice() != null)
+            writer.writeLong(Double.doubleToRawLongBits(product.getPrice()));
+        if (categoryId != null)
+            writer.writeLong(categoryId);
+
+        writer.writeString(product.getTitle());
+        writer.writeString(product.getDescription());
+        writer.writeString(product.getImageUrl());
+        writer.writeString(product.getBrand());
+        writer.writeString(product.getOs());
+        writer.writeString(product.getRam());
+        writer.writeString(categoryName);
+
+        return writer.toByteArray();
+    }
+
+    public static Product decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        byte version = buffer.get();
+        if (version != VERSION)
+            throw new IllegalArgumentException("Unsupported product codec version: " + version);
+
+        int fields = buffer.getShort() & 0xFFFF;
+        Product product = new Product();
+
+        if ((fields & ID) != 0)
+            product.setId(buffer.getLong());
+        if ((fields & PRICE) != 0)
+            product.setPrice(Double.longBitsToDouble(buffer.getLong()));
+        Long categoryId = (fields & CATEGORY_ID) != 0 ? buffer.getLong() : null;
+
+        if ((fields & TITLE) != 0)
+            product.setTitle(readString(buffer));
+        if ((fields & DESCRIPTION) != 0)
+            product.setDescription(readString(buffer));
+        if ((fields & IMAGE_URL) != 0)
+            product.setImageUrl(readString(buffer));
+        if ((fields & BRAND) != 0)
+            product.setBrand(readString(buffer));
+        if ((fields & OS) != 0)
+            product.setOs(readString(buffer));
+        if ((fields & RAM) != 0)
+            product.setRam(readString(buffer));
+        String categoryName = (fields & CATEGORY_NAME) != 0 ? readString(buffer) : null;
+
+        if (categoryId != null || categoryName != null) {
+            Category category = new Category();
+            category.setId(categoryId);
+            category.setName(categoryName);
+            product.setCategory(category);
+        }
+
+        return product;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = buffer.get();
+            length |= (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    // Minimal growable byte array writer (ByteArrayOutputStream + DataOutputStream would synchronize on every write)
+    private static class Writer {
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeShort(int value) {
+            ensureCapacity(2);
+            bytes[size++] = (byte) (value >>> 8);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8)
+                bytes[size++] = (byte) (value >>> shift);
+        }
+
+        // Null strings are not written at all, their absence is recorded in the bitmask
+        void writeString(String value) {
+            if (value == null)
+                return;
+
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            int length = utf8.length;
+            ensureCapacity(5 + length);
+
+            while ((length & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((length & 0x7F) | 0x80);
+                length >>>= 7;
+            }
+            bytes[size++] = (byte) length;
+
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensureCapacity(int extraBytes) {
+            if (size + extraBytes > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extraBytes));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+// RedisSerializer - Converts the values to/from the bytes stored in Redis. Plugged into the RedisTemplate used for caching products, so that they are stored with the compact ProductCodec layout instead of JDK serialization.
+
+package org.example.productService.services.cachingService;
+
+import org.example.productService.models.Product;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+public class ProductRedisSerializer implements RedisSerializer<Product> {
+
+    @Override
+    public byte[] serialize(Product product) throws SerializationException {
+        return product == null ? null : ProductCodec.encode(product);
+    }
+
+    @Override
+    public Product deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0)
+            return null;
+
+        try {
+            return ProductCodec.decode(bytes);
+        }
+        catch (RuntimeException exception) {
+            throw new SerializationException("Could not decode cached product", exception);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ Single-flight (Request coalescing) - When many threads miss the cache for the same key at the same time, only the first one (leader) calls the loader, the others wait for and share its result.
+ Without it a popular key expiring causes a thundering herd: every concurrent request calls the upstream API and writes the same value back to the cache.
+ The in-flight future is removed as soon as it completes, so it is not a cache itself: a request arriving after the load finished starts a new load (normally it hits the cache filled by the leader).
+ executeAll - Batch version: the keys already in flight are joined, the caller leads the others and loads them with a single call of the loader. A batch leader loads its own keys before waiting for any other load, hence two batches sharing keys can't wait for each other.
+*/
+
+package org.example.productService.services.cachingService;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    // Exceptions thrown by the loader are rethrown to the leader and to all the waiting threads
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+
+        loads.increment();
+        try {
+            future.complete(loader.get());
+        }
+        catch (RuntimeException | Error exception) {
+            future.completeExceptionally(exception);
+        }
+        finally {
+            inFlight.remove(key, future);
+        }
+
+        return join(future);
+    }
+
+    // Keys (distinct) missing from the map returned by the loader are absent from the result as well. Exceptions are rethrown like for execute.
+    public Map<K, V> executeAll(Collection<K> keys, Function<List<K>, Map<K, V>> loader) {
+        Map<K, CompletableFuture<V>> led = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> joined = new HashMap<>();
+
+        for (K key : keys) {
+            CompletableFuture<V> future = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+
+            if (existing != null) {
+                coalesced.increment();
+                joined.put(key, existing);
+            }
+            else {
+                loads.increment();
+                led.put(key, future);
+            }
+        }
+
+        if (!led.isEmpty()) {
+            try {
+                Map<K, V> loaded = loader.apply(List.copyOf(led.keySet()));
+                led.forEach((key, future) -> future.complete(loaded.get(key)));
+            }
+            catch (RuntimeException | Error exception) {
+                led.values().forEach(future -> future.completeExceptionally(exception));
+            }
+            finally {
+                led.forEach(inFlight::remove);
+            }
+        }
+
+        Map<K, V> values = new HashMap<>();
+        led.forEach((key, future) -> putIfNotNull(values, key, join(future)));
+        joined.forEach((key, future) -> putIfNotNull(values, key, join(future)));
+        return values;
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    private static <K, V> void putIfNotNull(Map<K, V> values, K key, V value) {
+        if (value != null)
+            values.put(key, value);
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        }
+        catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            if (exception.getCause() instanceof Error error)
+                throw error;
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ Collects the changes in the number of products per category made by a transaction and writes them once, just before it commits.
+ Creating 1000 products in one category then costs one UPDATE ... SET count_of_products = count_of_products + 1000 instead of 1000 updates of the same (locked) row.
+ TransactionSynchronization - Callback registered with the current transaction. beforeCommit runs inside the transaction, hence the counts are committed (or rolled back) together with the product writes which changed them.
+ The deltas of a transaction are bound to it as a transaction resource (TransactionSynchronizationManager), so concurrent transactions never share a map.
+ Without an active transaction the delta is applied immediately.
+*/
+
+package org.example.productService.services.countingService;
+
+import org.example.productService.repositories.CategoryCountRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+public class CategoryCountDeltas {
+    private final CategoryCountRepository categoryCountRepository;
+
+    public CategoryCountDeltas(CategoryCountRepository categoryCountRepository) {
+        this.categoryCountRepository = categoryCountRepository;
+    }
+
+    public void increment(Long categoryId) {
+        record(categoryId, 1);
+    }
+
+    public void decrement(Long categoryId) {
+        record(categoryId, -1);
+    }
+
+    // Product moved from one category to another (no-op if the category didn't change)
+    public void move(Long fromCategoryId, Long toCategoryId) {
+        if (fromCategoryId != null && fromCategoryId.equals(toCategoryId))
+            return;
+        record(fromCategoryId, -1);
+        record(toCategoryId, 1);
+    }
+
+    public void record(Long categoryId, int delta) {
+        if (categoryId == null || delta == 0)
+            return;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            categoryCountRepository.applyDeltas(Map.of(categoryId, delta));
+            return;
+        }
+
+        pendingDeltas().merge(categoryId, delta, Integer::sum);
+    }
+
+    // Deltas of the current transaction, created (and flushed before commit) on first use
+    @SuppressWarnings("unchecked")
+    private Map<Long, Integer> pendingDeltas() {
+        Map<Long, Integer> deltas = (Map<Long, Integer>) TransactionSynchronizationManager.getResource(this);
+        if (deltas != null)
+            return deltas;
+
+        Map<Long, Integer> newDeltas = new HashMap<>();
+        TransactionSynchronizationManager.bindResource(this, newDeltas);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                categoryCountRepository.applyDeltas(newDeltas);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CategoryCountDeltas.this);
+            }
+        });
+        return newDeltas;
+    }
+}
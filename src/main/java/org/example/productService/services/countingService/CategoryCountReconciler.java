@@ -0,0 +1,38 @@
+/*
+ Periodically recomputes category.count_of_products from the products table.
+ Incremental counts can drift through writes which don't go through ProductServiceDBImpl (manual SQL, imports, ...) or through concurrent upserts of the same product, hence they are corrected here instead of counting (COUNT(*) GROUP BY) on every read.
+ @Scheduled(fixedDelay) - Next run starts after the previous one has finished, so slow reconciliations never overlap.
+*/
+
+package org.example.productService.services.countingService;
+
+import org.example.productService.repositories.CategoryCountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "category.counts.reconcile.enabled", havingValue = "true", matchIfMissing = true)
+public class CategoryCountReconciler {
+    private static final Logger logger = LoggerFactory.getLogger(CategoryCountReconciler.class);
+
+    private final CategoryCountRepository categoryCountRepository;
+
+    public CategoryCountReconciler(CategoryCountRepository categoryCountRepository) {
+        this.categoryCountRepository = categoryCountRepository;
+    }
+
+    @Scheduled(initialDelayString = "${category.counts.reconcile.initial-delay:PT1M}", fixedDelayString = "${category.counts.reconcile.interval:PT1H}")
+    public void reconcile() {
+        try {
+            int drifted = categoryCountRepository.reconcile();
+            if (drifted > 0)
+                logger.warn("Corrected the product count of {} categories", drifted);
+        }
+        catch (RuntimeException exception) {
+            logger.warn("Category product counts could not be reconciled", exception);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ Facet - An attribute of the search results shown with the number of matching products per value (brand: apple (12), samsung (8) ...), so that the user can see how a filter would narrow the results before applying it.
+ Every facet is narrowed by the filter keys listed with it, e.g. the price facet by lowPrice/highPrice. Price is counted in fixed buckets instead of per distinct price.
+*/
+
+package org.example.productService.services.facetingService;
+
+import org.example.productService.models.Product;
+
+import java.util.List;
+
+public enum Facet {
+    BRAND("brand", "brand"),
+    OS("os", "os"),
+    RAM("ram", "ram"),
+    CATEGORY("category", "category"),
+    PRICE("price", "lowPrice", "highPrice");
+
+    // Upper (exclusive) bounds of the price buckets, the last bucket is open ended
+    private static final double[] PRICE_BUCKET_BOUNDS = {100, 500, 1000, 2000};
+    private static final String[] PRICE_BUCKET_LABELS = {"0-100", "100-500", "500-1000", "1000-2000", "2000+"};
+
+    private final String key;
+    private final List<String> filterKeys;
+
+    Facet(String key, String... filterKeys) {
+        this.key = key;
+        this.filterKeys = List.of(filterKeys);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    // Value of the facet for the product, null if the product doesn't have one (not counted)
+    public String valueOf(Product product) {
+        return switch (this) {
+            case BRAND -> product.getBrand();
+            case OS -> product.getOs();
+            case RAM -> product.getRam();
+            case CATEGORY -> product.getCategory() == null ? null : product.getCategory().getName();
+            case PRICE -> priceBucket(product.getPrice());
+        };
+    }
+
+    public boolean isNarrowedBy(String filterKey) {
+        return filterKeys.contains(filterKey);
+    }
+
+    // Facet whose values the filter selects directly (brand, os, ram, category), null for range filters (lowPrice, highPrice)
+    public static Facet ofValueFilter(String filterKey) {
+        for (Facet facet : values())
+            if (facet != PRICE && facet.key.equals(filterKey))
+                return facet;
+        return null;
+    }
+
+    static String priceBucket(Double price) {
+        if (price == null)
+            return null;
+
+        int bucket = 0;
+        while (bucket < PRICE_BUCKET_BOUNDS.length && price >= PRICE_BUCKET_BOUNDS[bucket])
+            bucket++;
+        return PRICE_BUCKET_LABELS[bucket];
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ Facet value bitsets - For every facet value (brand=apple, price=500-1000 ...) the set of index ordinals having it, kept as a BitSet next to the posting lists of ProductSearchIndex.
+ Counting a value among a set of candidate ordinals is then an AND of two bitsets and a popcount (cardinality): 64 documents per machine word, instead of looking up the value of every candidate in a map.
+ Filters on a faceted attribute (brand, os, ram, category) are resolved the same way: OR of the bitsets of the selected values.
+ Not thread-safe, guarded by the lock of ProductSearchIndex. Tombstoned ordinals aren't cleared from the bitsets, they never appear in the candidates anyway.
+*/
+
+package org.example.productService.services.facetingService;
+
+import org.example.productService.models.Product;
+
+import java.util.*;
+
+public class FacetIndex {
+    private final Map<Facet, Map<String, BitSet>> ordinalsByValue = new EnumMap<>(Facet.class);
+
+    public FacetIndex() {
+        for (Facet facet : Facet.values())
+            ordinalsByValue.put(facet, new HashMap<>());
+    }
+
+    public void add(int ordinal, Product document) {
+        for (Facet facet : Facet.values()) {
+            String value = facet.valueOf(document);
+            if (value != null)
+                ordinalsByValue.get(facet).computeIfAbsent(value, key -> new BitSet()).set(ordinal);
+        }
+    }
+
+    // Ordinals of every value of the facet, e.g. to be written to a snapshot file (not a copy, read it under the lock)
+    public Map<String, BitSet> getOrdinalsByValue(Facet facet) {
+        return Collections.unmodifiableMap(ordinalsByValue.get(facet));
+    }
+
+    // Copy (bitsets included) which later writes don't change, e.g. to write a snapshot file without holding the lock
+    public FacetIndex copy() {
+        FacetIndex copy = new FacetIndex();
+        ordinalsByValue.forEach((facet, values) -> values.forEach((value, ordinals) -> copy.put(facet, value, (BitSet) ordinals.clone())));
+        return copy;
+    }
+
+    // Ordinals of a value read back from a snapshot file
+    public void put(Facet facet, String value, BitSet ordinals) {
+        ordinalsByValue.get(facet).put(value, ordinals);
+    }
+
+    // Ordinals whose value of the facet is any of the values, ignoring case (OR operation)
+    public BitSet ordinalsMatching(Facet facet, List<String> values) {
+        BitSet ordinals = new BitSet();
+        for (Map.Entry<String, BitSet> entry : ordinalsByValue.get(facet).entrySet())
+            if (values.stream().anyMatch(value -> value.equalsIgnoreCase(entry.getKey())))
+                ordinals.or(entry.getValue());
+        return ordinals;
+    }
+
+    // Number of the ordinals having each value of the facet, highest count first (ties by value), values without any ordinal are left out
+    public Map<String, Integer> count(Facet facet, BitSet ordinals) {
+        BitSet scratch = new BitSet(ordinals.length());
+        List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+
+        for (Map.Entry<String, BitSet> entry : ordinalsByValue.get(facet).entrySet()) {
+            if (!entry.getValue().intersects(ordinals))
+                continue;
+
+            scratch.clear();
+            scratch.or(ordinals);
+            scratch.and(entry.getValue());
+            counts.add(Map.entry(entry.getKey(), scratch.cardinality()));
+        }
+
+        counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> count : counts)
+            sorted.put(count.getKey(), count.getValue());
+        return sorted;
+    }
+}
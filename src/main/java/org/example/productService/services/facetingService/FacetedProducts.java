@@ -0,0 +1,20 @@
+package org.example.productService.services.facetingService;
+
+import org.example.productService.services.indexingService.CatalogSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Search documents passing all the filters as ordinals (in index order) into the catalog snapshot they were found in, facet key --> value --> number of products
+// (values ordered by count, highest first) and the BM25 relevance of every result for the query (same order as ordinals), null when the search isn't sorted by relevance
+public record FacetedProducts(CatalogSnapshot catalog, int[] ordinals, Map<String, Map<String, Integer>> facets, float[] relevance) {
+
+    // Ids of the results, in index order (allocates one Long per result, not for the search path)
+    public List<Long> productIds() {
+        List<Long> productIds = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals)
+            productIds.add(catalog.getId(ordinal));
+        return productIds;
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.productService.services.filteringService;
+
+import org.example.productService.models.Product;
+import org.example.productService.repositories.specifications.ProductSpecifications;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+public class CategoryFilter implements Filter {
+
+    @Override
+    public Predicate<Product> toPredicate(List<String> filteredValues) {
+        // Filter products by category name, any of the values can match (OR operation)
+        return product -> product.getCategory() != null && Filter.matchesAny(filteredValues, product.getCategory().getName());
+    }
+
+    @Override
+    public Specification<Product> toSpecification(List<String> filteredValues) {
+        return ProductSpecifications.categoryNameIn(filteredValues);
+    }
+}
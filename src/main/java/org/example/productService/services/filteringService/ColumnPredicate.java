@@ -0,0 +1,9 @@
+package org.example.productService.services.filteringService;
+
+import org.example.productService.services.indexingService.CatalogSnapshot;
+
+// Test of a single search document read straight from the columns of the catalog snapshot, without materializing a Product
+@FunctionalInterface
+public interface ColumnPredicate {
+    boolean test(CatalogSnapshot catalog, int ordinal);
+}
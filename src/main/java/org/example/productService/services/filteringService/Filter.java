@@ -1,10 +1,55 @@
 package org.example.productService.services.filteringService;
 
+import org.example.productService.exception.BadRequestException;
 import org.example.productService.models.Product;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface Filter {
 
-    List<Product> applyFilter(List<Product> products, List<String> filteredValues);
+    // Test of a single in-memory search document, so that all the filters (and the facet counts) can be evaluated in one pass over the documents
+    Predicate<Product> toPredicate(List<String> filteredValues);
+
+    // Same test over the columns of the search index (CatalogSnapshot), null when the filter has no column form. Filters on faceted attributes don't need one, the index resolves them from its facet bitsets.
+    default ColumnPredicate toColumnPredicate(List<String> filteredValues) {
+        return null;
+    }
+
+    default List<Product> applyFilter(List<Product> products, List<String> filteredValues) {
+        return products.stream()
+                .filter(toPredicate(filteredValues))
+                .toList();
+    }
+
+    // Case-insensitive match of the attribute with any of the values (OR operation). Plain loop, as the predicates run once per candidate document.
+    static boolean matchesAny(List<String> filteredValues, String attribute) {
+        if (attribute == null)
+            return false;
+        for (String value : filteredValues)
+            if (value.equalsIgnoreCase(attribute))
+                return true;
+        return false;
+    }
+
+    // Single price of a lowPrice/highPrice filter, a missing or non-numeric value is a bad request (and not a NumberFormatException answered as a generic error)
+    static double parsePrice(String key, List<String> filteredValues) {
+        String value = filteredValues == null || filteredValues.isEmpty() ? null : filteredValues.get(0);
+        if (value == null || value.isBlank())
+            throw new BadRequestException(key + " filter needs a price");
+
+        try {
+            double price = Double.parseDouble(value.trim());
+            if (!Double.isFinite(price))        // "NaN" and "Infinity" are parsed too
+                throw new NumberFormatException();
+            return price;
+        }
+        catch (NumberFormatException exception) {
+            throw new BadRequestException(key + " filter needs a numeric price, got: " + value, exception);
+        }
+    }
+
+    // Same filter as a SQL predicate, so that it can be pushed down into the database query
+    Specification<Product> toSpecification(List<String> filteredValues);
 }
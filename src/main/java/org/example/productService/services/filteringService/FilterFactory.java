@@ -1,15 +1,27 @@
 // Implemented search by filtering as a factory method pattern because it's a common pattern for creating objects based on a key.
+// Filters are stateless (the values come with every call), hence one shared instance per key is handed out instead of a new object per request.
 
 package org.example.productService.services.filteringService;
 
+import org.example.productService.exception.BadRequestException;
+
 public class FilterFactory {
+    private static final Filter BRAND_FILTER = new BrandFilter();
+    private static final Filter OS_FILTER = new OsFilter();
+    private static final Filter RAM_FILTER = new RamFilter();
+    private static final Filter CATEGORY_FILTER = new CategoryFilter();
+    private static final Filter LOW_PRICE_FILTER = new LowPriceFilter();
+    private static final Filter HIGH_PRICE_FILTER = new HighPriceFilter();
 
     public static Filter getFilterFromKey(String key) {
         return switch (key) {
-            case "brand" -> new BrandFilter();
-            case "os" -> new OsFilter();
-            case "ram" -> new RamFilter();
-            default -> throw new IllegalArgumentException("Invalid filter key: " + key);
+            case "brand" -> BRAND_FILTER;
+            case "os" -> OS_FILTER;
+            case "ram" -> RAM_FILTER;
+            case "category" -> CATEGORY_FILTER;
+            case "lowPrice" -> LOW_PRICE_FILTER;
+            case "highPrice" -> HIGH_PRICE_FILTER;
+            case null, default -> throw new BadRequestException("Invalid filter key: " + key);     // Key sent by the client, hence 400
         };
     }
 }
@@ -0,0 +1,31 @@
+package org.example.productService.services.filteringService;
+
+import org.example.productService.models.Product;
+import org.example.productService.repositories.specifications.ProductSpecifications;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+public class HighPriceFilter implements Filter {
+
+    @Override
+    public Predicate<Product> toPredicate(List<String> filteredValues) {
+        // Keep the products costing at most the given price
+        double highPrice = Filter.parsePrice("highPrice", filteredValues);
+
+        return product -> product.getPrice() != null && product.getPrice() <= highPrice;
+    }
+
+    @Override
+    public ColumnPredicate toColumnPredicate(List<String> filteredValues) {
+        double highPrice = Filter.parsePrice("highPrice", filteredValues);
+
+        return (catalog, ordinal) -> catalog.getPrice(ordinal) <= highPrice;     // Products without price (NaN) never pass
+    }
+
+    @Override
+    public Specification<Product> toSpecification(List<String> filteredValues) {
+        return ProductSpecifications.priceAtMost(Filter.parsePrice("highPrice", filteredValues));
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.productService.services.filteringService;
+
+import org.example.productService.models.Product;
+import org.example.productService.repositories.specifications.ProductSpecifications;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+public class LowPriceFilter implements Filter {
+
+    @Override
+    public Predicate<Product> toPredicate(List<String> filteredValues) {
+        // Keep the products costing at least the given price
+        double lowPrice = Filter.parsePrice("lowPrice", filteredValues);
+
+        return product -> product.getPrice() != null && product.getPrice() >= lowPrice;
+    }
+
+    @Override
+    public ColumnPredicate toColumnPredicate(List<String> filteredValues) {
+        double lowPrice = Filter.parsePrice("lowPrice", filteredValues);
+
+        return (catalog, ordinal) -> catalog.getPrice(ordinal) >= lowPrice;     // Products without price (NaN) never pass
+    }
+
+    @Override
+    public Specification<Product> toSpecification(List<String> filteredValues) {
+        return ProductSpecifications.priceAtLeast(Filter.parsePrice("lowPrice", filteredValues));
+    }
+}
@@ -1,16 +1,22 @@
 package org.example.productService.services.filteringService;
 
 import org.example.productService.models.Product;
+import org.example.productService.repositories.specifications.ProductSpecifications;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 public class OsFilter implements Filter {
 
     @Override
-    public List<Product> applyFilter(List<Product> products, List<String> filteredValues) {
-        // Implement the filtering logic for OS here
-        // For example, filter products based on the Operating System names
+    public Predicate<Product> toPredicate(List<String> filteredValues) {
+        // Filter products based on the Operating System names, any of the values can match (OR operation)
+        return product -> Filter.matchesAny(filteredValues, product.getOs());
+    }
 
-        return List.of();
+    @Override
+    public Specification<Product> toSpecification(List<String> filteredValues) {
+        return ProductSpecifications.attributeIn("os", filteredValues);
     }
 }
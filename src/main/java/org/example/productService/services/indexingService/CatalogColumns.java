@@ -0,0 +1,83 @@
+package org.example.productService.services.indexingService;
+
+import org.example.productService.models.Product;
+
+import java.util.Arrays;
+
+// Writer side of the CatalogSnapshot: rows are only ever appended (an update is a tombstone + a new row), so the rows of a published snapshot are never written again.
+// Arrays are shared with the snapshots and copied only when they have to grow (copy on write), hence publishing a snapshot costs one small object. Guarded by the lock of ProductSearchIndex.
+// When loaded from a snapshot file, the rows of the file stay in the mapped base and the arrays only hold the rows appended after it.
+class CatalogColumns {
+    private final MappedColumns base;
+    private final int baseSize;
+    private final Dictionary brands;
+    private final Dictionary operatingSystems;
+    private final Dictionary rams;
+    private final Dictionary categories;
+
+    private long[] ids;
+    private double[] prices;
+    private int[] brandCodes;
+    private int[] osCodes;
+    private int[] ramCodes;
+    private int[] categoryOrdinals;
+    private int size;
+
+    CatalogColumns(int capacity) {
+        this(null, capacity, new Dictionary(), new Dictionary(), new Dictionary(), new Dictionary());
+    }
+
+    // Rows of a mapped snapshot file, followed by the rows appended later. Dictionaries are the ones the codes of the file refer to.
+    CatalogColumns(MappedColumns base, int capacity, Dictionary brands, Dictionary operatingSystems, Dictionary rams, Dictionary categories) {
+        this.base = base;
+        this.baseSize = base == null ? 0 : base.size();
+        this.brands = brands;
+        this.operatingSystems = operatingSystems;
+        this.rams = rams;
+        this.categories = categories;
+        this.size = baseSize;
+
+        capacity = Math.max(16, capacity);
+        ids = new long[capacity];
+        prices = new double[capacity];
+        brandCodes = new int[capacity];
+        osCodes = new int[capacity];
+        ramCodes = new int[capacity];
+        categoryOrdinals = new int[capacity];
+    }
+
+    // Appends the searchable attributes of the product as a new row, returns its ordinal
+    int append(Product product) {
+        int index = size - baseSize;
+        if (index == ids.length)
+            grow();
+
+        ids[index] = product.getId();
+        prices[index] = product.getPrice() == null ? CatalogSnapshot.NO_PRICE : product.getPrice();
+        brandCodes[index] = brands.encode(product.getBrand());
+        osCodes[index] = operatingSystems.encode(product.getOs());
+        ramCodes[index] = rams.encode(product.getRam());
+        categoryOrdinals[index] = categories.encode(product.getCategory() == null ? null : product.getCategory().getName());
+        return size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Read-only view of the rows appended so far
+    CatalogSnapshot snapshot() {
+        return new CatalogSnapshot(base, size, ids, prices, brandCodes, osCodes, ramCodes, categoryOrdinals,
+                brands.values(), operatingSystems.values(), rams.values(), categories.values());
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        brandCodes = Arrays.copyOf(brandCodes, capacity);
+        osCodes = Arrays.copyOf(osCodes, capacity);
+        ramCodes = Arrays.copyOf(ramCodes, capacity);
+        categoryOrdinals = Arrays.copyOf(categoryOrdinals, capacity);
+    }
+}
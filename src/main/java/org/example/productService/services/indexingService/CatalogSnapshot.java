@@ -0,0 +1,124 @@
+/*
+ Catalog snapshot - Searchable attributes of the indexed products laid out column-wise, one primitive array per attribute indexed by the ordinal of the product in ProductSearchIndex:
+    ids (long[]), prices (double[], NaN when the product has no price), and brand/os/ram/category as int codes into dictionaries of their distinct values.
+ Compared to one Product object per search document (object header, boxed Double, String references, Category object, BaseModel fields), a row takes 32 bytes
+ and a filter or a sort scans a single dense array, so the scans run at memory bandwidth and allocate nothing.
+ Immutable: rows are only appended after the snapshot was taken and it only reads its first size() rows (copy on write, see CatalogColumns),
+ hence a snapshot can be read without any lock, e.g. to sort the search results after the index lock is released.
+ Mapped base - When the index was loaded from a snapshot file, the rows present in the file are read from the memory-mapped file (MappedColumns) and only the rows appended since then from the arrays.
+*/
+
+package org.example.productService.services.indexingService;
+
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+
+public final class CatalogSnapshot {
+    static final double NO_PRICE = Double.NaN;
+
+    private final MappedColumns base;      // Rows [0, baseSize), null when the index wasn't loaded from a snapshot file
+    private final int baseSize;
+    private final int size;
+    private final long[] ids;              // Rows [baseSize, size) at index ordinal - baseSize
+    private final double[] prices;
+    private final int[] brandCodes;
+    private final int[] osCodes;
+    private final int[] ramCodes;
+    private final int[] categoryOrdinals;
+    private final String[] brands;
+    private final String[] operatingSystems;
+    private final String[] rams;
+    private final String[] categories;
+
+    CatalogSnapshot(MappedColumns base, int size, long[] ids, double[] prices, int[] brandCodes, int[] osCodes, int[] ramCodes, int[] categoryOrdinals,
+                    String[] brands, String[] operatingSystems, String[] rams, String[] categories) {
+        this.base = base;
+        this.baseSize = base == null ? 0 : base.size();
+        this.size = size;
+        this.ids = ids;
+        this.prices = prices;
+        this.brandCodes = brandCodes;
+        this.osCodes = osCodes;
+        this.ramCodes = ramCodes;
+        this.categoryOrdinals = categoryOrdinals;
+        this.brands = brands;
+        this.operatingSystems = operatingSystems;
+        this.rams = rams;
+        this.categories = categories;
+    }
+
+    // Number of rows (live products and tombstones)
+    public int size() {
+        return size;
+    }
+
+    public long getId(int ordinal) {
+        return ordinal < baseSize ? base.getId(ordinal) : ids[ordinal - baseSize];
+    }
+
+    // NaN when the product has no price: every comparison with it is false, hence it never passes a price range
+    public double getPrice(int ordinal) {
+        return ordinal < baseSize ? base.getPrice(ordinal) : prices[ordinal - baseSize];
+    }
+
+    public String getBrand(int ordinal) {
+        return decode(brands, getBrandCode(ordinal));
+    }
+
+    public String getOs(int ordinal) {
+        return decode(operatingSystems, getOsCode(ordinal));
+    }
+
+    public String getRam(int ordinal) {
+        return decode(rams, getRamCode(ordinal));
+    }
+
+    public String getCategoryName(int ordinal) {
+        return decode(categories, getCategoryOrdinal(ordinal));
+    }
+
+    // Detached Product with the searchable attributes of the row (allocates, not for the scans)
+    public Product toSearchDocument(int ordinal) {
+        Product document = new Product();
+        double price = getPrice(ordinal);
+        document.setId(getId(ordinal));
+        document.setPrice(Double.isNaN(price) ? null : price);
+        document.setBrand(getBrand(ordinal));
+        document.setOs(getOs(ordinal));
+        document.setRam(getRam(ordinal));
+
+        String categoryName = getCategoryName(ordinal);
+        if (categoryName != null) {
+            Category category = new Category();
+            category.setName(categoryName);
+            document.setCategory(category);
+        }
+        return document;
+    }
+
+    // Codes and dictionaries, written as they are to the snapshot file
+    int getBrandCode(int ordinal) {
+        return ordinal < baseSize ? base.getBrandCode(ordinal) : brandCodes[ordinal - baseSize];
+    }
+
+    int getOsCode(int ordinal) {
+        return ordinal < baseSize ? base.getOsCode(ordinal) : osCodes[ordinal - baseSize];
+    }
+
+    int getRamCode(int ordinal) {
+        return ordinal < baseSize ? base.getRamCode(ordinal) : ramCodes[ordinal - baseSize];
+    }
+
+    int getCategoryOrdinal(int ordinal) {
+        return ordinal < baseSize ? base.getCategoryOrdinal(ordinal) : categoryOrdinals[ordinal - baseSize];
+    }
+
+    // brands, operating systems, rams and categories, in this order (arrays may have unused null slots at the end)
+    String[][] getDictionaries() {
+        return new String[][] {brands, operatingSystems, rams, categories};
+    }
+
+    private static String decode(String[] values, int code) {
+        return code == Dictionary.NO_VALUE ? null : values[code];
+    }
+}
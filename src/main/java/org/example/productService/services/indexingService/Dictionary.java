@@ -0,0 +1,45 @@
+package org.example.productService.services.indexingService;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Dictionary encoding of a low-cardinality string column (brand, os, ram, category): every distinct value is stored once and the rows keep its int code
+// Append-only: codes never change, hence a CatalogSnapshot can share the values array and only decode the codes it has seen. Writes are guarded by the lock of ProductSearchIndex.
+class Dictionary {
+    static final int NO_VALUE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] values;
+
+    Dictionary() {
+        values = new String[8];
+    }
+
+    // Values read back from a snapshot file, in code order
+    Dictionary(String[] values) {
+        this.values = Arrays.copyOf(values, Math.max(8, values.length));
+        for (int code = 0; code < values.length; code++)
+            codes.put(values[code], code);
+    }
+
+    int encode(String value) {
+        if (value == null)
+            return NO_VALUE;
+
+        Integer code = codes.get(value);
+        if (code != null)
+            return code;
+
+        int newCode = codes.size();
+        if (newCode == values.length)
+            values = Arrays.copyOf(values, newCode * 2);     // Copy on write: snapshots keep reading the old array
+        values[newCode] = value;
+        codes.put(value, newCode);
+        return newCode;
+    }
+
+    String[] values() {
+        return values;
+    }
+}
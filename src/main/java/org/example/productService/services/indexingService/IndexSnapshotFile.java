@@ -0,0 +1,205 @@
+/*
+ Snapshot file of the product search index - Everything ProductSearchIndex needs to serve searches, written by a running instance and loaded by new ones instead of reading the products table and tokenizing every product again.
+ Layout (big-endian, as written by DataOutputStream):
+    header      magic, version, createdAt, indexedUntil (epoch millis, -1 if unknown), rows, totalDocumentLength
+    columns     ids long[rows], prices double[rows], brand/os/ram/category codes int[rows] each, document lengths int[rows]
+    live        word count, long[] words of the live BitSet
+    dictionaries brands, operating systems, rams, categories: value count, then the values
+    postings    token count, then per token: token, size, ordinals int[size], frequencies int[size]
+    facets      per Facet (enum order): value count, then per value: value, word count, long[] words of its BitSet
+    strings are written as their UTF-8 byte length followed by the bytes
+ Memory-mapped file (FileChannel.map) - The file is mapped into the address space of the process: the catalog columns are views over the mapped region (MappedColumns), read on demand by the OS
+    through its page cache, so they are neither copied into the heap nor scanned by the GC. Posting lists, dictionaries, lengths and facet bitsets are small and written to later, they are bulk-read into heap arrays.
+ A mapped ByteBuffer is limited to 2 GB (int positions), far above the size of the file for millions of products (about 60 bytes per product + the posting lists).
+*/
+
+package org.example.productService.services.indexingService;
+
+import org.example.productService.services.facetingService.Facet;
+import org.example.productService.services.facetingService.FacetIndex;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+final class IndexSnapshotFile {
+    private static final int MAGIC = 0x50534958;       // "PSIX"
+    private static final int VERSION = 2;
+
+    record Contents(long createdAt, Instant indexedUntil, CatalogColumns columns, BitSet live, int[] documentLengths, long totalDocumentLength,
+                    Map<String, PostingList> postings, FacetIndex facetIndex) {
+    }
+
+    private IndexSnapshotFile() {
+    }
+
+    // Written to a temporary file then moved over the previous one, so a reader never sees a partial file (and an instance mapping the previous one keeps reading it)
+    static void write(Path path, Instant indexedUntil, CatalogSnapshot catalog, BitSet live, int[] documentLengths, long totalDocumentLength,
+                      Map<String, PostingList> postings, FacetIndex facetIndex) throws IOException {
+        if (path.toAbsolutePath().getParent() != null)
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        int rows = catalog.size();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeLong(indexedUntil == null ? -1 : indexedUntil.toEpochMilli());
+            out.writeInt(rows);
+            out.writeLong(totalDocumentLength);
+
+            for (int ordinal = 0; ordinal < rows; ordinal++)
+                out.writeLong(catalog.getId(ordinal));
+            for (int ordinal = 0; ordinal < rows; ordinal++)
+                out.writeDouble(catalog.getPrice(ordinal));
+            for (int ordinal = 0; ordinal < rows; ordinal++)
+                out.writeInt(catalog.getBrandCode(ordinal));
+            for (int ordinal = 0; ordinal < rows; ordinal++)
+                out.writeInt(catalog.getOsCode(ordinal));
+            for (int ordinal = 0; ordinal < rows; ordinal++)
+                out.writeInt(catalog.getRamCode(ordinal));
+            for (int ordinal = 0; ordinal < rows; ordinal++)
+                out.writeInt(catalog.getCategoryOrdinal(ordinal));
+            for (int ordinal = 0; ordinal < rows; ordinal++)
+                out.writeInt(documentLengths[ordinal]);
+
+            writeWords(out, live);
+
+            for (String[] values : catalog.getDictionaries()) {
+                int count = 0;
+                while (count < values.length && values[count] != null)     // Unused slots at the end of the array
+                    count++;
+                out.writeInt(count);
+                for (int code = 0; code < count; code++)
+                    writeString(out, values[code]);
+            }
+
+            out.writeInt(postings.size());
+            for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                PostingList postingList = entry.getValue();
+                writeString(out, entry.getKey());
+                out.writeInt(postingList.size());
+                for (int i = 0; i < postingList.size(); i++)
+                    out.writeInt(postingList.get(i));
+                for (int i = 0; i < postingList.size(); i++)
+                    out.writeInt(postingList.getFrequency(i));
+            }
+
+            for (Facet facet : Facet.values()) {
+                Map<String, BitSet> ordinalsByValue = facetIndex.getOrdinalsByValue(facet);
+                out.writeInt(ordinalsByValue.size());
+                for (Map.Entry<String, BitSet> entry : ordinalsByValue.entrySet()) {
+                    writeString(out, entry.getKey());
+                    writeWords(out, entry.getValue());
+                }
+            }
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Contents read(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Search index snapshot larger than 2 GB: " + path);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());     // Mapping stays valid once the channel is closed
+        }
+
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+            throw new IOException("Not a search index snapshot of this version: " + path);
+        long createdAt = buffer.getLong();
+        long indexedUntil = buffer.getLong();
+        int rows = buffer.getInt();
+        long totalDocumentLength = buffer.getLong();
+
+        MappedColumns base = new MappedColumns(rows,
+                slice(buffer, rows, Long.BYTES).asLongBuffer(),
+                slice(buffer, rows, Double.BYTES).asDoubleBuffer(),
+                slice(buffer, rows, Integer.BYTES).asIntBuffer(),
+                slice(buffer, rows, Integer.BYTES).asIntBuffer(),
+                slice(buffer, rows, Integer.BYTES).asIntBuffer(),
+                slice(buffer, rows, Integer.BYTES).asIntBuffer());
+
+        int[] documentLengths = new int[Math.max(16, rows)];      // Written to by the documents appended later, hence on the heap
+        slice(buffer, rows, Integer.BYTES).asIntBuffer().get(documentLengths, 0, rows);
+
+        BitSet live = BitSet.valueOf(readWords(buffer));
+
+        Dictionary[] dictionaries = new Dictionary[4];
+        for (int d = 0; d < dictionaries.length; d++) {
+            String[] values = new String[buffer.getInt()];
+            for (int code = 0; code < values.length; code++)
+                values[code] = readString(buffer);
+            dictionaries[d] = new Dictionary(values);
+        }
+
+        int tokens = buffer.getInt();
+        Map<String, PostingList> postings = new HashMap<>(tokens * 4 / 3 + 1);
+        for (int t = 0; t < tokens; t++) {
+            String token = readString(buffer);
+            int size = buffer.getInt();
+            int[] ordinals = new int[size];
+            int[] frequencies = new int[size];
+            slice(buffer, size, Integer.BYTES).asIntBuffer().get(ordinals);
+            slice(buffer, size, Integer.BYTES).asIntBuffer().get(frequencies);
+            postings.put(token, new PostingList(ordinals, frequencies));
+        }
+
+        FacetIndex facetIndex = new FacetIndex();
+        for (Facet facet : Facet.values()) {
+            int values = buffer.getInt();
+            for (int v = 0; v < values; v++)
+                facetIndex.put(facet, readString(buffer), BitSet.valueOf(readWords(buffer)));
+        }
+
+        CatalogColumns columns = new CatalogColumns(base, 16, dictionaries[0], dictionaries[1], dictionaries[2], dictionaries[3]);
+        return new Contents(createdAt, indexedUntil < 0 ? null : Instant.ofEpochMilli(indexedUntil), columns, live, documentLengths, totalDocumentLength, postings, facetIndex);
+    }
+
+    // Next 'count' values of 'bytes' bytes each as a buffer of their own (sharing the mapped memory), the position of the buffer moves past them
+    private static ByteBuffer slice(ByteBuffer buffer, int count, int bytes) {
+        int length = Math.multiplyExact(count, bytes);
+        ByteBuffer slice = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    private static void writeWords(DataOutputStream out, BitSet bitSet) throws IOException {
+        long[] words = bitSet.toLongArray();
+        out.writeInt(words.length);
+        for (long word : words)
+            out.writeLong(word);
+    }
+
+    private static long[] readWords(ByteBuffer buffer) {
+        long[] words = new long[buffer.getInt()];
+        slice(buffer, words.length, Long.BYTES).asLongBuffer().get(words);
+        return words;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
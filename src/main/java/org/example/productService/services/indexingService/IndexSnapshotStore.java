@@ -0,0 +1,95 @@
+/*
+ Warm start of the search index - Building the index at startup reads every product from the database and tokenizes it, which takes minutes for a large catalog, and searches go to the database meanwhile.
+ Instead a running instance periodically writes the index to a snapshot file (search.snapshot.path, e.g. on a volume shared by the instances or baked into the image),
+ and a new instance memory-maps it at startup: searches are served by the index about a second after the start and the catalog columns are read from the mapped file, not the heap.
+ A snapshot older than search.snapshot.max-age is ignored and the index is built from the database as before, same when the file is missing or can't be read.
+ Catch-up - A loaded snapshot misses the changes written since it was taken. They are polled from the database (CatalogChangeRefresher.catchUp) before the index is marked ready,
+ and when they can't be (database down, refresh disabled) the snapshot is discarded and the index built from the database: a stale index never serves searches.
+ Disabled by default (empty search.snapshot.path): the path has to be set to a location owned by the deployment, e.g. a volume shared by the instances.
+ Order - load() runs before ProductSearchIndex.build() (ApplicationReadyEvent listeners run by @Order), which skips the database once the index is ready.
+*/
+
+package org.example.productService.services.indexingService;
+
+import org.example.productService.services.refreshService.CatalogChangeRefresher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Component
+public class IndexSnapshotStore {
+    private static final Logger logger = LoggerFactory.getLogger(IndexSnapshotStore.class);
+
+    private final ProductSearchIndex productSearchIndex;
+    private final ObjectProvider<CatalogChangeRefresher> catalogChangeRefresher;     // Absent when catalog.refresh.enabled=false
+    private final Path path;                    // null when snapshots are disabled
+    private final Duration maxAge;
+    private CatalogSnapshot lastWritten;        // Catalog of the last snapshot written or loaded, nothing to write till the index changes. Only used by the scheduler thread.
+
+    public IndexSnapshotStore(ProductSearchIndex productSearchIndex, ObjectProvider<CatalogChangeRefresher> catalogChangeRefresher,
+                              @Value("${search.index.enabled:true}") boolean indexEnabled,
+                              @Value("${search.snapshot.path:}") String path,
+                              @Value("${search.snapshot.max-age:PT1H}") Duration maxAge) {
+        this.productSearchIndex = productSearchIndex;
+        this.catalogChangeRefresher = catalogChangeRefresher;
+        this.path = !indexEnabled || path.isBlank() ? null : Path.of(path);
+        this.maxAge = maxAge;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void load() {
+        if (path == null || !Files.exists(path))
+            return;
+
+        try {
+            long start = System.nanoTime();
+            if (!productSearchIndex.loadSnapshot(path, maxAge)) {
+                logger.info("Product search index snapshot {} is older than {}, index will be built from the database", path, maxAge);
+                return;
+            }
+
+            CatalogChangeRefresher refresher = catalogChangeRefresher.getIfAvailable();
+            if (refresher == null || !refresher.catchUp()) {
+                productSearchIndex.discardSnapshot();
+                logger.warn("Product search index snapshot {} could not be caught up with the database, index will be built from the database", path);
+                return;
+            }
+
+            productSearchIndex.markReady();
+            lastWritten = productSearchIndex.getCatalog();
+            logger.info("Product search index loaded from {} and caught up in {} ms", path, (System.nanoTime() - start) / 1_000_000);
+        }
+        catch (IOException | RuntimeException exception) {
+            productSearchIndex.discardSnapshot();
+            logger.warn("Product search index snapshot {} could not be loaded, index will be built from the database", path, exception);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${search.snapshot.initial-delay:PT1M}", fixedDelayString = "${search.snapshot.write-interval:PT10M}")
+    public void write() {
+        if (path == null || !productSearchIndex.isReady() || productSearchIndex.getCatalog() == lastWritten)
+            return;
+
+        try {
+            long start = System.nanoTime();
+            lastWritten = productSearchIndex.writeSnapshot(path);
+            logger.info("Product search index snapshot of {} rows written to {} in {} ms", lastWritten.size(), path, (System.nanoTime() - start) / 1_000_000);
+        }
+        catch (IOException | RuntimeException exception) {
+            logger.warn("Product search index snapshot could not be written to {}", path, exception);
+        }
+    }
+}
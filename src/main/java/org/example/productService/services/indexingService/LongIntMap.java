@@ -0,0 +1,95 @@
+package org.example.productService.services.indexingService;
+
+import java.util.Arrays;
+
+// Product id --> ordinal map with open addressing over primitive arrays: 12 bytes per slot instead of a HashMap entry, a Long and an Integer (about 64 bytes per product)
+// Linear probing, kept at most half full; removal shifts the following entries back (no tombstones). Not thread-safe, guarded by the lock of ProductSearchIndex.
+class LongIntMap {
+    static final int NO_VALUE = -1;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+
+    LongIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2) - 1) << 1;    // Power of 2, at most half full
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); used[slot]; slot = (slot + 1) & mask)
+            if (keys[slot] == key)
+                return values[slot];
+        return NO_VALUE;
+    }
+
+    void put(long key, int value) {
+        if ((size + 1) * 2 > keys.length)
+            resize(keys.length * 2);
+
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+        size++;
+    }
+
+    // Removes the key, returns its value (NO_VALUE if it wasn't there)
+    int remove(long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (used[slot] && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        if (!used[slot])
+            return NO_VALUE;
+
+        int removed = values[slot];
+        // Shift back the entries of the probe sequence which would not be found anymore across the emptied slot
+        int empty = slot;
+        for (int next = (empty + 1) & mask; used[next]; next = (next + 1) & mask) {
+            int home = slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - empty) & mask)) {     // Home slot is at or before the empty slot (cyclically)
+                keys[empty] = keys[next];
+                values[empty] = values[next];
+                empty = next;
+            }
+        }
+        used[empty] = false;
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++)
+            if (oldUsed[slot])
+                put(oldKeys[slot], oldValues[slot]);
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;     // Spread sequential ids over the table
+        return (int) (hash >>> 32) & mask;
+    }
+}
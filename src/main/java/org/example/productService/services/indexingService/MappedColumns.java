@@ -0,0 +1,55 @@
+package org.example.productService.services.indexingService;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+// Columns of the first rows of a CatalogSnapshot read straight from a memory-mapped snapshot file (see IndexSnapshotFile): views over the mapped region, nothing is copied into the heap.
+// Read-only and only absolute gets are used, hence the views are safe to share between threads. Pages are loaded by the OS on first access and stay in its page cache, outside of the GC's heap.
+final class MappedColumns {
+    private final int size;
+    private final LongBuffer ids;
+    private final DoubleBuffer prices;
+    private final IntBuffer brandCodes;
+    private final IntBuffer osCodes;
+    private final IntBuffer ramCodes;
+    private final IntBuffer categoryOrdinals;
+
+    MappedColumns(int size, LongBuffer ids, DoubleBuffer prices, IntBuffer brandCodes, IntBuffer osCodes, IntBuffer ramCodes, IntBuffer categoryOrdinals) {
+        this.size = size;
+        this.ids = ids;
+        this.prices = prices;
+        this.brandCodes = brandCodes;
+        this.osCodes = osCodes;
+        this.ramCodes = ramCodes;
+        this.categoryOrdinals = categoryOrdinals;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long getId(int ordinal) {
+        return ids.get(ordinal);
+    }
+
+    double getPrice(int ordinal) {
+        return prices.get(ordinal);
+    }
+
+    int getBrandCode(int ordinal) {
+        return brandCodes.get(ordinal);
+    }
+
+    int getOsCode(int ordinal) {
+        return osCodes.get(ordinal);
+    }
+
+    int getRamCode(int ordinal) {
+        return ramCodes.get(ordinal);
+    }
+
+    int getCategoryOrdinal(int ordinal) {
+        return categoryOrdinals.get(ordinal);
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.productService.services.indexingService;
+
+import java.util.Arrays;
+
+// Posting list - Sorted list of document ordinals containing a token, stored as a primitive int array (no boxing, 4 bytes per entry).
+// Ordinals are only ever appended in increasing order by ProductSearchIndex, hence the list stays sorted without any extra work.
+// Frequencies - Parallel array with the (weighted) number of times the token occurs in each document, used for BM25 relevance scoring.
+public class PostingList {
+    private int[] ordinals;
+    private int[] frequencies;
+    private int size;
+
+    public PostingList() {
+        ordinals = new int[4];
+        frequencies = new int[4];
+    }
+
+    // Posting list read back from a snapshot file (arrays are taken over, not copied)
+    PostingList(int[] ordinals, int[] frequencies) {
+        this.ordinals = ordinals;
+        this.frequencies = frequencies;
+        this.size = ordinals.length;
+    }
+
+    // Copy trimmed to the size, which later adds don't change
+    PostingList copy() {
+        return new PostingList(Arrays.copyOf(ordinals, size), Arrays.copyOf(frequencies, size));
+    }
+
+    public void add(int ordinal) {
+        add(ordinal, 1);
+    }
+
+    public void add(int ordinal, int weight) {
+        if (size > 0 && ordinals[size - 1] == ordinal) {
+            frequencies[size - 1] += weight;     // Token repeated in the same document
+            return;
+        }
+
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, size * 2);
+            frequencies = Arrays.copyOf(frequencies, size * 2);
+        }
+
+        ordinals[size] = ordinal;
+        frequencies[size++] = weight;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int index) {
+        return ordinals[index];
+    }
+
+    public int getFrequency(int index) {
+        return frequencies[index];
+    }
+}
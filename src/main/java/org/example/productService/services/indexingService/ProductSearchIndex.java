@@ -0,0 +1,654 @@
+/*
+ Inverted Index - Maps every token (word) to the list of documents containing it, like the index at the back of a book. Searching a word is then a lookup in a HashMap instead of a LIKE '%word%' full table scan in the database.
+ Ordinal - Position of a product inside the index (0, 1, 2...). Posting lists store ordinals instead of product ids, so that they can be kept in an int[] and intersected cheaply.
+ Tombstone - An update or delete doesn't rewrite the posting lists, the old ordinal is just marked as deleted in the 'live' BitSet and the product gets a new ordinal. The index is compacted once tombstones outnumber live documents.
+ ReadWriteLock - Many searches can read the index at the same time, writes (create/update/delete of a product) take the exclusive lock.
+
+ Parallel filtering - Range filters (price) are tested document by document, for large candidate sets in chunks on the search fork-join pool (SearchParallelism).
+ BM25 - Relevance score of a document for the query tokens: sum over the tokens of idf(token) * tf * (k1 + 1) / (tf + k1 * (1 - b + b * documentLength / averageDocumentLength)).
+    Rare tokens (high idf) count more, repeated tokens count with diminishing returns (k1), and long documents are penalized (b). Title tokens count twice (TITLE_WEIGHT) as the title describes the product best.
+    Scores are only computed when the search is sorted by relevance, straight from the posting lists (frequencies) into a float array, under the same read lock as the search.
+ Facets - FacetIndex keeps a bitset of ordinals per facet value, so that the facet counts of a search are computed with bitset intersections over the candidates (see searchWithFacets).
+
+ The index is built from the products table once the application has started and kept current by ProductServiceDBImpl.
+ Writes made before the index is ready (while it's built) are buffered, last write per product, and replayed over the built index: the build may have read the previous version of the product.
+ Search documents are rows of a columnar CatalogSnapshot (id, price, brand/os/ram/category codes) instead of Product objects, so filtering and sorting scan primitive arrays in memory.
+ The snapshot is copy-on-write: a search keeps reading the snapshot it started with after the lock is released (sorting), while writes append rows for the next snapshot.
+ Warm start - The whole index can be written to a snapshot file and loaded back from it by a new instance (see IndexSnapshotFile and IndexSnapshotStore), the catalog columns are then read from the memory-mapped file.
+    A loaded index isn't ready yet: it's only marked ready (markReady) once the changes written since the snapshot are applied, else discarded (discardSnapshot) and built from the database.
+ Database is then only hit to load the products of the final page.
+*/
+
+package org.example.productService.services.indexingService;
+
+import org.example.productService.models.Product;
+import org.example.productService.repositories.ProductRepository;
+import org.example.productService.services.facetingService.Facet;
+import org.example.productService.services.facetingService.FacetIndex;
+import org.example.productService.services.facetingService.FacetedProducts;
+import org.example.productService.services.filteringService.ColumnPredicate;
+import org.example.productService.services.parallelService.SearchParallelism;
+import org.example.productService.services.planningService.SearchPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class ProductSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+    private static final int TITLE_WEIGHT = 2;
+    private static final float BM25_K1 = 1.2f;
+    private static final float BM25_B = 0.75f;
+
+    private static final int MIN_FILTER_CHUNK_SIZE = 8_192;     // Ordinals per parallel filter task, at least (multiple of 64)
+
+    private final ProductRepository productRepository;
+    private final SearchParallelism parallelism;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<String, PostingList> postings = new HashMap<>();    // token --> ordinals of the documents containing it
+    private CatalogColumns columns = new CatalogColumns(16);        // ordinal --> searchable attributes (writer side)
+    private volatile CatalogSnapshot catalog = columns.snapshot();  // Published after every write, readable without the lock
+    private LongIntMap ordinalsByProductId = new LongIntMap(16);    // product id --> current ordinal
+    private BitSet live = new BitSet();                             // ordinals which are not tombstones
+    private FacetIndex facetIndex = new FacetIndex();               // facet value --> ordinals having it
+    private int[] documentLengths = new int[16];                    // ordinal --> weighted number of tokens (BM25 length normalization)
+    private long totalDocumentLength;                               // Sum of the lengths of the live documents
+    private volatile boolean ready;
+    private Map<Long, Product> pendingWrites;                       // product id --> last write (null: removal) before the index was ready, null when not buffering
+    private volatile Instant indexedUntil;                          // Every product change before it is in the index (null: unknown)
+
+    public ProductSearchIndex(ProductRepository productRepository, SearchParallelism parallelism, @Value("${search.index.enabled:true}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.parallelism = parallelism;
+        this.enabled = enabled;
+        this.pendingWrites = enabled ? new LinkedHashMap<>() : null;
+    }
+
+    // Build the index from the products table at startup. Till the index is ready, SearchService keeps searching in the database.
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled || ready)      // Already loaded from a snapshot file (and caught up) by IndexSnapshotStore
+            return;
+
+        try {
+            Instant start = Instant.now();
+            List<Product> products = productRepository.findAllForListing();
+            indexAll(products);
+            indexedUntil = start;
+            logger.info("Product search index built with {} products", products.size());
+        }
+        catch (RuntimeException exception) {
+            logger.warn("Product search index could not be built, search will use the database", exception);
+            discardPendingWrites();     // Index won't be ready, nothing to replay them on
+        }
+    }
+
+    // Copies the index under the read lock (searches go on, writes of products only wait for the in-memory copy), then writes the copy to a snapshot file without holding the lock.
+    // The catalog snapshot is already immutable, the structures changed in place by writes (live, lengths, posting lists, facet bitsets) are copied. Returns the catalog which was written.
+    public CatalogSnapshot writeSnapshot(Path path) throws IOException {
+        CatalogSnapshot written;
+        Instant writtenUntil;
+        BitSet writtenLive;
+        int[] writtenLengths;
+        long writtenTotalLength;
+        Map<String, PostingList> writtenPostings;
+        FacetIndex writtenFacets;
+
+        lock.readLock().lock();
+        try {
+            written = catalog;
+            writtenUntil = indexedUntil;
+            writtenLive = (BitSet) live.clone();
+            writtenLengths = Arrays.copyOf(documentLengths, written.size());
+            writtenTotalLength = totalDocumentLength;
+            writtenPostings = new HashMap<>(postings.size() * 4 / 3 + 1);
+            for (Map.Entry<String, PostingList> entry : postings.entrySet())
+                writtenPostings.put(entry.getKey(), entry.getValue().copy());
+            writtenFacets = facetIndex.copy();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+
+        IndexSnapshotFile.write(path, writtenUntil, written, writtenLive, writtenLengths, writtenTotalLength, writtenPostings, writtenFacets);
+        return written;
+    }
+
+    // Replaces the content of the index by the one of a snapshot file written less than maxAge ago, returns false (index unchanged) when the file is older.
+    // File is mapped and parsed before taking the lock, the catalog columns are then served from the mapped file. The index stays not ready (writes are still buffered) till markReady().
+    public boolean loadSnapshot(Path path, Duration maxAge) throws IOException {
+        IndexSnapshotFile.Contents contents = IndexSnapshotFile.read(path);
+        if (Instant.ofEpochMilli(contents.createdAt()).plus(maxAge).isBefore(Instant.now()))
+            return false;
+
+        lock.writeLock().lock();
+        try {
+            columns = contents.columns();
+            catalog = columns.snapshot();
+            live = contents.live();
+            postings = contents.postings();
+            facetIndex = contents.facetIndex();
+            documentLengths = contents.documentLengths();
+            totalDocumentLength = contents.totalDocumentLength();
+            indexedUntil = contents.indexedUntil();
+
+            ordinalsByProductId = new LongIntMap(live.cardinality());
+            for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1))
+                ordinalsByProductId.put(catalog.getId(ordinal), ordinal);
+            return true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Index loaded from a snapshot file (and caught up with the database) starts serving searches, the writes buffered meanwhile are applied first
+    public void markReady() {
+        lock.writeLock().lock();
+        try {
+            replayPendingWrites();
+            catalog = columns.snapshot();
+            ready = true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Drops the content loaded from a snapshot file which couldn't be caught up with the database, build() then reads the products table.
+    // Buffered writes are dropped too: they are committed before the build starts, hence read by it.
+    public void discardSnapshot() {
+        lock.writeLock().lock();
+        try {
+            postings = new HashMap<>();
+            columns = new CatalogColumns(16);
+            catalog = columns.snapshot();
+            ordinalsByProductId = new LongIntMap(16);
+            live = new BitSet();
+            facetIndex = new FacetIndex();
+            documentLengths = new int[16];
+            totalDocumentLength = 0;
+            indexedUntil = null;
+            pendingWrites = new LinkedHashMap<>();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void indexAll(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : products)
+                addDocument(product);
+            replayPendingWrites();
+            catalog = columns.snapshot();
+            ready = true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Called on create and update of a product
+    public void index(Product product) {
+        if (!enabled || product.getId() == null)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                bufferWrite(product.getId(), product);
+                return;
+            }
+
+            addDocument(product);
+            compactIfRequired();
+            catalog = columns.snapshot();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Called on bulk ingestion, all the products are added under one lock
+    public void indexBatch(Collection<Product> products) {
+        if (!enabled)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                for (Product product : products)
+                    if (product.getId() != null)
+                        bufferWrite(product.getId(), product);
+                return;
+            }
+
+            for (Product product : products)
+                if (product.getId() != null)
+                    addDocument(product);
+            compactIfRequired();
+            catalog = columns.snapshot();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Called on delete of a product
+    public void remove(Long productId) {
+        if (!enabled)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                bufferWrite(productId, null);
+                return;
+            }
+
+            removeDocument(productId);
+            compactIfRequired();
+            catalog = columns.snapshot();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Changes of the products table committed before this instant are in the index, later ones are applied by CatalogChangeRefresher as they are polled
+    // (rows stamped before it but committed later are picked up by its trailing window)
+    public Instant getIndexedUntil() {
+        return indexedUntil;
+    }
+
+    public void setIndexedUntil(Instant indexedUntil) {
+        this.indexedUntil = indexedUntil;
+    }
+
+    // Category name of the indexed version of the product, null if it isn't indexed (or has no category)
+    public String getCategoryName(long productId) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinalsByProductId.get(productId);
+            return ordinal == LongIntMap.NO_VALUE ? null : catalog.getCategoryName(ordinal);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Columns of the indexed products as of the last write (tombstones included)
+    public CatalogSnapshot getCatalog() {
+        return catalog;
+    }
+
+    // Returns the search documents containing every token of the query (AND operation), in index order. Blank query matches every document.
+    public List<Product> search(String query) {
+        lock.readLock().lock();
+        try {
+            int[] ordinals = searchOrdinals(Tokenizer.tokenize(query));
+
+            List<Product> results = new ArrayList<>(ordinals.length);
+            for (int ordinal : ordinals)
+                results.add(catalog.toSearchDocument(ordinal));
+            return results;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Search documents matching the query and all the filters of the plan, with the facet counts of the search. Every facet is counted over the documents passing all the filters except its own ones.
+    public FacetedProducts searchWithFacets(String query, SearchPlan plan) {
+        List<SearchPlan.PlanFilter> filters = plan.getFilters();
+
+        lock.readLock().lock();
+        try {
+            CatalogSnapshot catalog = this.catalog;
+            List<String> tokens = Tokenizer.tokenize(query);
+            BitSet candidates = candidateOrdinals(tokens);
+
+            // Ordinals passing each filter: value filters straight from the facet bitsets, the other (range) filters tested on the candidates over the catalog columns
+            BitSet[] passedFilters = new BitSet[filters.size()];
+            List<Integer> testedFilters = new ArrayList<>();
+            for (int i = 0; i < filters.size(); i++) {
+                SearchPlan.PlanFilter filter = filters.get(i);
+                if (filter.valueFacet() != null)
+                    passedFilters[i] = facetIndex.ordinalsMatching(filter.valueFacet(), filter.values());
+                else
+                    testedFilters.add(i);
+            }
+            if (!testedFilters.isEmpty())
+                testFilters(catalog, candidates, filters, testedFilters, passedFilters);
+
+            BitSet results = (BitSet) candidates.clone();
+            for (BitSet passed : passedFilters)
+                results.and(passed);
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            for (Facet facet : Facet.values()) {
+                BitSet facetOrdinals = (BitSet) candidates.clone();
+                for (int i = 0; i < filters.size(); i++)
+                    if (!facet.isNarrowedBy(filters.get(i).key()))
+                        facetOrdinals.and(passedFilters[i]);
+                facets.put(facet.getKey(), facetIndex.count(facet, facetOrdinals));
+            }
+
+            int[] ordinals = toOrdinals(results);
+            float[] relevance = plan.needsRelevance() ? scoreBm25(tokens, ordinals) : null;
+
+            return new FacetedProducts(catalog, ordinals, facets, relevance);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Candidates passing each of the tested filters, into passedFilters. Caller must hold the (read) lock.
+    // Large candidate sets are split in chunks tested on the search pool. Chunks are aligned on 64 ordinals, hence every task writes its own words of the result bitsets
+    // and no synchronization is needed; join() publishes the words to this thread. Small ones are tested on this thread as a single chunk.
+    private void testFilters(CatalogSnapshot catalog, BitSet candidates, List<SearchPlan.PlanFilter> filters, List<Integer> testedFilters, BitSet[] passedFilters) {
+        ColumnPredicate[] predicates = new ColumnPredicate[testedFilters.size()];
+        for (int t = 0; t < predicates.length; t++)
+            predicates[t] = filters.get(testedFilters.get(t)).columnPredicate();
+
+        int end = candidates.length();
+        long[][] words = new long[predicates.length][(end + 63) >>> 6];
+        if (parallelism.isParallel(candidates.cardinality())) {
+            int chunkSize = (parallelism.chunkSize(end, MIN_FILTER_CHUNK_SIZE) + 63) & ~63;
+            parallelism.invoke(new FilterTask(catalog, candidates, predicates, words, 0, end, chunkSize));
+        }
+        else
+            FilterTask.test(catalog, candidates, predicates, words, 0, end);
+
+        for (int t = 0; t < predicates.length; t++)
+            passedFilters[testedFilters.get(t)] = BitSet.valueOf(words[t]);
+    }
+
+    private static class FilterTask extends RecursiveAction {
+        private final CatalogSnapshot catalog;
+        private final BitSet candidates;
+        private final ColumnPredicate[] predicates;
+        private final long[][] words;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        FilterTask(CatalogSnapshot catalog, BitSet candidates, ColumnPredicate[] predicates, long[][] words, int from, int to, int chunkSize) {
+            this.catalog = catalog;
+            this.candidates = candidates;
+            this.predicates = predicates;
+            this.words = words;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                test(catalog, candidates, predicates, words, from, to);
+                return;
+            }
+
+            int chunks = (to - from + chunkSize - 1) / chunkSize;     // At least 2
+            int middle = from + (chunks / 2) * chunkSize;               // Split on a chunk boundary, hence on a word boundary
+            invokeAll(new FilterTask(catalog, candidates, predicates, words, from, middle, chunkSize),
+                      new FilterTask(catalog, candidates, predicates, words, middle, to, chunkSize));
+        }
+
+        // One filter at a time over the candidates of [from, to): a tight loop over one column with a single predicate at the call site
+        static void test(CatalogSnapshot catalog, BitSet candidates, ColumnPredicate[] predicates, long[][] words, int from, int to) {
+            for (int t = 0; t < predicates.length; t++) {
+                ColumnPredicate predicate = predicates[t];
+                long[] passed = words[t];
+                for (int ordinal = candidates.nextSetBit(from); ordinal >= 0 && ordinal < to; ordinal = candidates.nextSetBit(ordinal + 1))
+                    if (predicate.test(catalog, ordinal))
+                        passed[ordinal >>> 6] |= 1L << ordinal;
+            }
+        }
+    }
+
+    // BM25 score of every result (in ordinal order, same as the results of the search) for the query tokens. Caller must hold the lock.
+    // Each posting list is walked together with the (also ascending) result ordinals, so there is no ordinal --> position lookup.
+    private float[] scoreBm25(List<String> tokens, int[] resultOrdinals) {
+        float[] scores = new float[resultOrdinals.length];
+        int liveDocuments = live.cardinality();
+        if (liveDocuments == 0)
+            return scores;
+
+        float averageLength = Math.max(1f, (float) totalDocumentLength / liveDocuments);
+        for (String token : new LinkedHashSet<>(tokens)) {
+            PostingList postingList = postings.get(token);
+            if (postingList == null)
+                continue;
+
+            // Document frequency includes tombstones till the next compaction, close enough for ranking
+            int documentFrequency = Math.min(postingList.size(), liveDocuments);
+            float idf = (float) Math.log(1 + (liveDocuments - documentFrequency + 0.5) / (documentFrequency + 0.5));
+
+            int r = 0;
+            for (int p = 0; p < postingList.size() && r < resultOrdinals.length; ) {
+                int ordinal = postingList.get(p);
+                if (ordinal == resultOrdinals[r]) {
+                    float frequency = postingList.getFrequency(p);
+                    float lengthNorm = 1 - BM25_B + BM25_B * documentLengths[ordinal] / averageLength;
+                    scores[r] += idf * frequency * (BM25_K1 + 1) / (frequency + BM25_K1 * lengthNorm);
+                    p++;
+                    r++;
+                }
+                else if (ordinal < resultOrdinals[r])
+                    p++;
+                else
+                    r++;
+            }
+        }
+        return scores;
+    }
+
+    private static int[] toOrdinals(BitSet bitSet) {
+        int[] ordinals = new int[bitSet.cardinality()];
+        int count = 0;
+        for (int ordinal = bitSet.nextSetBit(0); ordinal >= 0; ordinal = bitSet.nextSetBit(ordinal + 1))
+            ordinals[count++] = ordinal;
+        return ordinals;
+    }
+
+    // Live documents matching all the tokens as a bitset. Caller must hold the lock.
+    private BitSet candidateOrdinals(List<String> tokens) {
+        if (tokens.isEmpty())
+            return (BitSet) live.clone();
+
+        BitSet candidates = new BitSet(columns.size());
+        for (int ordinal : searchOrdinals(tokens))
+            candidates.set(ordinal);
+        return candidates;
+    }
+
+    // Ordinals (ascending) of the live documents matching all the tokens. Caller must hold the lock.
+    private int[] searchOrdinals(List<String> tokens) {
+        if (tokens.isEmpty())
+            return toOrdinals(live);
+
+        // Intersect the shortest posting lists first, so that the candidate set shrinks as fast as possible
+        List<PostingList> lists = new ArrayList<>(tokens.size());
+        for (String token : new LinkedHashSet<>(tokens)) {
+            PostingList postingList = postings.get(token);
+            if (postingList == null)
+                return new int[0];
+            lists.add(postingList);
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+
+        PostingList shortest = lists.get(0);
+        int[] candidates = new int[shortest.size()];
+        int count = 0;
+        for (int i = 0; i < shortest.size(); i++) {
+            if (live.get(shortest.get(i)))
+                candidates[count++] = shortest.get(i);
+        }
+
+        for (int l = 1; l < lists.size() && count > 0; l++)
+            count = intersect(candidates, count, lists.get(l));
+
+        return Arrays.copyOf(candidates, count);
+    }
+
+    // Keeps in 'candidates' only the ordinals also present in 'postingList'. Both are sorted, so a single merge pass is enough.
+    private static int intersect(int[] candidates, int count, PostingList postingList) {
+        int kept = 0;
+        int p = 0;
+        for (int c = 0; c < count && p < postingList.size(); ) {
+            int candidate = candidates[c];
+            int posting = postingList.get(p);
+
+            if (candidate == posting) {
+                candidates[kept++] = candidate;
+                c++;
+                p++;
+            }
+            else if (candidate < posting)
+                c++;
+            else
+                p++;
+        }
+        return kept;
+    }
+
+    // Caller must hold the write lock
+    private void bufferWrite(Long productId, Product product) {
+        if (pendingWrites == null)
+            return;     // Build failed, index won't be ready
+        pendingWrites.remove(productId);        // Keep the writes in the order of their last write
+        pendingWrites.put(productId, product);
+    }
+
+    // Applies the writes received while the index wasn't ready, newer than what was read to build it. Caller must hold the write lock and publishes the new snapshot.
+    private void replayPendingWrites() {
+        if (pendingWrites != null)
+            for (Map.Entry<Long, Product> write : pendingWrites.entrySet()) {
+                if (write.getValue() == null)
+                    removeDocument(write.getKey());
+                else
+                    addDocument(write.getValue());
+            }
+        pendingWrites = null;
+        compactIfRequired();
+    }
+
+    private void discardPendingWrites() {
+        lock.writeLock().lock();
+        try {
+            pendingWrites = null;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeDocument(Long productId) {
+        int ordinal = ordinalsByProductId.remove(productId);
+        if (ordinal != LongIntMap.NO_VALUE) {
+            live.clear(ordinal);
+            totalDocumentLength -= documentLengths[ordinal];
+        }
+    }
+
+    private void addDocument(Product product) {
+        int previousOrdinal = ordinalsByProductId.get(product.getId());
+        if (previousOrdinal != LongIntMap.NO_VALUE) {
+            live.clear(previousOrdinal);    // Tombstone the previous version of the product
+            totalDocumentLength -= documentLengths[previousOrdinal];
+        }
+
+        int ordinal = columns.append(product);
+        if (ordinal == documentLengths.length)
+            documentLengths = Arrays.copyOf(documentLengths, ordinal * 2);
+
+        ordinalsByProductId.put(product.getId(), ordinal);
+        live.set(ordinal);
+        facetIndex.add(ordinal, product);
+
+        int length = 0;
+        for (String token : Tokenizer.tokenize(product.getTitle())) {
+            postings.computeIfAbsent(token, key -> new PostingList()).add(ordinal, TITLE_WEIGHT);
+            length += TITLE_WEIGHT;
+        }
+        for (String token : Tokenizer.tokenize(product.getDescription())) {
+            postings.computeIfAbsent(token, key -> new PostingList()).add(ordinal);
+            length++;
+        }
+        documentLengths[ordinal] = length;
+        totalDocumentLength += length;
+    }
+
+    // Rebuild the index from the live documents once tombstones outnumber them. Caller publishes the new snapshot.
+    // Live rows are renumbered in the same order, so the posting lists are remapped (and stay sorted) instead of tokenizing every product again.
+    private void compactIfRequired() {
+        int size = columns.size();
+        int liveDocuments = live.cardinality();
+        if (size - liveDocuments <= liveDocuments)
+            return;
+
+        CatalogSnapshot current = columns.snapshot();
+        CatalogColumns compactedColumns = new CatalogColumns(liveDocuments);
+        FacetIndex compactedFacets = new FacetIndex();
+        int[] compactedLengths = new int[Math.max(16, liveDocuments)];
+        int[] newOrdinals = new int[size];
+        Arrays.fill(newOrdinals, -1);
+        ordinalsByProductId = new LongIntMap(liveDocuments);
+
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            Product document = current.toSearchDocument(ordinal);
+            int newOrdinal = compactedColumns.append(document);
+            compactedFacets.add(newOrdinal, document);
+            compactedLengths[newOrdinal] = documentLengths[ordinal];
+            ordinalsByProductId.put(document.getId(), newOrdinal);
+            newOrdinals[ordinal] = newOrdinal;
+        }
+
+        Map<String, PostingList> compactedPostings = new HashMap<>();
+        for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+            PostingList postingList = entry.getValue();
+            PostingList compacted = new PostingList();
+            for (int i = 0; i < postingList.size(); i++) {
+                int newOrdinal = newOrdinals[postingList.get(i)];
+                if (newOrdinal >= 0)
+                    compacted.add(newOrdinal, postingList.getFrequency(i));
+            }
+            if (compacted.size() > 0)
+                compactedPostings.put(entry.getKey(), compacted);
+        }
+
+        columns = compactedColumns;
+        postings = compactedPostings;
+        facetIndex = compactedFacets;
+        documentLengths = compactedLengths;
+        live = new BitSet(liveDocuments);
+        live.set(0, liveDocuments);
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.productService.services.indexingService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Splits a text into lowercase alphanumeric tokens. Same tokenizer is used while indexing and while searching, so that "iPhone-16" matches "iphone 16".
+public class Tokenizer {
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null)
+            return tokens;
+
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isTokenCharacter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+
+            if (isTokenCharacter && start < 0)
+                start = i;
+            else if (!isTokenCharacter && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+
+        return tokens;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ Connection pool of the upstream (FakeStore API) HTTP client which records how long the requests wait to lease a connection.
+ A request needs a free pooled connection before it can be sent: when all the connections of the route are busy it waits (up to the pool acquire timeout). A growing lease wait means the per-route/total limits are too low for the load
+ (or the upstream got slow and holds the connections longer), which is otherwise invisible as it simply shows up as slower upstream calls.
+ The pool itself (STRICT concurrency policy) is guarded by a ReentrantLock, hence waiting for a connection doesn't pin a virtual thread.
+*/
+
+package org.example.productService.services.monitoringService;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.util.Timeout;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder leaseTimeouts = new LongAdder();
+    private final LongAdder totalLeaseWaitNanos = new LongAdder();
+    private final LongAccumulator maxLeaseWaitNanos = new LongAccumulator(Math::max, 0);
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        LeaseRequest leaseRequest = super.lease(id, route, requestTimeout, state);
+
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout) throws InterruptedException, ExecutionException, TimeoutException {
+                long start = System.nanoTime();
+                try {
+                    ConnectionEndpoint endpoint = leaseRequest.get(timeout);
+                    leases.increment();
+                    return endpoint;
+                }
+                catch (TimeoutException exception) {
+                    leaseTimeouts.increment();
+                    throw exception;
+                }
+                finally {
+                    long waited = System.nanoTime() - start;
+                    totalLeaseWaitNanos.add(waited);
+                    maxLeaseWaitNanos.accumulate(waited);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return leaseRequest.cancel();
+            }
+        };
+    }
+
+    public long getLeases() {
+        return leases.sum();
+    }
+
+    public long getLeaseTimeouts() {
+        return leaseTimeouts.sum();
+    }
+
+    public double getAverageLeaseWaitMillis() {
+        long attempts = leases.sum() + leaseTimeouts.sum();
+        return attempts == 0 ? 0 : totalLeaseWaitNanos.sum() / 1e6 / attempts;
+    }
+
+    public double getMaxLeaseWaitMillis() {
+        return maxLeaseWaitNanos.get() / 1e6;
+    }
+}
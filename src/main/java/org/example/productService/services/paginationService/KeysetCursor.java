@@ -0,0 +1,159 @@
+/*
+ Keyset (Seek) Pagination - Instead of LIMIT {pageSize} OFFSET {pageNumber * pageSize}, the next page is asked as "rows after the last row I have seen":
+    SELECT * FROM products WHERE (price, id) > (:lastPrice, :lastId) ORDER BY price, id LIMIT {pageSize}
+ With OFFSET the database still has to read and throw away all the skipped rows, hence page 10,000 is much slower than page 1. With a seek the index jumps straight to the last seen row, so every page costs the same. There is also no COUNT query.
+ Spring Data JPA supports it with ScrollPosition.keyset() and Window<T> (scroll API).
+
+ Cursor/Continuation token - The sort key values of the last row of a page (e.g. price and id), encoded as an opaque Base64 string which the client sends back to get the next page.
+ A cursor comes from the client: one which can't be decoded, or whose keys aren't the ones of the requested sort (cursor of another sort, tampered with), is a bad request.
+*/
+
+package org.example.productService.services.paginationService;
+
+import org.example.productService.dtos.search.SortingCriteria;
+import org.example.productService.exception.BadRequestException;
+import org.example.productService.models.Product;
+import org.example.productService.repositories.specifications.ProductSpecifications;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+public class KeysetCursor {
+    private static final String VERSION = "1";
+
+    // Seek needs a total order, hence id is always the last sort key. Only price sorts are backed by a column, everything else scrolls in id order.
+    public static Sort seekSort(SortingCriteria sortingCriteria) {
+        return switch (sortingCriteria) {
+            case PRICE_LOW_TO_HIGH -> Sort.by(Sort.Order.asc("price"), Sort.Order.asc("id"));
+            case PRICE_HIGH_TO_LOW -> Sort.by(Sort.Order.desc("price"), Sort.Order.asc("id"));
+            case null, default -> Sort.by(Sort.Order.asc("id"));
+        };
+    }
+
+    // Rows a seek in that order can scroll through. price is nullable: a page ending on a NULL price has no key to seek from ((price, id) > (NULL, :lastId) is never true)
+    // and MySQL sorts NULLs first, hence price sorts scroll through the priced products only.
+    public static Specification<Product> seekSpecification(SortingCriteria sortingCriteria) {
+        return switch (sortingCriteria) {
+            case PRICE_LOW_TO_HIGH, PRICE_HIGH_TO_LOW -> ProductSpecifications.hasPrice();
+            case null, default -> Specification.where(null);
+        };
+    }
+
+    // Same seek over products already in memory, for sources without a seek query (the FakeStore API only returns its whole catalog). Positions carry the same keys as the
+    // database windows (price and id, or id), so a cursor reads the same whatever the product service.
+    public static Window<Product> seek(Collection<Product> products, SortingCriteria sortingCriteria, ScrollPosition position, int limit) {
+        boolean byPrice = isPriceSort(sortingCriteria);
+        Comparator<Product> order = switch (sortingCriteria) {
+            case PRICE_LOW_TO_HIGH -> Comparator.comparing(Product::getPrice).thenComparing(Product::getId);
+            case PRICE_HIGH_TO_LOW -> Comparator.comparing(Product::getPrice, Comparator.reverseOrder()).thenComparing(Product::getId);
+            case null, default -> Comparator.comparing(Product::getId);
+        };
+        Product last = position instanceof KeysetScrollPosition keysetPosition && !keysetPosition.isInitial() ? lastSeen(keysetPosition.getKeys(), byPrice) : null;
+
+        List<Product> page = products.stream()
+                .filter(product -> product.getId() != null && (!byPrice || product.getPrice() != null))
+                .filter(product -> last == null || order.compare(product, last) > 0)
+                .sorted(order)
+                .limit(limit + 1L)      // One more row tells if there is a next page
+                .toList();
+        List<Product> content = page.subList(0, Math.min(limit, page.size()));
+
+        return Window.from(content, index -> ScrollPosition.forward(keysOf(content.get(index), byPrice)), page.size() > limit);
+    }
+
+    private static Product lastSeen(Map<String, Object> keys, boolean byPrice) {
+        checkKeys(keys, byPrice);
+
+        Product last = new Product();
+        last.setId((Long) keys.get("id"));
+        last.setPrice((Double) keys.get("price"));
+        return last;
+    }
+
+    private static boolean isPriceSort(SortingCriteria sortingCriteria) {
+        return sortingCriteria == SortingCriteria.PRICE_LOW_TO_HIGH || sortingCriteria == SortingCriteria.PRICE_HIGH_TO_LOW;
+    }
+
+    // Keys of the seek order and nothing else: price (Double) and id (Long) for price sorts, id only for the others
+    private static void checkKeys(Map<String, Object> keys, boolean byPrice) {
+        boolean matches = keys.get("id") instanceof Long
+                && (byPrice ? keys.get("price") instanceof Double && keys.size() == 2 : keys.size() == 1);
+        if (!matches)
+            throw new BadRequestException("Cursor was not issued for this sorting criteria");
+    }
+
+    private static Map<String, Object> keysOf(Product product, boolean byPrice) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        if (byPrice)
+            keys.put("price", product.getPrice());
+        keys.put("id", product.getId());
+        return keys;
+    }
+
+    // Last row of the page --> cursor
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keysetPosition))
+            throw new IllegalArgumentException("Only keyset positions can be encoded as a cursor");
+
+        StringBuilder cursor = new StringBuilder(VERSION);
+        for (Map.Entry<String, Object> key : keysetPosition.getKeys().entrySet()) {
+            cursor.append(';').append(key.getKey()).append('=').append(encodeValue(key.getValue()));
+        }
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Cursor --> position to continue from in the seek order of the sorting criteria. No cursor means first page.
+    public static ScrollPosition decode(String cursor, SortingCriteria sortingCriteria) {
+        ScrollPosition position = decode(cursor);
+        if (position instanceof KeysetScrollPosition keysetPosition && !keysetPosition.isInitial())
+            checkKeys(keysetPosition.getKeys(), isPriceSort(sortingCriteria));
+        return position;
+    }
+
+    // Cursor --> position to continue from, whatever its keys. No cursor means first page.
+    public static ScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return ScrollPosition.keyset();
+
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(";");
+            if (!VERSION.equals(parts[0]))
+                throw new BadRequestException("Unsupported cursor version");
+
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (int i = 1; i < parts.length; i++) {
+                int separator = parts[i].indexOf('=');
+                keys.put(parts[i].substring(0, separator), decodeValue(parts[i].substring(separator + 1)));
+            }
+
+            return ScrollPosition.forward(keys);
+        }
+        catch (RuntimeException exception) {
+            throw new BadRequestException("Invalid cursor: " + cursor, exception);
+        }
+    }
+
+    // Sort keys of a product are either a Long (id) or a Double (price), the type is kept to bind the right parameter type in the seek query
+    private static String encodeValue(Object value) {
+        if (value instanceof Long longValue)
+            return "L" + longValue;
+        if (value instanceof Double doubleValue)
+            return "D" + doubleValue;
+
+        throw new IllegalArgumentException("Unsupported cursor key type: " + value);
+    }
+
+    private static Object decodeValue(String value) {
+        return switch (value.charAt(0)) {
+            case 'L' -> Long.parseLong(value.substring(1));
+            case 'D' -> Double.parseDouble(value.substring(1));
+            default -> throw new BadRequestException("Unsupported cursor key type: " + value);
+        };
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ Parallel search - Filtering and sorting of large in-memory candidate sets (search index) split in chunks and run on the cores of the node with fork-join.
+ Fork-join - A task splits its range in two, forks one half (queued for another worker, which can steal it) and computes the other one itself, down to chunks small enough to run sequentially, then the results are combined (joined).
+ Dedicated pool - Search tasks don't run on ForkJoinPool.commonPool(), which is shared with parallel streams and CompletableFuture callbacks of the whole JVM, so a burst of broad searches can neither starve nor be starved by them.
+ Threshold - Splitting, scheduling and merging cost more than they save on small candidate sets, hence below the threshold everything runs sequentially on the request thread (see ParallelSearchBenchmark for the scaling).
+ With a parallelism of 1 no pool is created and every search is sequential.
+*/
+
+package org.example.productService.services.parallelService;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+@Component
+public class SearchParallelism {
+    private static final SearchParallelism SEQUENTIAL = new SearchParallelism(1, Integer.MAX_VALUE);
+
+    private final int parallelism;
+    private final int threshold;
+    private final ForkJoinPool pool;     // null: sequential
+
+    public SearchParallelism(@Value("${search.parallel.parallelism:0}") int parallelism, @Value("${search.parallel.threshold:50000}") int threshold) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();    // 0: one worker per core
+        this.threshold = threshold;
+        this.pool = this.parallelism > 1 ? new ForkJoinPool(this.parallelism, SearchParallelism::newWorker, null, false) : null;
+    }
+
+    // Everything on the calling thread (tests, tools)
+    public static SearchParallelism sequential() {
+        return SEQUENTIAL;
+    }
+
+    // Candidate sets of this size are worth splitting
+    public boolean isParallel(int candidates) {
+        return pool != null && candidates >= threshold;
+    }
+
+    // Runs the task on the search pool and waits for its result
+    public <T> T invoke(ForkJoinTask<T> task) {
+        return pool.invoke(task);
+    }
+
+    // Candidates per leaf task: a few chunks per worker so that idle workers can steal the remaining ones, but never tiny chunks
+    public int chunkSize(int candidates, int minimumChunkSize) {
+        return Math.max(minimumChunkSize, candidates / (parallelism * 4));
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null)
+            pool.shutdown();
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("search-fork-join-" + worker.getPoolIndex());
+        return worker;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ Search plan - The filters and the sorting of a search request compiled once into ready-to-run objects:
+    - one Predicate per filter, values already parsed (prices) and fused into a single matches() check,
+    - the Comparator of the sorting criteria (and the Sort/Specification for the database path),
+    - the same filters and sorting over the columns of the search index (ColumnPredicate, OrdinalComparator), used on the index path.
+ execute() then filters and sorts the candidates in one pass into one result list, instead of a new intermediate List per filter (Filter.applyFilter) and another one for the sorting.
+ Relevance and popularity have no Comparator: their scores depend on the query and on live counters, hence the RankingEngine orders those searches (see isRanked()).
+ Shape - The part of a plan which only depends on the filter keys and the sorting criteria (the Filter of every key, its facet, the Sorter). Shapes are immutable and shared by every
+ request of the same shape (see SearchPlanCache), and bind() compiles the filter values of one request into its plan. Values are never part of the shape, so that distinct values
+ (e.g. every price a user types) don't create and evict one cached plan each.
+*/
+
+package org.example.productService.services.planningService;
+
+import org.example.productService.dtos.search.FilterDto;
+import org.example.productService.dtos.search.SortingCriteria;
+import org.example.productService.exception.BadRequestException;
+import org.example.productService.models.Product;
+import org.example.productService.services.facetingService.Facet;
+import org.example.productService.services.filteringService.ColumnPredicate;
+import org.example.productService.services.filteringService.Filter;
+import org.example.productService.services.filteringService.FilterFactory;
+import org.example.productService.services.indexingService.CatalogSnapshot;
+import org.example.productService.services.parallelService.SearchParallelism;
+import org.example.productService.services.sortingService.OrdinalTopK;
+import org.example.productService.services.sortingService.Sorter;
+import org.example.productService.services.sortingService.SorterFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+public final class SearchPlan {
+    // Compiled filter: valueFacet is set for the filters selecting values of a facet (brand, os, ram, category), which the search index resolves from its facet bitsets,
+    // predicate tests a Product and columnPredicate a row of the catalog columns (straight from the columns for price ranges, else on a Product materialized from the row)
+    public record PlanFilter(String key, List<String> values, Facet valueFacet, Predicate<Product> predicate, ColumnPredicate columnPredicate) {
+    }
+
+    private final List<PlanFilter> filters;
+    private final Predicate<Product>[] predicates;
+    private final SortingCriteria sortingCriteria;
+    private final Sorter sorter;                     // null: keep the order of the candidates
+    private final Comparator<Product> comparator;
+    private final Sort sort;
+    private final Specification<Product> filterSpecification;
+
+    @SuppressWarnings("unchecked")
+    private SearchPlan(List<PlanFilter> filters, SortingCriteria sortingCriteria, Sorter sorter, Specification<Product> filterSpecification) {
+        this.filters = List.copyOf(filters);
+        this.sortingCriteria = sortingCriteria;
+        this.sorter = sorter;
+        this.predicates = filters.stream().map(PlanFilter::predicate).toArray(Predicate[]::new);
+        this.comparator = sorter == null ? null : sorter.getComparator();
+        this.sort = sorter == null ? Sort.unsorted() : sorter.getSort();
+        this.filterSpecification = filterSpecification;
+    }
+
+    // Compiled filter keys and sorting criteria of a request, without the values of its filters
+    public static final class Shape {
+        private final List<String> filterKeys;
+        private final List<Filter> filters;
+        private final List<Facet> valueFacets;
+        private final SortingCriteria sortingCriteria;
+        private final Sorter sorter;
+
+        private Shape(List<String> filterKeys, SortingCriteria sortingCriteria) {
+            this.filterKeys = List.copyOf(filterKeys);
+            this.filters = new ArrayList<>(filterKeys.size());
+            this.valueFacets = new ArrayList<>(filterKeys.size());
+            for (String key : filterKeys) {
+                filters.add(FilterFactory.getFilterFromKey(key));
+                valueFacets.add(Facet.ofValueFilter(key));      // null for the filters which aren't on a facet's values
+            }
+            this.sortingCriteria = sortingCriteria;
+            this.sorter = sortingCriteria == null ? null : SorterFactory.getSorterByCriteria(sortingCriteria);
+        }
+
+        public static Shape of(List<String> filterKeys, SortingCriteria sortingCriteria) {
+            return new Shape(filterKeys, sortingCriteria);
+        }
+
+        // Plan of one request of this shape, filterValues are the values of the filters in the order of the keys
+        public SearchPlan bind(List<List<String>> filterValues) {
+            if (filterValues.size() != filterKeys.size())
+                throw new IllegalArgumentException("Expected values for " + filterKeys.size() + " filters, got " + filterValues.size());
+
+            List<PlanFilter> planFilters = new ArrayList<>(filterKeys.size());
+            Specification<Product> filterSpecification = Specification.where(null);
+            for (int i = 0; i < filterKeys.size(); i++) {
+                Filter filter = filters.get(i);
+                List<String> values = filterValues.get(i) == null ? List.of() : List.copyOf(filterValues.get(i));
+
+                planFilters.add(new PlanFilter(filterKeys.get(i), values, valueFacets.get(i), filter.toPredicate(values), toColumnPredicate(filter, values)));
+                filterSpecification = filterSpecification.and(filter.toSpecification(values));   // AND operation between the filters
+            }
+
+            return new SearchPlan(planFilters, sortingCriteria, sorter, filterSpecification);
+        }
+    }
+
+    public static SearchPlan compile(List<FilterDto> filters, SortingCriteria sortingCriteria) {
+        checkFilters(filters);
+        List<String> filterKeys = new ArrayList<>();
+        List<List<String>> filterValues = new ArrayList<>();
+        if (filters != null) {
+            for (FilterDto filter : filters) {
+                filterKeys.add(filter.getKey());
+                filterValues.add(filter.getValues());
+            }
+        }
+
+        return Shape.of(filterKeys, sortingCriteria).bind(filterValues);
+    }
+
+    // Filters come from the client: a missing filter or a null/unknown key is a bad request (FilterFactory), checked before the keys are sorted or used in a cache key
+    static void checkFilters(List<FilterDto> filters) {
+        if (filters == null)
+            return;
+
+        for (FilterDto filter : filters) {
+            if (filter == null)
+                throw new BadRequestException("Filter is missing");
+            FilterFactory.getFilterFromKey(filter.getKey());
+        }
+    }
+
+    private static ColumnPredicate toColumnPredicate(Filter filter, List<String> values) {
+        ColumnPredicate columnPredicate = filter.toColumnPredicate(values);
+        if (columnPredicate != null)
+            return columnPredicate;
+
+        Predicate<Product> predicate = filter.toPredicate(values);
+        return (catalog, ordinal) -> predicate.test(catalog.toSearchDocument(ordinal));
+    }
+
+    // All the filters at once, stops at the first one failing
+    public boolean matches(Product product) {
+        for (Predicate<Product> predicate : predicates)
+            if (!predicate.test(product))
+                return false;
+        return true;
+    }
+
+    // Candidates passing all the filters, sorted: one pass and one result list
+    public List<Product> execute(List<Product> candidates) {
+        List<Product> results = new ArrayList<>();
+        for (Product candidate : candidates)
+            if (matches(candidate))
+                results.add(candidate);
+
+        sort(results);
+        return results;
+    }
+
+    // Sorts the (mutable) list in place
+    public void sort(List<Product> products) {
+        if (comparator != null)
+            products.sort(comparator);
+    }
+
+    // First 'limit' search results (ordinals into the catalog snapshot) in sorted order, bounded partial sort over the columns, the array isn't modified.
+    // Without sorting criteria, the first ones in candidate order. Large candidate sets are sorted in parallel chunks on the search pool.
+    public int[] sortFirst(CatalogSnapshot catalog, int[] ordinals, int limit, SearchParallelism parallelism) {
+        if (sorter == null)
+            return Arrays.copyOf(ordinals, Math.min(limit, ordinals.length));
+        return OrdinalTopK.select(ordinals, limit, sorter.getColumnComparator(catalog), parallelism);
+    }
+
+    // Ordered by scores (RankingEngine) instead of a Comparator
+    public boolean isRanked() {
+        return sortingCriteria == SortingCriteria.RELEVANCE || sortingCriteria == SortingCriteria.POPULARITY;
+    }
+
+    // Search index has to compute the BM25 score of the results
+    public boolean needsRelevance() {
+        return sortingCriteria == SortingCriteria.RELEVANCE;
+    }
+
+    public SortingCriteria getSortingCriteria() {
+        return sortingCriteria;
+    }
+
+    public List<PlanFilter> getFilters() {
+        return filters;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    // WHERE {one predicate per filter} for the database path
+    public Specification<Product> getFilterSpecification() {
+        return filterSpecification;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ Cache of compiled search plan shapes by the shape of the request (filter keys and sorting criteria), so that the popular searches (same facets clicked by many users) reuse one compiled
+ shape instead of compiling it on every request. The values of the filters are bound to the shape per request (SearchPlan.Shape.bind): they aren't part of the key, hence requests
+ differing only in their values (every price typed in a price range, every brand picked) share one entry instead of filling and churning the cache with single-use plans.
+ Filters are sorted by key before being used as the key: AND between the filters doesn't depend on their order, so {brand, ram} and {ram, brand} share a shape.
+ Shapes only depend on the request, never on the catalog, hence they never go stale. The cache is only bounded (LRU) to keep the number of distinct shapes in memory limited.
+*/
+
+package org.example.productService.services.planningService;
+
+import org.example.productService.dtos.search.FilterDto;
+import org.example.productService.dtos.search.SortingCriteria;
+import org.example.productService.services.cachingService.BoundedLocalCache;
+import org.example.productService.services.cachingService.CacheCounters;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+@Component
+public class SearchPlanCache {
+    private record ShapeKey(List<String> filterKeys, SortingCriteria sortingCriteria) {
+    }
+
+    private final BoundedLocalCache<ShapeKey, SearchPlan.Shape> shapes;
+
+    public SearchPlanCache(@Value("${search.plan-cache.max-entries:1000}") int maxEntries) {
+        // Weight of 1 per shape, i.e. only the number of shapes is bounded. TTL is only there because the cache needs one, shapes never go stale.
+        this.shapes = new BoundedLocalCache<>(maxEntries, maxEntries, Duration.ofDays(1), shape -> 1);
+    }
+
+    public SearchPlan getPlan(List<FilterDto> filters, SortingCriteria sortingCriteria) {
+        SearchPlan.checkFilters(filters);      // 400 for a null or unknown key instead of failing while sorting the filters
+
+        // Filters sorted by key, their values in the same order
+        List<FilterDto> sortedFilters = filters == null ? List.of() : new ArrayList<>(filters);
+        if (!sortedFilters.isEmpty())
+            sortedFilters.sort(Comparator.comparing(FilterDto::getKey));
+
+        List<String> filterKeys = new ArrayList<>(sortedFilters.size());
+        List<List<String>> filterValues = new ArrayList<>(sortedFilters.size());
+        for (FilterDto filter : sortedFilters) {
+            filterKeys.add(filter.getKey());
+            filterValues.add(filter.getValues());
+        }
+
+        ShapeKey key = new ShapeKey(List.copyOf(filterKeys), sortingCriteria);
+        SearchPlan.Shape shape = shapes.get(key);
+        if (shape == null) {
+            shape = SearchPlan.Shape.of(filterKeys, sortingCriteria);
+            shapes.put(key, shape);
+        }
+        return shape.bind(filterValues);
+    }
+
+    public CacheCounters getCounters() {
+        return shapes.getCounters();
+    }
+}
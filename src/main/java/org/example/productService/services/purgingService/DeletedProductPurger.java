@@ -0,0 +1,66 @@
+/*
+ Physically removes the soft deleted products (see Product) once they are older than the retention, so that tombstones don't pile up in the table and its indexes.
+ Small batches - Every batch deletes at most batch-size rows in its own short transaction (ProductBulkRepository.purgeDeleted) and the next one starts after a pause,
+ so the purge never holds many row locks or a long transaction, and the writes of the requests get in between the batches.
+ Retention - Deleted rows have to stay till every instance has polled them (CatalogChangeRefresher), a purged row leaves nothing to poll.
+*/
+
+package org.example.productService.services.purgingService;
+
+import org.example.productService.repositories.ProductBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+@Component
+@ConditionalOnProperty(name = "catalog.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class DeletedProductPurger {
+    private static final Logger logger = LoggerFactory.getLogger(DeletedProductPurger.class);
+
+    private final ProductBulkRepository productBulkRepository;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration batchPause;
+
+    public DeletedProductPurger(ProductBulkRepository productBulkRepository,
+                                @Value("${catalog.purge.retention:PT24H}") Duration retention,
+                                @Value("${catalog.purge.batch-size:200}") int batchSize,
+                                @Value("${catalog.purge.batch-pause:PT0.1S}") Duration batchPause) {
+        this.productBulkRepository = productBulkRepository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+    }
+
+    @Scheduled(initialDelayString = "${catalog.purge.interval:PT1H}", fixedDelayString = "${catalog.purge.interval:PT1H}")
+    public void purge() {
+        Timestamp deletedBefore = Timestamp.from(Instant.now().minus(retention));
+        int purged = 0;
+        try {
+            int batch;
+            do {
+                batch = productBulkRepository.purgeDeleted(deletedBefore, batchSize);
+                purged += batch;
+                if (batch == batchSize)
+                    Thread.sleep(batchPause.toMillis());
+            }
+            while (batch == batchSize);
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        catch (RuntimeException exception) {
+            logger.warn("Deleted products could not be purged, the rest will be purged on the next run", exception);
+        }
+
+        if (purged > 0)
+            logger.info("Purged {} deleted products", purged);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ Top-K over primitive scores - Indices of the k highest scores, best first, without boxing the scores or the indices.
+    A min-heap (worst of the best k on top) is kept in one int[] of indices and compared through the float[] scores, O(n log k) and a single k-sized allocation.
+ Ties are broken by the lower index first, which is the index order of the candidates, so the result is deterministic.
+*/
+
+package org.example.productService.services.rankingService;
+
+public class FloatTopK {
+    // Indices of the k highest scores, highest first (all of them if there are fewer). The scores aren't modified.
+    public static int[] select(float[] scores, int k) {
+        int n = scores.length;
+        k = Math.min(k, n);
+        if (k <= 0)
+            return new int[0];
+
+        int[] heap = new int[k];
+        int heapSize = 0;
+        for (int i = 0; i < n; i++) {
+            if (heapSize < k) {
+                heap[heapSize] = i;
+                siftUp(heap, heapSize++, scores);
+            }
+            else if (isBetter(i, heap[0], scores)) {
+                heap[0] = i;          // Replace the worst of the best k
+                siftDown(heap, heapSize, scores);
+            }
+        }
+
+        // Pop the worst one to the end of the array repeatedly --> best first
+        for (int end = k - 1; end > 0; end--) {
+            int worst = heap[0];
+            heap[0] = heap[end];
+            heap[end] = worst;
+            siftDown(heap, end, scores);
+        }
+        return heap;
+    }
+
+    // Higher score first, lower index on ties
+    private static boolean isBetter(int a, int b, float[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+    }
+
+    private static void siftUp(int[] heap, int position, float[] scores) {
+        int item = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!isBetter(heap[parent], item, scores))
+                break;
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = item;
+    }
+
+    private static void siftDown(int[] heap, int heapSize, float[] scores) {
+        int item = heap[0];
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize)
+                break;
+            if (child + 1 < heapSize && isBetter(heap[child], heap[child + 1], scores))
+                child++;      // Worse of the two children
+            if (!isBetter(item, heap[child], scores))
+                break;
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = item;
+    }
+}
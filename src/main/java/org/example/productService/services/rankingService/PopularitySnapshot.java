@@ -0,0 +1,57 @@
+package org.example.productService.services.rankingService;
+
+import java.util.Arrays;
+import java.util.Map;
+
+// Read-only product id --> popularity table with open addressing over primitive arrays: lookups during ranking allocate nothing (no Long keys, no boxed values)
+// A new snapshot is built on every flush and published through a volatile field, so readers never lock
+final class PopularitySnapshot {
+    static final PopularitySnapshot EMPTY = new PopularitySnapshot(Map.of());
+
+    private static final long EMPTY_SLOT = Long.MIN_VALUE;
+
+    private final long[] ids;
+    private final float[] popularities;
+    private final float[] logPopularities;      // log(1 + popularity) computed once here instead of per candidate on every ranking
+    private final int mask;
+
+    PopularitySnapshot(Map<Long, Long> counters) {
+        int capacity = Integer.highestOneBit(Math.max(4, counters.size() * 2) - 1) << 1;   // Power of 2, at most half full
+        ids = new long[capacity];
+        popularities = new float[capacity];
+        logPopularities = new float[capacity];
+        mask = capacity - 1;
+        Arrays.fill(ids, EMPTY_SLOT);
+
+        for (Map.Entry<Long, Long> counter : counters.entrySet()) {
+            int slot = slot(counter.getKey());
+            while (ids[slot] != EMPTY_SLOT)
+                slot = (slot + 1) & mask;      // Linear probing
+            ids[slot] = counter.getKey();
+            popularities[slot] = counter.getValue();
+            logPopularities[slot] = (float) Math.log1p(counter.getValue());
+        }
+    }
+
+    float get(long productId) {
+        int slot = find(productId);
+        return slot < 0 ? 0f : popularities[slot];
+    }
+
+    float getLog(long productId) {
+        int slot = find(productId);
+        return slot < 0 ? 0f : logPopularities[slot];
+    }
+
+    private int find(long productId) {
+        for (int slot = slot(productId); ids[slot] != EMPTY_SLOT; slot = (slot + 1) & mask)
+            if (ids[slot] == productId)
+                return slot;
+        return -1;
+    }
+
+    private int slot(long productId) {
+        long hash = productId * 0x9E3779B97F4A7C15L;     // Spread sequential ids over the table
+        return (int) (hash >>> 32) & mask;
+    }
+}
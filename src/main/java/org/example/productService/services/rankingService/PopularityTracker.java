@@ -0,0 +1,166 @@
+/*
+ Popularity of the products - Weighted number of views and orders, used by the RankingEngine.
+ Request path only adds to an in-memory counter (LongAdder per product: no lock, no contention between concurrent requests, no Redis call).
+ Flush - Periodically the pending counts are drained into the totals, written to the Redis hash (HINCRBY, pipelined) shared by all the instances, and published as a new PopularitySnapshot.
+ Reload - Totals are periodically replaced by the Redis hash (HGETALL), so the counts of the other instances are picked up too.
+ Known products only - The order endpoint checks that the product exists, and the ids of every flush are looked up in one batch (ProductService.getProductsByIds): counts of ids
+ which don't exist (any more) are dropped instead of growing the totals and the Redis hash forever.
+ Orders are capped per flush interval: at most max-orders-per-product orders of one product and max-ordered-products distinct products are counted, the others are rejected, so that
+ a caller repeating one order or sweeping made-up ids can't inflate a product's rank or the memory of the pending counters.
+ Popularity is best effort: counts of a crashed instance not yet flushed are lost and Redis failures are only logged.
+*/
+
+package org.example.productService.services.rankingService;
+
+import org.example.productService.models.Product;
+import org.example.productService.services.ProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class PopularityTracker {
+    public static final String REDIS_KEY = "product:popularity";
+    static final int VIEW_WEIGHT = 1;
+    static final int ORDER_WEIGHT = 5;     // An order says more about the product than a view
+
+    private static final Logger logger = LoggerFactory.getLogger(PopularityTracker.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String productServiceBeanName;
+    private final ApplicationContext context;
+    private final int maxOrdersPerProduct;
+    private final int maxOrderedProducts;
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();   // Counted since the last flush
+    private final ConcurrentHashMap<Long, AtomicInteger> ordersSinceFlush = new ConcurrentHashMap<>();     // Orders counted per product since the last flush (caps)
+    private final Map<Long, Long> totals = new HashMap<>();                                 // Guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();     // Flush and reload (held during their Redis call), never taken on the request path
+    private volatile PopularitySnapshot snapshot = PopularitySnapshot.EMPTY;
+
+    // Product service picked by name like in ProductController, looked up on flush
+    public PopularityTracker(StringRedisTemplate stringRedisTemplate, @Value("${productService}") String productServiceBeanName, ApplicationContext context,
+                             @Value("${ranking.popularity.max-orders-per-product:100}") int maxOrdersPerProduct,
+                             @Value("${ranking.popularity.max-ordered-products:10000}") int maxOrderedProducts) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.productServiceBeanName = productServiceBeanName;
+        this.context = context;
+        this.maxOrdersPerProduct = maxOrdersPerProduct;
+        this.maxOrderedProducts = maxOrderedProducts;
+    }
+
+    public void recordView(Long productId) {
+        record(productId, VIEW_WEIGHT);
+    }
+
+    // Caller checks that the product exists. False when the order isn't counted as a cap of this flush interval is reached.
+    public boolean recordOrder(Long productId) {
+        if (productId == null)
+            return false;
+        if (!ordersSinceFlush.containsKey(productId) && ordersSinceFlush.size() >= maxOrderedProducts)
+            return false;
+        if (ordersSinceFlush.computeIfAbsent(productId, id -> new AtomicInteger()).incrementAndGet() > maxOrdersPerProduct)
+            return false;
+
+        record(productId, ORDER_WEIGHT);
+        return true;
+    }
+
+    private void record(Long productId, int weight) {
+        if (productId != null)
+            pending.computeIfAbsent(productId, id -> new LongAdder()).add(weight);
+    }
+
+    // Popularity as of the last flush/reload (0 for unknown products)
+    public float getPopularity(long productId) {
+        return snapshot.get(productId);
+    }
+
+    // log(1 + popularity), damped popularity for boosting other scores
+    public float getLogPopularity(long productId) {
+        return snapshot.getLog(productId);
+    }
+
+    @Scheduled(initialDelayString = "${ranking.popularity.flush-interval:PT5S}", fixedDelayString = "${ranking.popularity.flush-interval:PT5S}")
+    public void flush() {
+        ordersSinceFlush.clear();       // Caps restart with every flush interval
+
+        Map<Long, Long> drained = new HashMap<>();
+        for (Iterator<Map.Entry<Long, LongAdder>> iterator = pending.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<Long, LongAdder> counter = iterator.next();
+            iterator.remove();      // Next counts go to a new adder (one racing with the removal may be lost, popularity is best effort)
+            drained.put(counter.getKey(), counter.getValue().sumThenReset());
+        }
+        if (drained.isEmpty())
+            return;
+
+        // Products which don't exist (any more) are dropped, one batch lookup for all the ids
+        try {
+            Set<Long> knownIds = new HashSet<>();
+            for (Product product : ((ProductService) context.getBean(productServiceBeanName)).getProductsByIds(drained.keySet()))
+                knownIds.add(product.getId());
+            drained.keySet().retainAll(knownIds);
+        }
+        catch (RuntimeException exception) {
+            // Counts are kept for the next flush instead of being written unchecked
+            logger.warn("Could not look up the {} products counted for popularity, they will be flushed next time", drained.size(), exception);
+            drained.forEach((productId, count) -> pending.computeIfAbsent(productId, id -> new LongAdder()).add(count));
+            return;
+        }
+        if (drained.isEmpty())
+            return;
+
+        // Reload can't run in between the totals and the Redis write, else it would replace the totals by Redis values missing this flush
+        lock.lock();
+        try {
+            drained.forEach((productId, count) -> totals.merge(productId, count, Long::sum));
+            snapshot = new PopularitySnapshot(totals);
+
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                drained.forEach((productId, count) -> stringConnection.hIncrBy(REDIS_KEY, productId.toString(), count));
+                return null;
+            });
+        }
+        catch (DataAccessException exception) {
+            logger.warn("Could not write the popularity of {} products to Redis", drained.size(), exception);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${ranking.popularity.reload-interval:PT1M}", fixedDelayString = "${ranking.popularity.reload-interval:PT1M}")
+    public void reload() {
+        lock.lock();
+        try {
+            Map<Object, Object> stored = stringRedisTemplate.opsForHash().entries(REDIS_KEY);
+
+            // Counts of this instance not yet flushed aren't in Redis nor in the totals, they're added by the next flush
+            totals.clear();
+            stored.forEach((productId, count) -> totals.put(Long.valueOf((String) productId), Long.valueOf((String) count)));
+            snapshot = new PopularitySnapshot(totals);
+        }
+        catch (DataAccessException exception) {
+            logger.warn("Could not load the popularity of the products from Redis", exception);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ Ranking engine - Orders the search results by score for the sorting criteria without a Comparator (SearchPlan.isRanked()):
+    RELEVANCE  - BM25 score of the product for the query (computed by the search index) plus a small popularity boost, log(1 + popularity) so best sellers don't drown the text match.
+    POPULARITY - Weighted number of views and orders of the product (PopularityTracker).
+ Scores live in one primitive float[] aligned with the candidates and the best ones are picked with FloatTopK, hence ranking 100k candidates allocates two arrays and no object per candidate (ids are read from the catalog columns).
+*/
+
+package org.example.productService.services.rankingService;
+
+import org.example.productService.dtos.search.SortingCriteria;
+import org.example.productService.exception.BadRequestException;
+import org.example.productService.services.facetingService.FacetedProducts;
+import org.example.productService.services.indexingService.CatalogSnapshot;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RankingEngine {
+    static final float POPULARITY_WEIGHT = 0.5f;     // Relevance boost per log(1 + popularity), one order (5) is worth about 0.9
+
+    private final PopularityTracker popularityTracker;
+
+    public RankingEngine(PopularityTracker popularityTracker) {
+        this.popularityTracker = popularityTracker;
+    }
+
+    // First 'limit' results of the search (ordinals into its catalog snapshot), best score first. The results of the search aren't modified.
+    public int[] rankFirst(FacetedProducts facetedProducts, SortingCriteria sortingCriteria, int limit) {
+        CatalogSnapshot catalog = facetedProducts.catalog();
+        int[] ordinals = facetedProducts.ordinals();
+        float[] scores = switch (sortingCriteria) {
+            case RELEVANCE -> relevanceScores(catalog, ordinals, facetedProducts.relevance());
+            case POPULARITY -> popularityScores(catalog, ordinals);
+            default -> throw new BadRequestException("Products can't be ranked by " + sortingCriteria);     // A sort the client asked for, hence 400
+        };
+
+        int[] top = FloatTopK.select(scores, limit);
+        for (int i = 0; i < top.length; i++)
+            top[i] = ordinals[top[i]];      // Position in the results --> ordinal
+        return top;
+    }
+
+    private float[] relevanceScores(CatalogSnapshot catalog, int[] ordinals, float[] relevance) {
+        float[] scores = relevance == null ? new float[ordinals.length] : relevance;     // Boosted in place, the array is owned by this search
+        for (int i = 0; i < scores.length; i++)
+            scores[i] += POPULARITY_WEIGHT * popularityTracker.getLogPopularity(catalog.getId(ordinals[i]));
+        return scores;
+    }
+
+    private float[] popularityScores(CatalogSnapshot catalog, int[] ordinals) {
+        float[] scores = new float[ordinals.length];
+        for (int i = 0; i < scores.length; i++)
+            scores[i] = popularityTracker.getPopularity(catalog.getId(ordinals[i]));
+        return scores;
+    }
+}
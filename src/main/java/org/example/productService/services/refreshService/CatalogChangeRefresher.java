@@ -0,0 +1,194 @@
+/*
+ Incremental refresh (change data capture by polling) - Products and categories can change outside of this instance (other instances, imports, manual SQL), and nothing tells its derived structures.
+ Every interval the rows written since the last poll are read in batches, ordered by (last_modified_at, id) and seeking past a watermark:
+    SELECT ... FROM products WHERE last_modified_at < :upTo AND (last_modified_at > :since OR (last_modified_at = :since AND id > :afterId)) ORDER BY last_modified_at, id LIMIT :batchSize
+ and only these rows are applied, so the cost of a refresh grows with the number of changes and not with the size of the catalog:
+    Search index - changed products are indexed again, soft deleted ones removed (the poll reads deleted rows too, the products themselves are then loaded by id)
+    Category counts - counts of the categories the changed products left or joined are recomputed (a polled row doesn't tell if its change was already counted)
+    Category id cache - changed categories are cached under their current name, and the products of a renamed category are indexed again (the index holds category names)
+ Trailing window - A row is stamped when its transaction writes it but only visible once it commits, so a long transaction can commit rows stamped before the end of an earlier poll.
+ Hence every poll reads again from lookback (the longest expected transaction) before the end of the previous poll, not only from where it ended, and rows already applied
+ with the same (id, last_modified_at) are skipped, so only the late ones are applied. Applied versions are forgotten once older than the window.
+ Clock skew between the instances stamping the rows is covered by starting the first poll an overlap (or the lookback, if longer) earlier than the index is known to be current.
+ Applying a change twice (e.g. one written by this instance) does no harm.
+ Deletes are soft (see Product), so they are polled like any other change. Rows are only purged (DeletedProductPurger) long after every instance has polled them.
+ Catch-up - An index loaded from a snapshot file is behind by up to the age of the file. IndexSnapshotStore polls its changes (catchUp) before the index is marked ready,
+ the index buffers them till then like any other write.
+*/
+
+package org.example.productService.services.refreshService;
+
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+import org.example.productService.repositories.CategoryCountRepository;
+import org.example.productService.repositories.CategoryRepository;
+import org.example.productService.repositories.ProductRepository;
+import org.example.productService.repositories.projections.ProductChange;
+import org.example.productService.services.cachingService.CategoryIdCache;
+import org.example.productService.services.indexingService.ProductSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+@Component
+@ConditionalOnProperty(name = "catalog.refresh.enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogChangeRefresher {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogChangeRefresher.class);
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final CategoryCountRepository categoryCountRepository;
+    private final CategoryIdCache categoryIdCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final int batchSize;
+    private final Duration lookback;
+    private final Duration overlap;
+    // Used by one thread at a time (catch-up before the index is ready, the scheduler after)
+    private Instant windowStart;                                            // Start of the next poll, null till the first poll
+    private final Map<Long, Instant> appliedProductVersions = new HashMap<>();     // id --> last_modified_at applied, for the rows of the window
+    private final Map<Long, Instant> appliedCategoryVersions = new HashMap<>();
+
+    public CatalogChangeRefresher(ProductRepository productRepository, CategoryRepository categoryRepository, CategoryCountRepository categoryCountRepository,
+                                  CategoryIdCache categoryIdCache, ProductSearchIndex productSearchIndex,
+                                  @Value("${catalog.refresh.batch-size:500}") int batchSize,
+                                  @Value("${catalog.refresh.lookback:PT5M}") Duration lookback,
+                                  @Value("${catalog.refresh.overlap:PT30S}") Duration overlap) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.categoryCountRepository = categoryCountRepository;
+        this.categoryIdCache = categoryIdCache;
+        this.productSearchIndex = productSearchIndex;
+        this.batchSize = batchSize;
+        this.lookback = lookback;
+        this.overlap = overlap;
+    }
+
+    @Scheduled(initialDelayString = "${catalog.refresh.interval:PT5S}", fixedDelayString = "${catalog.refresh.interval:PT5S}")
+    public void refresh() {
+        if (productSearchIndex.isEnabled() && !productSearchIndex.isReady())
+            return;     // Index is being built (or caught up), it will contain every change up to then
+
+        poll();
+    }
+
+    // Applies the changes since the index was current even though it isn't ready yet (index loaded from a snapshot file). Returns false when they couldn't be applied.
+    public boolean catchUp() {
+        return poll();
+    }
+
+    private boolean poll() {
+        if (windowStart == null) {
+            Instant indexedUntil = productSearchIndex.getIndexedUntil();
+            windowStart = (indexedUntil == null ? Instant.now() : indexedUntil).minus(overlap.compareTo(lookback) > 0 ? overlap : lookback);
+        }
+
+        try {
+            Instant now = Instant.now();
+            Date since = Date.from(windowStart);
+            Date upTo = Date.from(now);
+            int categories = refreshCategories(since, upTo);
+            int products = refreshProducts(since, upTo);
+
+            // Moved only once the whole window is applied, a failed poll reads the same window again (skipping the rows it applied)
+            windowStart = now.minus(lookback);
+            appliedProductVersions.values().removeIf(version -> version.isBefore(windowStart));
+            appliedCategoryVersions.values().removeIf(version -> version.isBefore(windowStart));
+            productSearchIndex.setIndexedUntil(now);
+            if (categories + products > 0)
+                logger.info("Applied {} category and {} product changes", categories, products);
+            return true;
+        }
+        catch (RuntimeException exception) {
+            logger.warn("Catalog changes could not be applied, they will be retried from the same window", exception);
+            return false;
+        }
+    }
+
+    private int refreshProducts(Date since, Date upTo) {
+        int applied = 0;
+        ChangeWatermark watermark = ChangeWatermark.at(since.toInstant());
+        List<ProductChange> polled;
+        do {
+            polled = productRepository.findChangesSince(watermark.lastModifiedAt(), watermark.id(), upTo, batchSize);
+            if (polled.isEmpty())
+                break;
+            watermark = ChangeWatermark.after(polled.get(polled.size() - 1));     // Next batch of the window
+
+            // Rows already applied by an earlier poll of the window (same version) are skipped
+            List<ProductChange> changes = new ArrayList<>();
+            for (ProductChange change : polled)
+                if (!change.getLastModifiedAt().toInstant().equals(appliedProductVersions.get(change.getId())))
+                    changes.add(change);
+            if (changes.isEmpty())
+                continue;
+
+            // Current version of the changed products which aren't deleted, in one query
+            List<Long> changedIds = new ArrayList<>();
+            for (ProductChange change : changes)
+                if (!Boolean.TRUE.equals(change.getDeleted()))
+                    changedIds.add(change.getId());
+            Map<Long, Product> changedProducts = new HashMap<>();
+            if (!changedIds.isEmpty())
+                for (Product product : productRepository.findAllByIdIn(changedIds))
+                    changedProducts.put(product.getId(), product);
+
+            Set<Long> touchedCategoryIds = new HashSet<>();
+            for (ProductChange change : changes) {
+                // Category the index has for the product (previous version), then its current one
+                String previousCategory = productSearchIndex.getCategoryName(change.getId());
+                Long previousCategoryId = previousCategory == null ? null : categoryIdCache.getCachedId(previousCategory);
+                if (previousCategoryId != null)
+                    touchedCategoryIds.add(previousCategoryId);
+
+                Product product = changedProducts.get(change.getId());
+                if (product == null)        // Deleted (or deleted since the change was read)
+                    productSearchIndex.remove(change.getId());
+                else if (product.getCategory() != null)
+                    touchedCategoryIds.add(product.getCategory().getId());
+            }
+
+            productSearchIndex.indexBatch(changedProducts.values());
+            categoryCountRepository.reconcile(touchedCategoryIds);
+
+            // Recorded only once the batch is applied, a failed batch is applied again by the next poll
+            for (ProductChange change : changes)
+                appliedProductVersions.put(change.getId(), change.getLastModifiedAt().toInstant());
+            applied += changes.size();
+        }
+        while (polled.size() == batchSize);
+        return applied;
+    }
+
+    private int refreshCategories(Date since, Date upTo) {
+        int applied = 0;
+        ChangeWatermark watermark = ChangeWatermark.at(since.toInstant());
+        List<Category> polled;
+        do {
+            polled = categoryRepository.findChangedSince(watermark.lastModifiedAt(), watermark.id(), upTo, Limit.of(batchSize));
+            for (Category category : polled) {
+                Instant version = category.getLastModifiedAt().toInstant();
+                if (version.equals(appliedCategoryVersions.get(category.getId())))
+                    continue;       // Applied by an earlier poll of the window
+
+                String previousName = categoryIdCache.refresh(category.getId(), category.getName());
+                if (previousName != null && !previousName.equals(category.getName()))
+                    productSearchIndex.indexBatch(productRepository.findAllByCategory_Id(category.getId()));
+                appliedCategoryVersions.put(category.getId(), version);
+                applied++;
+            }
+
+            if (!polled.isEmpty())
+                watermark = ChangeWatermark.after(polled.get(polled.size() - 1));
+        }
+        while (polled.size() == batchSize);
+        return applied;
+    }
+}
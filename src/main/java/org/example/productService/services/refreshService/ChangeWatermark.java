@@ -0,0 +1,25 @@
+package org.example.productService.services.refreshService;
+
+import org.example.productService.models.BaseModel;
+import org.example.productService.repositories.projections.ProductChange;
+
+import java.time.Instant;
+import java.util.Date;
+
+// Position of a change poll in a table: the next batch of the poll starts after the row (lastModifiedAt, id).
+// The id breaks the ties between rows written in the same millisecond, so a batch ending in the middle of them neither skips nor repeats any.
+record ChangeWatermark(Date lastModifiedAt, long id) {
+
+    // Before every row written at or after the instant
+    static ChangeWatermark at(Instant instant) {
+        return new ChangeWatermark(Date.from(instant), 0);
+    }
+
+    static ChangeWatermark after(BaseModel row) {
+        return new ChangeWatermark(row.getLastModifiedAt(), row.getId());
+    }
+
+    static ChangeWatermark after(ProductChange change) {
+        return new ChangeWatermark(change.getLastModifiedAt(), change.getId());
+    }
+}
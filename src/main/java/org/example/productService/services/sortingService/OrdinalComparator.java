@@ -0,0 +1,7 @@
+package org.example.productService.services.sortingService;
+
+// Ordering of two search documents given by their ordinals in the catalog snapshot (primitive ints, no Product and no boxing)
+@FunctionalInterface
+public interface OrdinalComparator {
+    int compare(int first, int second);
+}
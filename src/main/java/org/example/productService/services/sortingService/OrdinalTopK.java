@@ -0,0 +1,129 @@
+/*
+ Top-K over ordinals - Same bounded partial sort as TopK, for the search results of the index given as ordinals into the catalog snapshot (int[]) instead of a List of objects.
+    The heap is a plain int[] of ordinals compared with an OrdinalComparator reading the columns, hence no boxing and a single k-sized array per chunk.
+    There is no full-sort path: the JDK has no primitive sort with a custom order, and the heap degrades gracefully into a heap sort when k is close to n.
+    Large candidate sets are split in chunks selected in parallel on the search pool (SearchParallelism), and the sorted chunks are merged pairwise.
+*/
+
+package org.example.productService.services.sortingService;
+
+import org.example.productService.services.parallelService.SearchParallelism;
+
+import java.util.concurrent.RecursiveTask;
+
+public class OrdinalTopK {
+    private static final int MIN_CHUNK_SIZE = 16_384;   // Candidates per fork-join leaf task, at least
+
+    // First k ordinals in comparator order (all of them if there are fewer). The array isn't modified.
+    public static int[] select(int[] ordinals, int k, OrdinalComparator comparator, SearchParallelism parallelism) {
+        int n = ordinals.length;
+        if (k <= 0)
+            return new int[0];
+
+        if (parallelism.isParallel(n))
+            return parallelism.invoke(new SelectTask(ordinals, 0, n, k, comparator, parallelism.chunkSize(n, MIN_CHUNK_SIZE)));
+
+        return selectRange(ordinals, 0, n, k, comparator);
+    }
+
+    // Heap top-k of ordinals[from, to), sorted
+    static int[] selectRange(int[] ordinals, int from, int to, int k, OrdinalComparator comparator) {
+        int[] heap = new int[Math.min(k, to - from)];    // Max-heap by the sort order: the worst of the best k on top
+        int heapSize = 0;
+
+        for (int i = from; i < to; i++) {
+            int ordinal = ordinals[i];
+            if (heapSize < heap.length) {
+                heap[heapSize] = ordinal;
+                siftUp(heap, heapSize++, comparator);
+            }
+            else if (comparator.compare(ordinal, heap[0]) < 0) {     // Better than the worst of the best k
+                heap[0] = ordinal;
+                siftDown(heap, heapSize, comparator);
+            }
+        }
+
+        // Move the worst one to the end repeatedly --> sorted best first
+        for (int end = heapSize - 1; end > 0; end--) {
+            int worst = heap[0];
+            heap[0] = heap[end];
+            heap[end] = worst;
+            siftDown(heap, end, comparator);
+        }
+        return heap;
+    }
+
+    // First k of two sorted arrays, sorted
+    static int[] merge(int[] first, int[] second, int k, OrdinalComparator comparator) {
+        int[] merged = new int[Math.min(k, first.length + second.length)];
+        int i = 0;
+        int j = 0;
+        for (int m = 0; m < merged.length; m++) {
+            if (j == second.length || (i < first.length && comparator.compare(first[i], second[j]) <= 0))
+                merged[m] = first[i++];
+            else
+                merged[m] = second[j++];
+        }
+        return merged;
+    }
+
+    private static void siftUp(int[] heap, int position, OrdinalComparator comparator) {
+        int ordinal = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (comparator.compare(heap[parent], ordinal) >= 0)
+                break;
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = ordinal;
+    }
+
+    private static void siftDown(int[] heap, int heapSize, OrdinalComparator comparator) {
+        int ordinal = heap[0];
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize)
+                break;
+            if (child + 1 < heapSize && comparator.compare(heap[child + 1], heap[child]) > 0)
+                child++;      // Worse of the two children
+            if (comparator.compare(ordinal, heap[child]) >= 0)
+                break;
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = ordinal;
+    }
+
+    private static class SelectTask extends RecursiveTask<int[]> {
+        private final int[] ordinals;
+        private final int from;
+        private final int to;
+        private final int k;
+        private final OrdinalComparator comparator;
+        private final int chunkSize;
+
+        SelectTask(int[] ordinals, int from, int to, int k, OrdinalComparator comparator, int chunkSize) {
+            this.ordinals = ordinals;
+            this.from = from;
+            this.to = to;
+            this.k = k;
+            this.comparator = comparator;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= chunkSize)
+                return selectRange(ordinals, from, to, k, comparator);
+
+            int middle = (from + to) >>> 1;
+            SelectTask left = new SelectTask(ordinals, from, middle, k, comparator, chunkSize);
+            SelectTask right = new SelectTask(ordinals, middle, to, k, comparator, chunkSize);
+            left.fork();
+            int[] rightSelected = right.compute();
+            return merge(left.join(), rightSelected, k, comparator);
+        }
+    }
+}
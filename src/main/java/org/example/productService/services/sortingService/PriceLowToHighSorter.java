@@ -1,13 +1,33 @@
 package org.example.productService.services.sortingService;
 
 import org.example.productService.models.Product;
+import org.example.productService.services.indexingService.CatalogSnapshot;
+import org.springframework.data.domain.Sort;
 
-import java.util.List;
+import java.util.Comparator;
 
 public class PriceLowToHighSorter implements Sorter {
+    // Written out instead of Comparator.comparing(...).thenComparing(...): one call per comparison instead of a chain of key extractors and wrapped comparators
+    private static final Comparator<Product> COMPARATOR = (first, second) -> {
+        int byPrice = Sorter.compareNullsLast(first.getPrice(), second.getPrice());
+        return byPrice != 0 ? byPrice : Sorter.compareNullsLast(first.getId(), second.getId());   // id as tie-breaker, same as getSort()
+    };
 
     @Override
-    public List<Product> applySorting(List<Product> products) {
-        return List.of();
+    public Comparator<Product> getComparator() {
+        return COMPARATOR;
+    }
+
+    @Override
+    public OrdinalComparator getColumnComparator(CatalogSnapshot catalog) {
+        return (first, second) -> {
+            int byPrice = Double.compare(catalog.getPrice(first), catalog.getPrice(second));    // NaN (no price) is greater than every price, hence last
+            return byPrice != 0 ? byPrice : Long.compare(catalog.getId(first), catalog.getId(second));
+        };
+    }
+
+    @Override
+    public Sort getSort() {
+        return Sort.by(Sort.Order.asc("price"), Sort.Order.asc("id"));    // id as tie-breaker keeps the pages stable
     }
 }
@@ -1,8 +1,40 @@
 package org.example.productService.services.sortingService;
 
 import org.example.productService.models.Product;
+import org.example.productService.services.indexingService.CatalogSnapshot;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 public interface Sorter {
-    List<Product> applySorting(List<Product> products);
+    // Ordering of the in-memory search documents, built once per sorter and reused by every search
+    Comparator<Product> getComparator();
+
+    // Same ordering over the columns of the search index, bound to one snapshot (the columns can be replaced between searches)
+    OrdinalComparator getColumnComparator(CatalogSnapshot catalog);
+
+    default List<Product> applySorting(List<Product> products) {
+        List<Product> sorted = new ArrayList<>(products);
+        sorted.sort(getComparator());
+        return sorted;
+    }
+
+    // First 'limit' products in sorted order, without sorting the rest (bounded partial sort, see TopK)
+    default List<Product> applySorting(List<Product> products, int limit) {
+        return TopK.select(products, limit, getComparator());
+    }
+
+    // Natural order with nulls after every value
+    static <T extends Comparable<T>> int compareNullsLast(T first, T second) {
+        if (first == null)
+            return second == null ? 0 : 1;
+        if (second == null)
+            return -1;
+        return first.compareTo(second);
+    }
+
+    // Same ordering as an ORDER BY clause, so that it can be pushed down into the database query
+    Sort getSort();
 }
@@ -1,19 +1,30 @@
 // Implemented sorting as a factory method pattern because it's a common pattern for creating objects based on a key.
+// Sorters are stateless, hence one shared instance per criteria is handed out instead of a new object per request.
+// Relevance and popularity have no sorter, the search results are ordered by scores in RankingEngine. Products have no ratings to sort by.
 
 package org.example.productService.services.sortingService;
 
 import org.example.productService.dtos.search.SortingCriteria;
+import org.example.productService.exception.BadRequestException;
 
 public class SorterFactory {
+    private static final Sorter PRICE_HIGH_TO_LOW_SORTER = new PriceHighToLowSorter();
+    private static final Sorter PRICE_LOW_TO_HIGH_SORTER = new PriceLowToHighSorter();
+
+    // Sorting criteria asked by a client which no search path can sort by, rejected by the controllers before any work (null: no sorting)
+    public static void checkSupported(SortingCriteria sortingCriteria) {
+        if (sortingCriteria == SortingCriteria.RATING_HIGH_TO_LOW || sortingCriteria == SortingCriteria.RATING_LOW_TO_HIGH)
+            throw new BadRequestException("Sorting by rating is not supported, products have no ratings");
+    }
 
     public static Sorter getSorterByCriteria(SortingCriteria sortingCriteria) {
+        checkSupported(sortingCriteria);
         return switch (sortingCriteria) {
             case RELEVANCE -> null;
             case POPULARITY -> null;
-            case PRICE_HIGH_TO_LOW -> new PriceHighToLowSorter();
-            case PRICE_LOW_TO_HIGH -> new PriceLowToHighSorter();
-            case RATING_HIGH_TO_LOW -> null;
-            case RATING_LOW_TO_HIGH -> null;
+            case PRICE_HIGH_TO_LOW -> PRICE_HIGH_TO_LOW_SORTER;
+            case PRICE_LOW_TO_HIGH -> PRICE_LOW_TO_HIGH_SORTER;
+            case RATING_HIGH_TO_LOW, RATING_LOW_TO_HIGH -> null;     // Rejected by checkSupported
             case null -> null;
         };
     }
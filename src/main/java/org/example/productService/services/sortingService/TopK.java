@@ -0,0 +1,111 @@
+/*
+ Top-K (partial sort) - A page only shows the first pageNumber * pageSize results, so only those k have to be put in order, not all n matches.
+    Heap - A max-heap (by the sort order) of at most k items: every item is compared with the worst of the best k seen so far and replaces it if it is better.
+           O(n log k) instead of O(n log n) for a full sort, and only k items are kept in order.
+    Parallel - For very large candidate sets (SearchParallelism threshold), the list is split in chunks which pick their own top-k in parallel on the search fork-join pool, and the sorted top-k lists are merged pairwise.
+    Full sort - When k is a large part of n (pages deep into the results, k >= n / 2) the heap does about as much work as sorting and has worse constants, hence the list is simply sorted.
+ Results are the same as sorting the whole list with the comparator and taking the first k (comparators break ties by id, so the order is total).
+*/
+
+package org.example.productService.services.sortingService;
+
+import org.example.productService.services.parallelService.SearchParallelism;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.RecursiveTask;
+
+public class TopK {
+    static final int FULL_SORT_DIVISOR = 2;         // k >= n / 2 --> full sort (measured: the heap is still faster at k = n / 4 on unordered candidates)
+    private static final int MIN_CHUNK_SIZE = 16_384;   // Candidates per fork-join leaf task, at least
+
+    // First k items of the list in comparator order (all of them if there are fewer), on the calling thread. The list isn't modified.
+    public static <T> List<T> select(List<T> items, int k, Comparator<? super T> comparator) {
+        return select(items, k, comparator, SearchParallelism.sequential());
+    }
+
+    // Same as above, in parallel on the search pool when the list is large enough
+    public static <T> List<T> select(List<T> items, int k, Comparator<? super T> comparator, SearchParallelism parallelism) {
+        int n = items.size();
+        if (k <= 0)
+            return new ArrayList<>();
+
+        if (k >= n / FULL_SORT_DIVISOR) {
+            List<T> sorted = new ArrayList<>(items);
+            sorted.sort(comparator);
+            return k < n ? new ArrayList<>(sorted.subList(0, k)) : sorted;
+        }
+
+        if (parallelism.isParallel(n))
+            return parallelism.invoke(new SelectTask<>(items, 0, n, k, comparator, parallelism.chunkSize(n, MIN_CHUNK_SIZE)));
+
+        return selectRange(items, 0, n, k, comparator);
+    }
+
+    // Heap top-k of items[from, to), sorted
+    static <T> List<T> selectRange(List<T> items, int from, int to, int k, Comparator<? super T> comparator) {
+        Comparator<? super T> worstFirst = comparator.reversed();
+        PriorityQueue<T> heap = new PriorityQueue<>(Math.min(k, to - from) + 1, worstFirst);
+
+        for (int i = from; i < to; i++) {
+            T item = items.get(i);
+            if (heap.size() < k)
+                heap.add(item);
+            else if (comparator.compare(item, heap.peek()) < 0) {    // Better than the worst of the best k
+                heap.poll();
+                heap.add(item);
+            }
+        }
+
+        List<T> selected = new ArrayList<>(heap);
+        selected.sort(comparator);
+        return selected;
+    }
+
+    // First k of two sorted lists, sorted
+    static <T> List<T> merge(List<T> first, List<T> second, int k, Comparator<? super T> comparator) {
+        List<T> merged = new ArrayList<>(Math.min(k, first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < k && (i < first.size() || j < second.size())) {
+            if (j == second.size() || (i < first.size() && comparator.compare(first.get(i), second.get(j)) <= 0))
+                merged.add(first.get(i++));
+            else
+                merged.add(second.get(j++));
+        }
+        return merged;
+    }
+
+    private static class SelectTask<T> extends RecursiveTask<List<T>> {
+        private final List<T> items;
+        private final int from;
+        private final int to;
+        private final int k;
+        private final Comparator<? super T> comparator;
+        private final int chunkSize;
+
+        SelectTask(List<T> items, int from, int to, int k, Comparator<? super T> comparator, int chunkSize) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.k = k;
+            this.comparator = comparator;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (to - from <= chunkSize)
+                return selectRange(items, from, to, k, comparator);
+
+            int middle = (from + to) >>> 1;
+            SelectTask<T> left = new SelectTask<>(items, from, middle, k, comparator, chunkSize);
+            SelectTask<T> right = new SelectTask<>(items, middle, to, k, comparator, chunkSize);
+            left.fork();
+            List<T> rightSelected = right.compute();
+            return merge(left.join(), rightSelected, k, comparator);
+        }
+    }
+}
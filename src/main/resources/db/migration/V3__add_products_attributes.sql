@@ -0,0 +1,39 @@
+# The Product entity is mapped to the table products (V1 created product), which ddl-auto=update created on the existing databases.
+# Created here when missing so that the migrations describe the schema the application runs on, then the brand/os/ram columns (search filters) are added where ddl-auto didn't already.
+# MySQL has no ADD COLUMN IF NOT EXISTS, hence every change is checked in information_schema and run as a prepared statement (or a no-op DO 0) to stay idempotent.
+
+CREATE TABLE IF NOT EXISTS products
+(
+    id               BIGINT AUTO_INCREMENT NOT NULL,
+    created_at       datetime(6) NULL,
+    last_modified_at datetime(6) NULL,
+    is_deleted       BIT(1)       NOT NULL,
+    title            VARCHAR(255) NULL,
+    `description`    VARCHAR(255) NULL,
+    price DOUBLE NULL,
+    image_url        VARCHAR(255) NULL,
+    brand            VARCHAR(255) NULL,
+    os               VARCHAR(255) NULL,
+    ram              VARCHAR(255) NULL,
+    category_id      BIGINT NULL,
+    CONSTRAINT pk_products PRIMARY KEY (id),
+    CONSTRAINT FK_PRODUCTS_ON_CATEGORY FOREIGN KEY (category_id) REFERENCES category (id)
+);
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND COLUMN_NAME = 'brand') = 0,
+              'ALTER TABLE products ADD COLUMN brand VARCHAR(255) NULL', 'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND COLUMN_NAME = 'os') = 0,
+              'ALTER TABLE products ADD COLUMN os VARCHAR(255) NULL', 'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND COLUMN_NAME = 'ram') = 0,
+              'ALTER TABLE products ADD COLUMN ram VARCHAR(255) NULL', 'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
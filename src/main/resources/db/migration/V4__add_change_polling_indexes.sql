@@ -0,0 +1,15 @@
+# Indexes of the change polling (CatalogChangeRefresher): every batch seeks (last_modified_at, id) past a watermark, ORDER BY last_modified_at, id LIMIT n,
+# which without them is a full scan and a sort of the table on every poll. Declared on the entities too, ddl-auto=update may already have created them.
+# MySQL has no CREATE INDEX IF NOT EXISTS, hence every index is checked in information_schema and created as a prepared statement (or a no-op DO 0) to stay idempotent.
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND INDEX_NAME = 'idx_products_last_modified_at_id') = 0,
+              'CREATE INDEX idx_products_last_modified_at_id ON products (last_modified_at, id)', 'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'category' AND INDEX_NAME = 'idx_category_last_modified_at_id') = 0,
+              'CREATE INDEX idx_category_last_modified_at_id ON category (last_modified_at, id)', 'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
@@ -0,0 +1,9 @@
+# Index of the live products of a category by price: category listings and price filters (is_deleted = false AND category_id = ? ORDER BY / range on price),
+# and the batches of DeletedProductPurger. Declared on Product too, ddl-auto=update may already have created it.
+# Checked in information_schema and created as a prepared statement (or a no-op DO 0) to stay idempotent, as in V4.
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND INDEX_NAME = 'idx_products_is_deleted_category_id_price') = 0,
+              'CREATE INDEX idx_products_is_deleted_category_id_price ON products (is_deleted, category_id, price)', 'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
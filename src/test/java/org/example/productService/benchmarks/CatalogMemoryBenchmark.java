@@ -0,0 +1,102 @@
+/*
+ Heap taken by the search index of a 1M product catalog (columns, posting lists, facet bitsets, id --> ordinal map) and time of a price range scan + first page by price over it.
+ Run with --> java -Xmx2g -cp <test classpath> org.example.productService.benchmarks.CatalogMemoryBenchmark
+ Heap is measured as used memory after System.gc() with and without the index (indicative only, the JVM decides when and how much it collects).
+*/
+
+package org.example.productService.benchmarks;
+
+import org.example.productService.dtos.search.FilterDto;
+import org.example.productService.dtos.search.SortingCriteria;
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+import org.example.productService.services.facetingService.FacetedProducts;
+import org.example.productService.services.indexingService.ProductSearchIndex;
+import org.example.productService.services.parallelService.SearchParallelism;
+import org.example.productService.services.planningService.SearchPlan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class CatalogMemoryBenchmark {
+    private static final int PRODUCTS = 1_000_000;
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int MEASURED_ROUNDS = 20;
+
+    private static final String[] BRANDS = {"apple", "samsung", "google", "oneplus", "xiaomi", "sony", "lenovo", "dell", "hp", "asus"};
+    private static final String[] OPERATING_SYSTEMS = {"ios", "android", "macos", "windows", "linux"};
+    private static final String[] RAMS = {"4GB", "8GB", "16GB", "32GB"};
+    private static final String[] WORDS = {"phone", "laptop", "tablet", "watch", "pro", "max", "mini", "slim", "wireless", "fast"};
+
+    public static void main(String[] args) {
+        long baseline = usedHeap();
+        ProductSearchIndex productSearchIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+        Random random = new Random(42);
+        List<Category> categories = categories();
+        List<Product> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < PRODUCTS; i++) {
+            batch.add(product(i + 1, random, categories));
+            if (batch.size() == 10_000) {      // Source products are dropped once indexed, like the entities loaded from the database
+                productSearchIndex.indexAll(batch);
+                batch.clear();
+            }
+        }
+        long indexBytes = usedHeap() - baseline;
+
+        SearchPlan plan = SearchPlan.compile(List.of(filter("lowPrice", "100"), filter("highPrice", "2500")), SortingCriteria.PRICE_LOW_TO_HIGH);
+        for (int round = 0; round < WARMUP_ROUNDS; round++)
+            search(productSearchIndex, plan);
+
+        long start = System.nanoTime();
+        int results = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++)
+            results = search(productSearchIndex, plan);
+        double millis = (System.nanoTime() - start) / (double) MEASURED_ROUNDS / 1_000_000;
+
+        System.out.printf("%d products: %.1f MB of heap for the index, %.2f ms per price range search (%d results) with the first page by price%n",
+                PRODUCTS, indexBytes / 1_048_576.0, millis, results);
+    }
+
+    private static int search(ProductSearchIndex productSearchIndex, SearchPlan plan) {
+        FacetedProducts facetedProducts = productSearchIndex.searchWithFacets("", plan);
+        plan.sortFirst(facetedProducts.catalog(), facetedProducts.ordinals(), 20, SearchParallelism.sequential());
+        return facetedProducts.ordinals().length;
+    }
+
+    private static Product product(long id, Random random, List<Category> categories) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+        product.setBrand(BRANDS[random.nextInt(BRANDS.length)]);
+        product.setOs(OPERATING_SYSTEMS[random.nextInt(OPERATING_SYSTEMS.length)]);
+        product.setRam(RAMS[random.nextInt(RAMS.length)]);
+        product.setPrice(10 + random.nextInt(300_000) / 100D);
+        product.setCategory(categories.get(random.nextInt(categories.size())));
+        return product;
+    }
+
+    private static List<Category> categories() {
+        List<Category> categories = new ArrayList<>();
+        for (String name : new String[]{"phones", "laptops", "tablets", "watches"}) {
+            Category category = new Category();
+            category.setName(name);
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static FilterDto filter(String key, String... values) {
+        FilterDto filter = new FilterDto();
+        filter.setKey(key);
+        filter.setValues(List.of(values));
+        return filter;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ Time taken by ProductSearchIndex.searchWithFacets to filter 100k search candidates (blank query) and count all the facets (target: under 5 ms).
+ Run with --> java -cp <test classpath> org.example.productService.benchmarks.FacetedSearchBenchmark
+ It's a plain warm-up + measure loop (no JMH), so treat the numbers as indicative rather than absolute.
+*/
+
+package org.example.productService.benchmarks;
+
+import org.example.productService.dtos.search.FilterDto;
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+import org.example.productService.services.indexingService.ProductSearchIndex;
+import org.example.productService.services.parallelService.SearchParallelism;
+import org.example.productService.services.planningService.SearchPlan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class FacetedSearchBenchmark {
+    private static final int CANDIDATES = 100_000;
+    private static final int WARMUP_ROUNDS = 50;
+    private static final int MEASURED_ROUNDS = 100;
+
+    private static final String[] BRANDS = {"apple", "samsung", "google", "oneplus", "xiaomi", "sony", "lenovo", "dell", "hp", "asus"};
+    private static final String[] OPERATING_SYSTEMS = {"ios", "android", "macos", "windows", "linux"};
+    private static final String[] RAMS = {"4GB", "8GB", "16GB", "32GB"};
+    private static final String[] CATEGORIES = {"phones", "laptops", "tablets", "watches", "headphones", "cameras"};
+
+    public static void main(String[] args) {
+        ProductSearchIndex productSearchIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+        productSearchIndex.indexAll(sampleProducts());
+        SearchPlan plan = SearchPlan.compile(List.of(filter("brand", "apple", "samsung"), filter("lowPrice", "200"), filter("ram", "8GB", "16GB")), null);
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++)
+            productSearchIndex.searchWithFacets("", plan);
+
+        long totalNanos = 0;
+        int results = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            results = productSearchIndex.searchWithFacets("", plan).ordinals().length;
+            totalNanos += System.nanoTime() - start;
+        }
+
+        System.out.printf("%d candidates, %d results, %.2f ms per search with facets%n", CANDIDATES, results, totalNanos / (double) MEASURED_ROUNDS / 1_000_000);
+    }
+
+    private static List<Product> sampleProducts() {
+        Random random = new Random(42);
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            Category category = new Category();
+            category.setId((long) i + 1);
+            category.setName(CATEGORIES[i]);
+            categories.add(category);
+        }
+
+        List<Product> products = new ArrayList<>(CANDIDATES);
+        for (int i = 0; i < CANDIDATES; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setTitle("Product " + i);
+            product.setBrand(BRANDS[random.nextInt(BRANDS.length)]);
+            product.setOs(OPERATING_SYSTEMS[random.nextInt(OPERATING_SYSTEMS.length)]);
+            product.setRam(RAMS[random.nextInt(RAMS.length)]);
+            product.setPrice(10 + random.nextInt(300_000) / 100D);
+            product.setCategory(categories.get(random.nextInt(categories.size())));
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static FilterDto filter(String key, String... values) {
+        FilterDto filter = new FilterDto();
+        filter.setKey(key);
+        filter.setValues(List.of(values));
+        return filter;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ Scaling of the parallel filter + sort pipeline of the search index (SearchParallelism) with the number of fork-join workers, from 1 (sequential) to the number of cores.
+ Each round filters 500k candidates with a price range (tested per document) and selects the first page of 20 by price.
+ Run with --> java -cp <test classpath> org.example.productService.benchmarks.ParallelSearchBenchmark [maxWorkers]
+ It's a plain warm-up + measure loop (no JMH), so treat the numbers as indicative rather than absolute.
+*/
+
+package org.example.productService.benchmarks;
+
+import org.example.productService.dtos.search.FilterDto;
+import org.example.productService.dtos.search.SortingCriteria;
+import org.example.productService.models.Product;
+import org.example.productService.services.facetingService.FacetedProducts;
+import org.example.productService.services.indexingService.ProductSearchIndex;
+import org.example.productService.services.parallelService.SearchParallelism;
+import org.example.productService.services.planningService.SearchPlan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ParallelSearchBenchmark {
+    private static final int CANDIDATES = 500_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    public static void main(String[] args) {
+        int maxWorkers = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        List<Product> products = sampleProducts();
+        SearchPlan plan = SearchPlan.compile(List.of(filter("lowPrice", "100"), filter("highPrice", "2500")), SortingCriteria.PRICE_LOW_TO_HIGH);
+
+        System.out.printf("%d candidates, %d cores%n", CANDIDATES, Runtime.getRuntime().availableProcessors());
+        double sequentialMillis = 0;
+        for (int workers = 1; workers <= maxWorkers; workers = workers < 4 ? workers + 1 : workers * 2) {
+            SearchParallelism parallelism = new SearchParallelism(workers, 1);
+            try {
+                ProductSearchIndex productSearchIndex = new ProductSearchIndex(null, parallelism, true);
+                productSearchIndex.indexAll(products);
+
+                for (int round = 0; round < WARMUP_ROUNDS; round++)
+                    search(productSearchIndex, plan, parallelism);
+
+                long start = System.nanoTime();
+                for (int round = 0; round < MEASURED_ROUNDS; round++)
+                    search(productSearchIndex, plan, parallelism);
+                double millis = (System.nanoTime() - start) / (double) MEASURED_ROUNDS / 1_000_000;
+
+                if (workers == 1)
+                    sequentialMillis = millis;
+                System.out.printf("%3d workers: %7.2f ms per search, speedup %.2fx%n", workers, millis, sequentialMillis / millis);
+            }
+            finally {
+                parallelism.shutdown();
+            }
+        }
+    }
+
+    private static int[] search(ProductSearchIndex productSearchIndex, SearchPlan plan, SearchParallelism parallelism) {
+        FacetedProducts facetedProducts = productSearchIndex.searchWithFacets("", plan);
+        return plan.sortFirst(facetedProducts.catalog(), facetedProducts.ordinals(), PAGE_SIZE, parallelism);
+    }
+
+    private static List<Product> sampleProducts() {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(CANDIDATES);
+        for (int i = 0; i < CANDIDATES; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setTitle("Product " + i);
+            product.setPrice(10 + random.nextInt(300_000) / 100D);
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static FilterDto filter(String key, String... values) {
+        FilterDto filter = new FilterDto();
+        filter.setKey(key);
+        filter.setValues(List.of(values));
+        return filter;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ Compares the cached product representations on encoded size and encode/decode time:
+    1. ProductCodec - Compact binary layout used for the Redis values
+    2. JSON - Jackson ObjectMapper
+    3. JDK serialization - What RedisTemplate used by default. Product isn't Serializable, so a Serializable record with the same fields is used instead.
+ Run with --> java -cp <test classpath> org.example.productService.benchmarks.ProductCodecBenchmark
+ It's a plain warm-up + measure loop (no JMH), so treat the numbers as relative to each other rather than absolute.
+*/
+
+package org.example.productService.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+import org.example.productService.services.cachingService.ProductCodec;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductCodecBenchmark {
+    private static final int PRODUCTS = 1_000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    private record SerializableProduct(Long id, String title, String description, Double price, String imageUrl,
+                                       String brand, String os, String ram, Long categoryId, String categoryName) implements Serializable {
+        static SerializableProduct fromProduct(Product product) {
+            return new SerializableProduct(product.getId(), product.getTitle(), product.getDescription(), product.getPrice(), product.getImageUrl(),
+                    product.getBrand(), product.getOs(), product.getRam(), product.getCategory().getId(), product.getCategory().getName());
+        }
+    }
+
+    private interface Codec {
+        byte[] encode(Product product) throws Exception;
+        Object decode(byte[] bytes) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Product> products = sampleProducts();
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        System.out.printf("%-20s %12s %14s %14s%n", "Format", "Avg bytes", "Encode ns/op", "Decode ns/op");
+        run("ProductCodec", products, new Codec() {
+            public byte[] encode(Product product) { return ProductCodec.encode(product); }
+            public Object decode(byte[] bytes) { return ProductCodec.decode(bytes); }
+        });
+        run("JSON (Jackson)", products, new Codec() {
+            public byte[] encode(Product product) throws Exception { return objectMapper.writeValueAsBytes(product); }
+            public Object decode(byte[] bytes) throws Exception { return objectMapper.readValue(bytes, Product.class); }
+        });
+        run("JDK serialization", products, new Codec() {
+            public byte[] encode(Product product) throws Exception {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+                    output.writeObject(SerializableProduct.fromProduct(product));
+                }
+                return bytes.toByteArray();
+            }
+            public Object decode(byte[] bytes) throws Exception {
+                try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return input.readObject();
+                }
+            }
+        });
+    }
+
+    private static void run(String name, List<Product> products, Codec codec) throws Exception {
+        List<byte[]> encoded = new ArrayList<>(products.size());
+        for (Product product : products)
+            encoded.add(codec.encode(product));
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++)
+            roundTrip(products, encoded, codec);
+
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long[] nanos = roundTrip(products, encoded, codec);
+            encodeNanos += nanos[0];
+            decodeNanos += nanos[1];
+        }
+
+        long totalBytes = encoded.stream().mapToLong(bytes -> bytes.length).sum();
+        long operations = (long) products.size() * MEASURED_ROUNDS;
+        System.out.printf("%-20s %12d %14d %14d%n", name, totalBytes / products.size(), encodeNanos / operations, decodeNanos / operations);
+    }
+
+    private static long[] roundTrip(List<Product> products, List<byte[]> encoded, Codec codec) throws Exception {
+        Object sink = null;     // Keeps the JIT from removing the work as dead code
+
+        long start = System.nanoTime();
+        for (Product product : products)
+            sink = codec.encode(product);
+        long encodeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (byte[] bytes : encoded)
+            sink = codec.decode(bytes);
+        long decodeNanos = System.nanoTime() - start;
+
+        if (sink == null)
+            throw new IllegalStateException();
+        return new long[] {encodeNanos, decodeNanos};
+    }
+
+    private static List<Product> sampleProducts() {
+        String[] brands = {"Apple", "Samsung", "OnePlus", "Google"};
+        List<Product> products = new ArrayList<>(PRODUCTS);
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Category category = new Category();
+            category.setId((long) (i % 10));
+            category.setName("category-" + (i % 10));
+
+            Product product = new Product();
+            product.setId((long) i);
+            product.setTitle("Product " + i);
+            product.setDescription("Description of product " + i + " with a few more words to look like a real one");
+            product.setPrice(10.0 + i);
+            product.setImageUrl("https://fakestoreapi.com/img/" + i + ".jpg");
+            product.setBrand(brands[i % brands.length]);
+            product.setOs(i % 2 == 0 ? "Android" : "iOS");
+            product.setRam((4 << (i % 3)) + "GB");
+            product.setCategory(category);
+            products.add(product);
+        }
+
+        return products;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ Time and memory taken to rank 100k search candidates by relevance (BM25 scoring in ProductSearchIndex + popularity boost and top-k in RankingEngine) for the first page.
+ Run with --> java -cp <test classpath> org.example.productService.benchmarks.RankingBenchmark
+ Allocations are read from the JVM's per-thread allocation counter. It's a plain warm-up + measure loop (no JMH), so treat the numbers as indicative rather than absolute.
+*/
+
+package org.example.productService.benchmarks;
+
+import org.example.productService.dtos.search.SortingCriteria;
+import org.example.productService.models.Product;
+import org.example.productService.services.facetingService.FacetedProducts;
+import org.example.productService.services.indexingService.ProductSearchIndex;
+import org.example.productService.services.parallelService.SearchParallelism;
+import org.example.productService.services.planningService.SearchPlan;
+import org.example.productService.services.rankingService.PopularityTracker;
+import org.example.productService.services.rankingService.RankingEngine;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class RankingBenchmark {
+    private static final int CANDIDATES = 100_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP_ROUNDS = 50;
+    private static final int MEASURED_ROUNDS = 100;
+
+    private static final String[] WORDS = {"apple", "samsung", "case", "charger", "fast", "slim", "pro", "max", "mini", "wireless", "screen", "battery"};
+
+    public static void main(String[] args) {
+        ProductSearchIndex productSearchIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+        productSearchIndex.indexAll(sampleProducts());
+        SearchPlan plan = SearchPlan.compile(null, SortingCriteria.RELEVANCE);
+
+        // Popularity straight from the id instead of the Redis backed counters (the log is computed per call here, once per flush in PopularityTracker)
+        RankingEngine rankingEngine = new RankingEngine(new PopularityTracker(null, null, null, 0, 0) {
+            @Override
+            public float getPopularity(long productId) {
+                return productId % 97;
+            }
+
+            @Override
+            public float getLogPopularity(long productId) {
+                return (float) Math.log1p(productId % 97);
+            }
+        });
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++)
+            rankingEngine.rankFirst(productSearchIndex.searchWithFacets("phone", plan), SortingCriteria.RELEVANCE, PAGE_SIZE);
+
+        long searchNanos = 0, rankNanos = 0, rankBytes = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            FacetedProducts facetedProducts = productSearchIndex.searchWithFacets("phone", plan);
+            long searched = System.nanoTime();
+            long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+            rankingEngine.rankFirst(facetedProducts, SortingCriteria.RELEVANCE, PAGE_SIZE);
+            rankBytes += threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+            rankNanos += System.nanoTime() - searched;
+            searchNanos += searched - start;
+        }
+
+        System.out.printf("%d candidates: %.2f ms per search with BM25 scores, %.2f ms and %d bytes per ranking of the first %d%n",
+                CANDIDATES, searchNanos / (double) MEASURED_ROUNDS / 1_000_000, rankNanos / (double) MEASURED_ROUNDS / 1_000_000, rankBytes / MEASURED_ROUNDS, PAGE_SIZE);
+    }
+
+    // Every product matches "phone", with random titles and descriptions of varying lengths
+    private static List<Product> sampleProducts() {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(CANDIDATES);
+        for (int i = 0; i < CANDIDATES; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setTitle(WORDS[random.nextInt(WORDS.length)] + (random.nextInt(3) == 0 ? " phone " : " ") + WORDS[random.nextInt(WORDS.length)]);
+
+            StringBuilder description = new StringBuilder("phone");
+            for (int word = random.nextInt(20); word >= 0; word--)
+                description.append(' ').append(random.nextInt(4) == 0 ? "phone" : WORDS[random.nextInt(WORDS.length)]);
+            product.setDescription(description.toString());
+            product.setPrice(10 + random.nextInt(300_000) / 100D);
+            products.add(product);
+        }
+        return products;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ Compares filtering + sorting 100k search documents:
+    1. Chained lists - What the search did before the search plans: a new filter object and a new List per filter (Filter.applyFilter), then a sorted copy (Sorter.applySorting)
+    2. Search plan - Compiled once (plan cache), fused predicates in one pass into one list, sorted in place
+ Run with --> java -cp <test classpath> org.example.productService.benchmarks.SearchPlanBenchmark [chained|plan]
+ Pass one pipeline per run to measure each in a fresh JVM: running both in one JVM lets the first one shape the JIT profile of the shared code (comparators, predicates) for the second.
+ It's a plain warm-up + measure loop (no JMH), so treat the numbers as relative to each other rather than absolute.
+*/
+
+package org.example.productService.benchmarks;
+
+import org.example.productService.dtos.search.FilterDto;
+import org.example.productService.dtos.search.SortingCriteria;
+import org.example.productService.models.Product;
+import org.example.productService.services.filteringService.FilterFactory;
+import org.example.productService.services.planningService.SearchPlan;
+import org.example.productService.services.planningService.SearchPlanCache;
+import org.example.productService.services.sortingService.SorterFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+public class SearchPlanBenchmark {
+    private static final int DOCUMENTS = 100_000;
+    private static final int WARMUP_ROUNDS = 50;
+    private static final int MEASURED_ROUNDS = 100;
+
+    private static final String[] BRANDS = {"apple", "samsung", "google", "oneplus", "xiaomi", "sony", "lenovo", "dell", "hp", "asus"};
+    private static final String[] OPERATING_SYSTEMS = {"ios", "android", "macos", "windows", "linux"};
+    private static final String[] RAMS = {"4GB", "8GB", "16GB", "32GB"};
+
+    public static void main(String[] args) {
+        List<Product> documents = sampleProducts();
+        List<FilterDto> filters = List.of(filter("lowPrice", "200"), filter("highPrice", "2500"), filter("os", "android", "ios", "windows"), filter("ram", "8GB", "16GB", "32GB"));
+        SortingCriteria sortingCriteria = SortingCriteria.PRICE_LOW_TO_HIGH;
+        SearchPlanCache searchPlanCache = new SearchPlanCache(100);
+
+        String pipeline = args.length > 0 ? args[0] : "all";
+
+        System.out.printf("%-16s %10s %10s%n", "Pipeline", "ms/search", "Results");
+        if (!pipeline.equals("plan"))
+            run("Chained lists", () -> {
+                List<Product> products = documents;
+                for (FilterDto filter : filters)
+                    products = FilterFactory.getFilterFromKey(filter.getKey()).applyFilter(products, filter.getValues());
+                return SorterFactory.getSorterByCriteria(sortingCriteria).applySorting(products);
+            });
+        if (!pipeline.equals("chained"))
+            run("Search plan", () -> searchPlanCache.getPlan(filters, sortingCriteria).execute(documents));
+    }
+
+    private static void run(String name, Supplier<List<Product>> search) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++)
+            search.get();
+
+        long totalNanos = 0;
+        int results = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            results = search.get().size();
+            totalNanos += System.nanoTime() - start;
+        }
+
+        System.out.printf("%-16s %10.2f %10d%n", name, totalNanos / (double) MEASURED_ROUNDS / 1_000_000, results);
+    }
+
+    private static List<Product> sampleProducts() {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setBrand(BRANDS[random.nextInt(BRANDS.length)]);
+            product.setOs(OPERATING_SYSTEMS[random.nextInt(OPERATING_SYSTEMS.length)]);
+            product.setRam(RAMS[random.nextInt(RAMS.length)]);
+            product.setPrice(10 + random.nextInt(300_000) / 100D);
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static FilterDto filter(String key, String... values) {
+        FilterDto filter = new FilterDto();
+        filter.setKey(key);
+        filter.setValues(List.of(values));
+        return filter;
+    }
+}
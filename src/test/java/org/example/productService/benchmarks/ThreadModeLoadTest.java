@@ -0,0 +1,135 @@
+/*
+ Load test comparing the request thread models: fixed platform thread pool (Tomcat default, 200 threads) vs one virtual thread per request (spring.threads.virtual.enabled=true).
+ Every request blocks for a while like ProductServiceFakeStoreImpl/ProductServiceDBImpl do on HTTP, Redis and JDBC calls. Reports the p50/p99 latency and the maximum number of requests being served at the same time.
+ Modes:
+    No arguments - Starts an in-process HTTP server once per thread model, with a handler blocking for BLOCKING_MILLIS (simulated upstream call), and drives it with the same load.
+    <url> - Drives an already running instance instead, e.g. http://localhost:8000/products/1, started once with VIRTUAL_THREADS_ENABLED=true and once with false (max concurrency isn't known from outside there).
+ Run with --> java -cp <test classpath> org.example.productService.benchmarks.ThreadModeLoadTest [url] [requests] [concurrency]
+*/
+
+package org.example.productService.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ThreadModeLoadTest {
+    private static final int PLATFORM_POOL_SIZE = 200;     // Tomcat's default server.tomcat.threads.max
+    private static final long BLOCKING_MILLIS = 50;
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : null;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+
+        System.out.printf("%-28s %10s %10s %10s %16s%n", "Thread model", "req/s", "p50 ms", "p99 ms", "max concurrency");
+
+        if (url != null) {
+            report(url, drive(URI.create(url), requests, concurrency), -1);
+            return;
+        }
+
+        runAgainstLocalServer("Platform (" + PLATFORM_POOL_SIZE + " threads)", Executors.newFixedThreadPool(PLATFORM_POOL_SIZE), requests, concurrency);
+        runAgainstLocalServer("Virtual (thread per request)", Executors.newVirtualThreadPerTaskExecutor(), requests, concurrency);
+    }
+
+    private static void runAgainstLocalServer(String name, ExecutorService serverExecutor, int requests, int concurrency) throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), concurrency);
+        server.setExecutor(serverExecutor);
+        server.createContext("/products/1", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(BLOCKING_MILLIS);  // Blocking upstream call
+                byte[] body = "{\"id\":1}".getBytes();
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+            catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/products/1");
+            drive(uri, Math.min(requests, concurrency), concurrency);      // Warm-up
+            maxInFlight.set(0);
+            report(name, drive(uri, requests, concurrency), maxInFlight.get());
+        }
+        finally {
+            server.stop(0);
+            serverExecutor.shutdownNow();
+        }
+    }
+
+    // Closed-loop load: `concurrency` virtual client threads, each sending its next request as soon as the previous one is answered
+    private static Result drive(URI uri, int requests, int concurrency) throws Exception {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(clients.submit(() -> {
+                    int index;
+                    while ((index = next.getAndIncrement()) < requests) {
+                        long sent = System.nanoTime();
+                        try {
+                            client.send(request, HttpResponse.BodyHandlers.discarding());
+                        }
+                        catch (IOException exception) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[index] = System.nanoTime() - sent;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (failures.get() > 0)
+            System.out.println(failures.get() + " requests failed");
+        return new Result(latencies, elapsed);
+    }
+
+    private static void report(String name, Result result, int maxConcurrency) {
+        long[] sorted = result.latencies().clone();
+        Arrays.sort(sorted);
+
+        double requestsPerSecond = sorted.length / (result.elapsedNanos() / 1e9);
+        System.out.printf("%-28s %10.0f %10.1f %10.1f %16s%n", name, requestsPerSecond,
+                percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6,
+                maxConcurrency < 0 ? "n/a" : String.valueOf(maxConcurrency));
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private record Result(long[] latencies, long elapsedNanos) {
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ Compares sorting all the matches with TopK.select for the first k of them (k = pageNumber * pageSize), on 100k search documents sorted by price.
+ Run with --> java -cp <test classpath> org.example.productService.benchmarks.TopKBenchmark
+ It's a plain warm-up + measure loop (no JMH), so treat the numbers as relative to each other rather than absolute.
+*/
+
+package org.example.productService.benchmarks;
+
+import org.example.productService.models.Product;
+import org.example.productService.services.sortingService.PriceLowToHighSorter;
+import org.example.productService.services.sortingService.Sorter;
+import org.example.productService.services.sortingService.TopK;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+public class TopKBenchmark {
+    private static final int DOCUMENTS = 100_000;
+    private static final int WARMUP_ROUNDS = 30;
+    private static final int MEASURED_ROUNDS = 50;
+
+    public static void main(String[] args) {
+        List<Product> documents = sampleProducts();
+        Sorter sorter = new PriceLowToHighSorter();
+
+        System.out.printf("%-22s %10s%n", "Sorting", "ms/search");
+        run("Full sort", () -> {
+            List<Product> sorted = new ArrayList<>(documents);
+            sorted.sort(sorter.getComparator());
+            return sorted;
+        });
+        for (int k : new int[]{20, 200, 2_000, 25_000, 50_000})
+            run("Top-k, k = " + k, () -> TopK.select(documents, k, sorter.getComparator()));
+    }
+
+    private static void run(String name, Supplier<List<Product>> sorting) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++)
+            sorting.get();
+
+        long totalNanos = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            sorting.get();
+            totalNanos += System.nanoTime() - start;
+        }
+
+        System.out.printf("%-22s %10.2f%n", name, totalNanos / (double) MEASURED_ROUNDS / 1_000_000);
+    }
+
+    private static List<Product> sampleProducts() {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setPrice(10 + random.nextInt(300_000) / 100D);
+            products.add(product);
+        }
+        return products;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ Time till a new instance serves searches from the index for a 1M product catalog: building the index from the products (tokenizing every one of them, the database read not included)
+ versus loading a snapshot file written by a running instance (memory-mapped), plus the heap taken by the index in both cases and the time of the first search.
+ Run with --> java -Xmx2g -cp <test classpath> org.example.productService.benchmarks.WarmStartBenchmark
+ Load time depends on the page cache: right after the write the file is still cached, a cold disk adds its read time.
+*/
+
+package org.example.productService.benchmarks;
+
+import org.example.productService.dtos.search.FilterDto;
+import org.example.productService.dtos.search.SortingCriteria;
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+import org.example.productService.services.facetingService.FacetedProducts;
+import org.example.productService.services.indexingService.ProductSearchIndex;
+import org.example.productService.services.parallelService.SearchParallelism;
+import org.example.productService.services.planningService.SearchPlan;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class WarmStartBenchmark {
+    private static final int PRODUCTS = 1_000_000;
+
+    private static final String[] BRANDS = {"apple", "samsung", "google", "oneplus", "xiaomi", "sony", "lenovo", "dell", "hp", "asus"};
+    private static final String[] OPERATING_SYSTEMS = {"ios", "android", "macos", "windows", "linux"};
+    private static final String[] RAMS = {"4GB", "8GB", "16GB", "32GB"};
+    private static final String[] CATEGORIES = {"phones", "laptops", "tablets", "watches"};
+    private static final String[] WORDS = {"phone", "laptop", "tablet", "watch", "pro", "max", "mini", "slim", "wireless", "fast"};
+
+    public static void main(String[] args) throws Exception {
+        Path path = Files.createTempFile("product-search-index", ".snapshot");
+        try {
+            long baseline = usedHeap();
+            long start = System.nanoTime();
+            ProductSearchIndex builtIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+            Random random = new Random(42);
+            List<Product> batch = new ArrayList<>(10_000);
+            for (int i = 0; i < PRODUCTS; i++) {
+                batch.add(product(i + 1, random));
+                if (batch.size() == 10_000) {
+                    builtIndex.indexAll(batch);
+                    batch.clear();
+                }
+            }
+            double buildMillis = millisSince(start);
+            long builtBytes = usedHeap() - baseline;
+
+            start = System.nanoTime();
+            builtIndex.writeSnapshot(path);
+            double writeMillis = millisSince(start);
+            builtIndex = null;
+
+            baseline = usedHeap();
+            start = System.nanoTime();
+            ProductSearchIndex loadedIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+            loadedIndex.loadSnapshot(path, Duration.ofHours(1));
+            loadedIndex.markReady();        // No database to catch up with here
+            double loadMillis = millisSince(start);
+
+            start = System.nanoTime();
+            int results = search(loadedIndex);
+            double firstSearchMillis = millisSince(start);
+            long loadedBytes = usedHeap() - baseline;
+
+            System.out.printf("%d products: built in %.0f ms (%.1f MB of heap), snapshot of %.1f MB written in %.0f ms%n",
+                    PRODUCTS, buildMillis, builtBytes / 1_048_576.0, Files.size(path) / 1_048_576.0, writeMillis);
+            System.out.printf("Loaded from the snapshot in %.0f ms (%.1f MB of heap), first search in %.1f ms (%d results)%n",
+                    loadMillis, loadedBytes / 1_048_576.0, firstSearchMillis, results);
+        }
+        finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static int search(ProductSearchIndex productSearchIndex) {
+        SearchPlan plan = SearchPlan.compile(List.of(filter("lowPrice", "100"), filter("highPrice", "2500")), SortingCriteria.PRICE_LOW_TO_HIGH);
+        FacetedProducts facetedProducts = productSearchIndex.searchWithFacets("phone", plan);
+        plan.sortFirst(facetedProducts.catalog(), facetedProducts.ordinals(), 20, SearchParallelism.sequential());
+        return facetedProducts.ordinals().length;
+    }
+
+    private static Product product(long id, Random random) {
+        Category category = new Category();
+        category.setName(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+        product.setBrand(BRANDS[random.nextInt(BRANDS.length)]);
+        product.setOs(OPERATING_SYSTEMS[random.nextInt(OPERATING_SYSTEMS.length)]);
+        product.setRam(RAMS[random.nextInt(RAMS.length)]);
+        product.setPrice(10 + random.nextInt(300_000) / 100D);
+        product.setCategory(category);
+        return product;
+    }
+
+    private static double millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static FilterDto filter(String key, String... values) {
+        FilterDto filter = new FilterDto();
+        filter.setKey(key);
+        filter.setValues(List.of(values));
+        return filter;
+    }
+}
@@ -43,22 +43,32 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.productService.dtos.product.CreateProductRequestDto;
 import org.example.productService.dtos.product.GetAllProductsResponseDto;
 import org.example.productService.dtos.product.GetProductDto;
+import org.example.productService.exception.ProductNotFoundException;
 import org.example.productService.models.Product;
 import org.example.productService.services.ProductService;
+import org.example.productService.services.rankingService.PopularityTracker;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -76,6 +86,9 @@ public class ProductControllerMvcTest {
    @MockBean
    private RestTemplate restTemplate;  // To remove the constructor error while mocking ProductController class
 
+   @MockBean
+   private PopularityTracker popularityTracker;
+
     @Autowired
     private ObjectMapper objectMapper;
     //object <-> json <-> string
@@ -121,6 +134,118 @@ public class ProductControllerMvcTest {
     }
 
 
+    @Test
+    public void TestGetProductsByIds_ReturnsProductsInOrderOfIds() throws Exception {
+        Product iphone = new Product();
+        iphone.setId(1L);
+        iphone.setTitle("Iphone 16");
+        iphone.setPrice(1000D);
+
+        Product pixel = new Product();
+        pixel.setId(3L);
+        pixel.setTitle("Pixel 9");
+        pixel.setPrice(800D);
+
+        when(productService.getProductsByIds(List.of(3L, 2L, 1L))).thenReturn(List.of(pixel, iphone));    // Product 2 doesn't exist
+
+        mockMvc.perform(get("/products/bulk").param("ids", "3,2,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products", hasSize(2)))
+                .andExpect(jsonPath("$.products[0].id").value(3))
+                .andExpect(jsonPath("$.products[1].id").value(1));
+    }
+
+    @Test
+    public void TestCreateProducts_ReturnsIdsInOrderOfRequest() throws Exception {
+        when(productService.createProducts(any())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            long nextId = 100;
+            for (Product product : products)
+                if (product.getId() == null)
+                    product.setId(nextId++);
+            return products;
+        });
+
+        String requestBody = """
+                {"products": [
+                    {"title": "Iphone 16", "price": 1000, "categoryName": "phones"},
+                    {"id": 7, "title": "Pixel 9", "price": 800, "categoryName": "phones"}
+                ]}""";
+
+        mockMvc.perform(post("/products/bulk").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.ids[0]").value(100))
+                .andExpect(jsonPath("$.ids[1]").value(7));
+    }
+
+    @Test
+    public void TestExportAllProducts_WhenNdjsonIsAccepted_StreamsOneProductPerLine() throws Exception {
+        Product iphone = new Product();
+        iphone.setId(1L);
+        iphone.setTitle("Iphone 16");
+        iphone.setPrice(1000D);
+
+        Product macBook = new Product();
+        macBook.setId(2L);
+        macBook.setTitle("MacBook Pro");
+        macBook.setPrice(2000D);
+
+        // Hand both the products to the consumer passed by the controller
+        doAnswer(invocation -> {
+            Consumer<Product> action = invocation.getArgument(0);
+            action.accept(iphone);
+            action.accept(macBook);
+            return null;
+        }).when(productService).streamAllProducts(any());
+
+        // StreamingResponseBody is written asynchronously, hence dispatch the async result before asserting
+        MvcResult mvcResult = mockMvc.perform(get("/products/").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Iphone 16", objectMapper.readValue(lines[0], GetProductDto.class).getTitle());
+        assertEquals("MacBook Pro", objectMapper.readValue(lines[1], GetProductDto.class).getTitle());
+    }
+
+    @Test
+    public void TestRecordOrder_WhenProductDoesNotExist_IsNotCounted() throws Exception {
+        when(productService.getProductById(404L)).thenThrow(new ProductNotFoundException("Product with id: 404 doesn't exist"));
+
+        mockMvc.perform(post("/products/404/orders"))
+                .andExpect(status().isNotFound());
+
+        verify(popularityTracker, never()).recordOrder(any());
+    }
+
+    @Test
+    public void TestRecordOrder_WhenCapIsReached_ReturnsTooManyRequests() throws Exception {
+        Product iphone = new Product();
+        iphone.setId(1L);
+        when(productService.getProductById(1L)).thenReturn(iphone);
+        when(popularityTracker.recordOrder(1L)).thenReturn(true, false);
+
+        mockMvc.perform(post("/products/1/orders"))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(post("/products/1/orders"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    public void TestGetProductsWindow_WhenSortingByRating_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/products/").param("limit", "20").param("sortingCriteria", "RATING_HIGH_TO_LOW"))
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never()).getProductsAfter(any(), any(), anyInt());
+    }
+
     @Test
     public void TestCreateProduct_RunsSuccessfully() throws Exception {
         CreateProductRequestDto productDto = new CreateProductRequestDto();
@@ -0,0 +1,77 @@
+package org.example.productService.controllers;
+
+import org.example.productService.exception.ProductNotFoundException;
+import org.example.productService.models.Product;
+import org.example.productService.services.ReactiveProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReactiveProductController.class)
+public class ReactiveProductControllerMvcTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReactiveProductService reactiveProductService;
+
+    @Test
+    public void TestGetSingleProduct_WhenProductIsFound_ReturnsProductAsynchronously() throws Exception {
+        when(reactiveProductService.getProductById(1L)).thenReturn(Mono.just(product(1L, "Iphone 16")));
+
+        MvcResult mvcResult = mockMvc.perform(get("/reactive/products/1"))
+                .andExpect(request().asyncStarted())    // Request thread released while the Mono is pending
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.title").value("Iphone 16"));
+    }
+
+    @Test
+    public void TestGetSingleProduct_WhenProductIsMissing_ReturnsErrorResponse() throws Exception {
+        when(reactiveProductService.getProductById(2L)).thenReturn(Mono.error(new ProductNotFoundException("Product with id: 2 doesn't exist.")));
+
+        MvcResult mvcResult = mockMvc.perform(get("/reactive/products/2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(content().string("something went wrong"));     // Checked exceptions are handled by ExceptionAdvices.handleException
+    }
+
+    @Test
+    public void TestGetAllProducts_ReturnsJsonArray() throws Exception {
+        when(reactiveProductService.getAllProducts()).thenReturn(Flux.just(product(1L, "Iphone 16"), product(2L, "Pixel 9")));
+
+        MvcResult mvcResult = mockMvc.perform(get("/reactive/products").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].title").value("Pixel 9"));
+    }
+
+    private static Product product(Long id, String title) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(title);
+        product.setPrice(1000D);
+        return product;
+    }
+}
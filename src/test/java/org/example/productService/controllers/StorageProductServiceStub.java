@@ -14,15 +14,19 @@
 
 package org.example.productService.controllers;
 
+import org.example.productService.dtos.search.SortingCriteria;
 import org.example.productService.exception.ProductNotFoundException;
 import org.example.productService.models.Product;
 import org.example.productService.services.ProductService;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 @Primary    // Now, ProductServiceFakeStoreImpl and ProductServiceDBImpl will not be called and rather StorageProductServiceStub will be called
@@ -39,6 +43,16 @@ public class StorageProductServiceStub implements ProductService {
         return null;
     }
 
+    @Override
+    public void streamAllProducts(Consumer<Product> action) {
+
+    }
+
+    @Override
+    public Window<Product> getProductsAfter(String cursor, SortingCriteria sortingCriteria, int limit) {
+        return null;
+    }
+
     @Override
     public Product partialUpdateProduct(Long productId, Product product) throws ProductNotFoundException {
         return null;
@@ -49,6 +63,16 @@ public class StorageProductServiceStub implements ProductService {
         return null;
     }
 
+    @Override
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        return List.of();
+    }
+
+    @Override
+    public List<Product> createProducts(List<Product> products) {
+        return List.of();
+    }
+
     @Override
     public Product createProduct(Product product) {
         return null;
@@ -0,0 +1,99 @@
+// Integration benchmark of the list read path: managed entities (entity graph) vs ProductSummary projections, both rendered into GetProductDto like ProductController does.
+// Reports latency and bytes allocated per listing of the catalog. Runs against the configured MySQL database, only when asked for --> mvn test -Dtest=ProductReadPathBenchmarkTest -Dbenchmarks=true
+// Inserted products are rolled back after the run by @DataJpaTest.
+
+package org.example.productService.services;
+
+import jakarta.persistence.EntityManager;
+import org.example.productService.dtos.product.GetProductDto;
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+import org.example.productService.repositories.ProductBulkRepository;
+import org.example.productService.repositories.ProductRepository;
+import org.example.productService.repositories.projections.ProductSummary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProductBulkRepository.class)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class ProductReadPathBenchmarkTest {
+    private static final int PRODUCTS = 10_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductBulkRepository productBulkRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    public void compareEntityAndProjectionListing() {
+        addProducts();
+
+        System.out.printf("%-24s %12s %18s%n", "Read path", "ms/op", "MB allocated/op");
+        measure("Entities (entity graph)", () -> productRepository.findAllForListing().stream().map(GetProductDto::fromProduct).toList());
+        measure("Projections", () -> productRepository.findAllSummaries().stream().map(summary -> GetProductDto.fromProduct(summary.toProduct())).toList());
+    }
+
+    private void measure(String name, Supplier<List<GetProductDto>> listing) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++)
+            runOnce(listing);
+
+        long nanos = 0;
+        long allocatedBytes = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            runOnce(listing);
+            nanos += System.nanoTime() - start;
+            allocatedBytes += threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        }
+
+        System.out.printf("%-24s %12.1f %18.1f%n", name, nanos / 1e6 / MEASURED_ROUNDS, allocatedBytes / 1e6 / MEASURED_ROUNDS);
+    }
+
+    // Every listing starts with an empty persistence context, like a new request
+    private void runOnce(Supplier<List<GetProductDto>> listing) {
+        entityManager.clear();
+        if (listing.get().size() < PRODUCTS)
+            throw new IllegalStateException("Listing didn't return the inserted products");
+    }
+
+    private void addProducts() {
+        Category category = new Category();
+        category.setName("read-path-benchmark-" + System.nanoTime());
+        entityManager.persist(category);
+        entityManager.flush();
+
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setTitle("Benchmark product " + i);
+            product.setDescription("Description of benchmark product " + i);
+            product.setPrice(10.0 + i);
+            product.setImageUrl("https://example.com/" + i + ".png");
+            product.setCategory(category);
+            products.add(product);
+        }
+
+        for (int from = 0; from < PRODUCTS; from += 1000)
+            productBulkRepository.insertAll(products.subList(from, Math.min(from + 1000, PRODUCTS)));
+    }
+}
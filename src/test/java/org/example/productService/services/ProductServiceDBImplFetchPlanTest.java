@@ -0,0 +1,78 @@
+// Runs against the configured MySQL database (like FakeStoreApplicationTests), changes are rolled back after every test by @DataJpaTest.
+// Hibernate statistics count the JDBC statements prepared while the products are listed and rendered, which has to stay the same whatever the number of products/categories (no N+1).
+
+package org.example.productService.services;
+
+import jakarta.persistence.EntityManager;
+import org.example.productService.dtos.product.GetProductDto;
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+import org.example.productService.repositories.CategoryCountRepository;
+import org.example.productService.repositories.CategoryUpsertRepository;
+import org.example.productService.repositories.ProductBulkRepository;
+import org.example.productService.services.cachingService.CategoryIdCache;
+import org.example.productService.services.countingService.CategoryCountDeltas;
+import org.example.productService.services.indexingService.ProductSearchIndex;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductServiceDBImpl.class, ProductBulkRepository.class, CategoryIdCache.class, CategoryUpsertRepository.class, CategoryCountDeltas.class, CategoryCountRepository.class, ProductSearchIndex.class})
+public class ProductServiceDBImplFetchPlanTest {
+    @Autowired
+    private ProductServiceDBImpl productService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    public void testGetAllProducts_WhenCatalogGrows_StatementCountStaysConstant() {
+        addProducts(5, 2);
+        long statementsForSmallCatalog = countStatementsOfListing();
+
+        addProducts(50, 20);
+        long statementsForLargeCatalog = countStatementsOfListing();
+
+        assertEquals(1, statementsForSmallCatalog);
+        assertEquals(statementsForSmallCatalog, statementsForLargeCatalog);
+    }
+
+    // Statements needed to list the products and render them like ProductController does
+    private long countStatementsOfListing() {
+        entityManager.flush();
+        entityManager.clear();     // Nothing served from the persistence context
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        productService.getAllProducts().forEach(GetProductDto::fromProduct);
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addProducts(int products, int categories) {
+        Category[] savedCategories = new Category[categories];
+        for (int i = 0; i < categories; i++) {
+            Category category = new Category();
+            category.setName("fetch-plan-category-" + System.nanoTime() + "-" + i);
+            entityManager.persist(category);
+            savedCategories[i] = category;
+        }
+
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setTitle("Fetch plan product " + i);
+            product.setPrice(10.0 + i);
+            product.setCategory(savedCategories[i % categories]);
+            entityManager.persist(product);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.productService.services;
+
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+import org.example.productService.services.cachingService.ProductCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ProductServiceFakeStoreImplTest {
+
+    @Test
+    public void testGetProductsByIds_WhenOneUpstreamCallFails_ReturnsTheOtherProducts() {
+        // Upstream answers product 2 with an error, the other ids with the product
+        WebClient.Builder webClientBuilder = WebClient.builder().exchangeFunction(request -> {
+            String id = request.url().getPath().substring("/products/".length());
+            if (id.equals("2"))
+                return Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body("{\"id\": " + id + ", \"title\": \"Product " + id + "\", \"price\": 10}")
+                    .build());
+        });
+        ProductCache productCache = mock(ProductCache.class);
+        when(productCache.getAll(any())).thenReturn(Map.of());
+        when(productCache.loadAll(any(), any())).thenAnswer(invocation -> {
+            Function<List<Long>, Map<Long, Product>> loader = invocation.getArgument(1);
+            return loader.apply(invocation.getArgument(0));    // Nothing in flight, every miss is fetched
+        });
+        ProductService productService = new ProductServiceFakeStoreImpl(webClientBuilder, mock(RestTemplate.class), productCache);
+
+        List<Product> products = productService.getProductsByIds(List.of(3L, 2L, 1L));
+
+        assertEquals(List.of(3L, 1L), products.stream().map(Product::getId).toList());
+        verify(productCache).loadAll(eq(List.of(3L, 2L, 1L)), any());
+    }
+
+    @Test
+    public void testCreateProducts_PostsEveryProductAndKeepsTheirOrder() {
+        // Upstream answers every post with a new id, the first product is answered last
+        AtomicLong nextId = new AtomicLong(20);
+        WebClient.Builder webClientBuilder = WebClient.builder().exchangeFunction(request -> {
+            long id = nextId.incrementAndGet();
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body("{\"id\": " + id + ", \"title\": \"Product " + id + "\", \"price\": 10}")
+                    .build())
+                    .delayElement(Duration.ofMillis(id == 21 ? 100 : 0));
+        });
+        ProductService productService = new ProductServiceFakeStoreImpl(webClientBuilder, mock(RestTemplate.class), mock(ProductCache.class));
+
+        List<Product> products = productService.createProducts(List.of(product("Phone"), product("Tablet"), product("Laptop")));
+
+        assertEquals(List.of(21L, 22L, 23L), products.stream().map(Product::getId).toList());
+    }
+
+    private static Product product(String title) {
+        Category category = new Category();
+        category.setName("electronics");
+        Product product = new Product();
+        product.setTitle(title);
+        product.setPrice(10.0);
+        product.setCategory(category);
+        return product;
+    }
+}
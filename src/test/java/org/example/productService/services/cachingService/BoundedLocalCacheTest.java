@@ -0,0 +1,53 @@
+package org.example.productService.services.cachingService;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedLocalCacheTest {
+
+    @Test
+    public void testPut_WhenMaxEntriesIsExceeded_EvictsLeastRecentlyUsedEntry() {
+        BoundedLocalCache<Long, String> cache = new BoundedLocalCache<>(2, Long.MAX_VALUE, Duration.ofMinutes(1), String::length);
+
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.get(1L);              // 2 is now the least recently used
+        cache.put(3L, "three");
+
+        assertEquals("one", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals("three", cache.get(3L));
+        assertEquals(1, cache.getCounters().getEvictions());
+        assertEquals(3, cache.getCounters().getHits());
+        assertEquals(1, cache.getCounters().getMisses());
+    }
+
+    @Test
+    public void testPut_WhenMaxWeightIsExceeded_EvictsTillWithinBounds() {
+        BoundedLocalCache<Long, String> cache = new BoundedLocalCache<>(100, 10, Duration.ofMinutes(1), String::length);
+
+        cache.put(1L, "aaaa");
+        cache.put(2L, "bbbb");
+        cache.put(3L, "cccc");      // Total weight 12 > 10
+
+        assertNull(cache.get(1L));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testGet_WhenEntryIsExpiredOrInvalidated_ReturnsNull() throws InterruptedException {
+        BoundedLocalCache<Long, String> cache = new BoundedLocalCache<>(100, 100, Duration.ofMillis(20), String::length);
+
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.invalidate(2L);
+        Thread.sleep(40);
+
+        assertNull(cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals(0, cache.size());
+    }
+}
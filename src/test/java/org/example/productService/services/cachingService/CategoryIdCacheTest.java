@@ -0,0 +1,68 @@
+package org.example.productService.services.cachingService;
+
+import org.example.productService.models.Category;
+import org.example.productService.repositories.CategoryRepository;
+import org.example.productService.repositories.CategoryUpsertRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class CategoryIdCacheTest {
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final CategoryUpsertRepository categoryUpsertRepository = mock(CategoryUpsertRepository.class);
+    private final CategoryIdCache categoryIdCache = new CategoryIdCache(categoryRepository, categoryUpsertRepository);
+
+    @Test
+    public void testGetOrCreateId_WhenCategoryWasWarmed_DoesNotHitDatabase() {
+        when(categoryRepository.findAll()).thenReturn(List.of(category(1L, "phones")));
+        categoryIdCache.warm();
+
+        assertEquals(1L, categoryIdCache.getOrCreateId("phones"));
+        verifyNoInteractions(categoryUpsertRepository);
+    }
+
+    @Test
+    public void testGetOrCreateId_WhenCategoryIsNew_UpsertsOnceAndCachesId() {
+        when(categoryUpsertRepository.getOrCreateIdByName("laptops")).thenReturn(5L);
+
+        assertEquals(5L, categoryIdCache.getOrCreateId("laptops"));
+        assertEquals(5L, categoryIdCache.getOrCreateId("laptops"));
+        verify(categoryUpsertRepository, times(1)).getOrCreateIdByName("laptops");
+    }
+
+    @Test
+    public void testGetOrCreateIds_CreatesOnlyNamesMissingFromDatabase() {
+        when(categoryRepository.findAllByNameIn(any())).thenReturn(List.of(category(2L, "phones")));
+        when(categoryUpsertRepository.getOrCreateIdByName(anyString())).thenReturn(9L);
+
+        Map<String, Long> ids = categoryIdCache.getOrCreateIds(List.of("phones", "tablets"));
+
+        assertEquals(Map.of("phones", 2L, "tablets", 9L), ids);
+        verify(categoryUpsertRepository, times(1)).getOrCreateIdByName("tablets");
+        verify(categoryUpsertRepository, never()).getOrCreateIdByName("phones");
+    }
+
+    @Test
+    public void testRefresh_WhenCategoryWasRenamed_CachesIdUnderNewNameOnly() {
+        when(categoryRepository.findAll()).thenReturn(List.of(category(1L, "phones")));
+        categoryIdCache.warm();
+
+        assertEquals("phones", categoryIdCache.refresh(1L, "smartphones"));
+        assertEquals(1L, categoryIdCache.getCachedId("smartphones"));
+        assertNull(categoryIdCache.getCachedId("phones"));
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.productService.services.cachingService;
+
+import org.example.productService.models.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ProductCacheTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetOrLoad_WhenHotL1EntryIsCloseToExpiry_RefreshesItInTheBackground() throws InterruptedException {
+        RedisTemplate<String, Product> redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(mock(ValueOperations.class));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(Arrays.asList(null, -2L));     // Not in Redis
+        // Huge beta: every read refreshes early
+        ProductCache productCache = new ProductCache(redisTemplate, mock(StringRedisTemplate.class), new SimpleAsyncTaskExecutor(), 100, 1_000_000, Duration.ofMinutes(5), Duration.ofHours(1), 1e12);
+
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch releaseRefresh = new CountDownLatch(1);
+        Product product = product(1L);
+
+        productCache.getOrLoad(1L, () -> {
+            sleep(2);
+            loads.incrementAndGet();
+            return product;
+        });
+
+        // L1 hit: answered with the cached product while the refresh is still blocked
+        Product cached = productCache.getOrLoad(1L, () -> {
+            refreshStarted.countDown();
+            await(releaseRefresh);
+            loads.incrementAndGet();
+            return product;
+        });
+
+        assertSame(product, cached);
+        assertTrue(refreshStarted.await(5, TimeUnit.SECONDS));
+        assertEquals(1, productCache.getEarlyRefreshes());
+        productCache.getOrLoad(1L, () -> fail("Product is already being refreshed"));    // One refresh at a time per product
+        releaseRefresh.countDown();
+
+        verify(redisTemplate, timeout(5_000).times(2)).opsForValue();     // Refreshed product written back to Redis
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetOrLoad_WhenProductIsInvalidatedDuringTheLoad_DoesNotCacheIt() throws Exception {
+        RedisTemplate<String, Product> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, Product> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(Arrays.asList(null, -2L));     // Not in Redis
+        ProductCache productCache = new ProductCache(redisTemplate, mock(StringRedisTemplate.class), new SimpleAsyncTaskExecutor(), 100, 1_000_000, Duration.ofMinutes(5), Duration.ofHours(1), 0);
+
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        Product stale = product(1L);
+
+        CompletableFuture<Product> load = CompletableFuture.supplyAsync(() -> productCache.getOrLoad(1L, () -> {
+            loadStarted.countDown();
+            await(releaseLoad);
+            return stale;       // Read before the write below
+        }));
+
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+        productCache.invalidate(1L);      // Write of the product while it is being loaded
+        releaseLoad.countDown();
+
+        assertSame(stale, load.get(5, TimeUnit.SECONDS));       // Caller still gets what was loaded
+        assertNull(productCache.getLocal(1L));
+        verify(valueOperations, never()).set(any(), any(), any(Duration.class));
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle("Iphone 16");
+        return product;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.productService.services.cachingService;
+
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCodecTest {
+
+    @Test
+    public void testDecode_WhenAllFieldsArePresent_ReturnsEqualProduct() {
+        Category category = new Category();
+        category.setId(7L);
+        category.setName("electronics");
+
+        Product product = new Product();
+        product.setId(42L);
+        product.setTitle("Phone – ünïcode");
+        product.setDescription("x".repeat(300));    // Length needs a multi-byte varint
+        product.setPrice(199.99);
+        product.setImageUrl("https://example.com/phone.png");
+        product.setBrand("Acme");
+        product.setOs("Android");
+        product.setRam("8GB");
+        product.setCategory(category);
+
+        Product decoded = ProductCodec.decode(ProductCodec.encode(product));
+
+        assertEquals(42L, decoded.getId());
+        assertEquals("Phone – ünïcode", decoded.getTitle());
+        assertEquals("x".repeat(300), decoded.getDescription());
+        assertEquals(199.99, decoded.getPrice());
+        assertEquals("https://example.com/phone.png", decoded.getImageUrl());
+        assertEquals("Acme", decoded.getBrand());
+        assertEquals("Android", decoded.getOs());
+        assertEquals("8GB", decoded.getRam());
+        assertEquals(7L, decoded.getCategory().getId());
+        assertEquals("electronics", decoded.getCategory().getName());
+    }
+
+    @Test
+    public void testDecode_WhenFieldsAreNull_KeepsThemNull() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setTitle("Bare");
+
+        byte[] encoded = ProductCodec.encode(product);
+        Product decoded = ProductCodec.decode(encoded);
+
+        assertEquals(1 + 2 + 8 + 1 + 4, encoded.length);     // version + bitmask + id + title length + title
+        assertEquals(1L, decoded.getId());
+        assertEquals("Bare", decoded.getTitle());
+        assertNull(decoded.getPrice());
+        assertNull(decoded.getDescription());
+        assertNull(decoded.getCategory());
+    }
+
+    @Test
+    public void testDeserialize_WhenVersionIsUnknown_ThrowsSerializationException() {
+        Product product = new Product();
+        product.setId(1L);
+        byte[] encoded = ProductCodec.encode(product);
+        encoded[0] = 99;
+
+        assertThrows(org.springframework.data.redis.serializer.SerializationException.class,
+                () -> new ProductRedisSerializer().deserialize(encoded));
+    }
+}
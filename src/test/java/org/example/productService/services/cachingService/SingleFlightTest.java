@@ -0,0 +1,113 @@
+package org.example.productService.services.cachingService;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testExecute_WhenCalledConcurrentlyForSameKey_LoadsOnce() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        int callers = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                loaderCalls.incrementAndGet();
+                loaderStarted.countDown();
+                await(releaseLoader);
+                return "product";
+            })));
+            loaderStarted.await();
+
+            for (int i = 1; i < callers; i++)
+                results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                    loaderCalls.incrementAndGet();
+                    return "duplicate";
+                })));
+
+            // Wait till all the other callers joined the in-flight load
+            while (singleFlight.getCoalesced() < callers - 1)
+                Thread.onSpinWait();
+            releaseLoader.countDown();
+
+            for (Future<String> result : results)
+                assertEquals("product", result.get(5, TimeUnit.SECONDS));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loaderCalls.get());
+        assertEquals(1, singleFlight.getLoads());
+    }
+
+    @Test
+    public void testExecute_WhenLoaderFails_RethrowsAndAllowsNextLoad() {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> singleFlight.execute(1L, () -> { throw new IllegalStateException("upstream down"); }));
+        assertEquals("upstream down", exception.getMessage());
+
+        assertEquals("product", singleFlight.execute(1L, () -> "product"));
+        assertEquals(2, singleFlight.getLoads());
+    }
+
+    @Test
+    public void testExecuteAll_WhenSomeKeysAreInFlight_JoinsThemAndLoadsTheOthersOnce() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        List<List<Long>> batches = new CopyOnWriteArrayList<>();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> single = executor.submit(() -> singleFlight.execute(1L, () -> {
+                loaderStarted.countDown();
+                await(releaseLoader);
+                return "product 1";
+            }));
+            loaderStarted.await();
+
+            CompletableFuture<Map<Long, String>> batch = CompletableFuture.supplyAsync(() -> singleFlight.executeAll(List.of(1L, 2L, 3L), keys -> {
+                batches.add(keys);
+                return Map.of(2L, "product 2");     // 3 doesn't exist
+            }));
+
+            // Wait till the batch joined the in-flight load of 1
+            while (singleFlight.getCoalesced() < 1)
+                Thread.onSpinWait();
+            releaseLoader.countDown();
+
+            assertEquals(Map.of(1L, "product 1", 2L, "product 2"), batch.get(5, TimeUnit.SECONDS));
+            assertEquals("product 1", single.get(5, TimeUnit.SECONDS));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(List.of(List.of(2L, 3L)), batches);
+        assertEquals(3, singleFlight.getLoads());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.productService.services.countingService;
+
+import org.example.productService.repositories.CategoryCountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class CategoryCountDeltasTest {
+    private final CategoryCountRepository categoryCountRepository = mock(CategoryCountRepository.class);
+    private final CategoryCountDeltas categoryCountDeltas = new CategoryCountDeltas(categoryCountRepository);
+
+    @AfterEach
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.unbindResourceIfPossible(categoryCountDeltas);
+    }
+
+    @Test
+    public void testRecord_InsideTransaction_AppliesSummedDeltasOnceBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        categoryCountDeltas.increment(1L);
+        categoryCountDeltas.increment(1L);
+        categoryCountDeltas.move(1L, 2L);
+        categoryCountDeltas.move(3L, 3L);     // Same category, no change
+        categoryCountDeltas.decrement(4L);
+        verifyNoInteractions(categoryCountRepository);
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.beforeCommit(false);
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        verify(categoryCountRepository, times(1)).applyDeltas(Map.of(1L, 1, 2L, 1, 4L, -1));
+    }
+
+    @Test
+    public void testRecord_WithoutTransaction_AppliesImmediately() {
+        categoryCountDeltas.increment(7L);
+
+        verify(categoryCountRepository).applyDeltas(Map.of(7L, 1));
+    }
+
+    @Test
+    public void testRecord_WhenTransactionRollsBack_DoesNotApplyDeltas() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        categoryCountDeltas.increment(1L);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(categoryCountRepository, never()).applyDeltas(any());
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.productService.services.indexingService;
+
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+import org.example.productService.services.parallelService.SearchParallelism;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogSnapshotTest {
+
+    @Test
+    public void testSnapshot_IsNotChangedByLaterAppends() {
+        CatalogColumns columns = new CatalogColumns(16);
+        columns.append(product(1L, 10D, "apple", "phones"));
+        CatalogSnapshot snapshot = columns.snapshot();
+
+        for (long id = 2; id <= 100; id++)     // Grows the arrays and the dictionaries past their initial capacity
+            columns.append(product(id, null, "brand" + id, "category" + id));
+
+        assertEquals(1, snapshot.size());
+        assertEquals(1L, snapshot.getId(0));
+        assertEquals("apple", snapshot.getBrand(0));
+        assertEquals(100, columns.snapshot().size());
+        assertEquals("brand100", columns.snapshot().getBrand(99));
+        assertTrue(Double.isNaN(columns.snapshot().getPrice(99)));     // No price
+        assertNull(columns.snapshot().toSearchDocument(99).getPrice());
+    }
+
+    @Test
+    public void testCompaction_KeepsLiveRowsSearchable() {
+        ProductSearchIndex productSearchIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+        productSearchIndex.indexAll(List.of(product(1L, 10D, "apple", "phones"), product(2L, 20D, "samsung", "phones")));
+        CatalogSnapshot beforeUpdates = productSearchIndex.getCatalog();
+
+        for (int version = 0; version < 10; version++)       // Tombstones outnumber the live rows --> compaction
+            productSearchIndex.index(product(1L, 30D + version, "apple", "laptops"));
+
+        CatalogSnapshot catalog = productSearchIndex.getCatalog();
+        assertTrue(catalog.size() < 12);
+        assertEquals(List.of(2L, 1L), ids(productSearchIndex.search("")));     // Updated product was appended last
+        assertEquals(List.of(1L), ids(productSearchIndex.search("apple")));
+        assertEquals(39D, productSearchIndex.search("apple").get(0).getPrice());
+        assertEquals("laptops", productSearchIndex.search("apple").get(0).getCategory().getName());
+
+        // Snapshot taken before the updates still reads the first versions
+        assertEquals(2, beforeUpdates.size());
+        assertEquals(10D, beforeUpdates.getPrice(0));
+    }
+
+    private static Product product(Long id, Double price, String brand, String categoryName) {
+        Category category = new Category();
+        category.setName(categoryName);
+
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(brand + " product");
+        product.setPrice(price);
+        product.setBrand(brand);
+        product.setCategory(category);
+        return product;
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return new ArrayList<>(products.stream().map(Product::getId).toList());
+    }
+}
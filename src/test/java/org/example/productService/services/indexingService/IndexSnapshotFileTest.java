@@ -0,0 +1,116 @@
+package org.example.productService.services.indexingService;
+
+import org.example.productService.dtos.search.FilterDto;
+import org.example.productService.dtos.search.SortingCriteria;
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+import org.example.productService.services.facetingService.FacetedProducts;
+import org.example.productService.services.parallelService.SearchParallelism;
+import org.example.productService.services.planningService.SearchPlan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexSnapshotFileTest {
+    @TempDir
+    Path directory;
+
+    private final ProductSearchIndex productSearchIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+    private final ProductSearchIndex loadedIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+
+    @BeforeEach
+    public void setUp() {
+        productSearchIndex.indexAll(List.of(
+            product(1L, "Apple smart phone", "apple", 999D, "phones"),
+            product(2L, "Apple MacBook", "apple", 2499D, "laptops"),
+            product(3L, "Samsung Galaxy phone", "samsung", null, "phones")));
+        productSearchIndex.remove(2L);      // Tombstone is written too
+    }
+
+    @Test
+    public void testLoadSnapshot_ServesTheSameSearches() throws IOException {
+        Path path = directory.resolve("index.snapshot");
+        productSearchIndex.writeSnapshot(path);
+
+        assertTrue(loadedIndex.loadSnapshot(path, Duration.ofHours(1)));
+        assertFalse(loadedIndex.isReady());     // Till caught up with the database
+        loadedIndex.markReady();
+        assertTrue(loadedIndex.isReady());
+
+        SearchPlan plan = SearchPlan.compile(List.of(filter("category", "phones")), SortingCriteria.RELEVANCE);
+        FacetedProducts expected = productSearchIndex.searchWithFacets("phone", plan);
+        FacetedProducts loaded = loadedIndex.searchWithFacets("phone", plan);
+
+        assertEquals(List.of(1L, 3L), loaded.productIds());
+        assertEquals(expected.facets(), loaded.facets());
+        assertArrayEquals(expected.relevance(), loaded.relevance());
+        assertEquals(List.of(1L, 3L), ids(loadedIndex.search("")));
+        assertNull(loadedIndex.getCatalog().toSearchDocument(2).getPrice());
+        assertEquals("samsung", loadedIndex.getCatalog().getBrand(2));
+    }
+
+    @Test
+    public void testLoadSnapshot_KeepsIndexingAfterTheMappedRows() throws IOException {
+        Path path = directory.resolve("index.snapshot");
+        productSearchIndex.writeSnapshot(path);
+        loadedIndex.loadSnapshot(path, Duration.ofHours(1));
+        loadedIndex.markReady();
+
+        loadedIndex.index(product(1L, "Apple smart phone Pro", "apple", 1099D, "phones"));     // Tombstones a mapped row, appends to the heap arrays
+        loadedIndex.index(product(4L, "Pixel phone", "google", 599D, "phones"));
+
+        assertEquals(List.of(3L, 1L, 4L), ids(loadedIndex.search("")));
+        assertEquals(List.of(1L), ids(loadedIndex.search("pro")));
+        assertEquals(1099D, loadedIndex.search("pro").get(0).getPrice());
+        assertEquals("google", loadedIndex.search("pixel").get(0).getBrand());
+
+        // Written again from the mapped and the appended rows
+        Path rewritten = directory.resolve("rewritten.snapshot");
+        loadedIndex.writeSnapshot(rewritten);
+        ProductSearchIndex reloadedIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+        reloadedIndex.loadSnapshot(rewritten, Duration.ofHours(1));
+        reloadedIndex.markReady();
+        assertEquals(List.of(3L, 1L, 4L), ids(reloadedIndex.search("phone")));
+    }
+
+    @Test
+    public void testLoadSnapshot_WhenOlderThanMaxAge_LeavesIndexEmpty() throws IOException {
+        Path path = directory.resolve("index.snapshot");
+        productSearchIndex.writeSnapshot(path);
+
+        assertFalse(loadedIndex.loadSnapshot(path, Duration.ofMillis(-1)));
+        assertFalse(loadedIndex.isReady());
+    }
+
+    private static FilterDto filter(String key, String... values) {
+        FilterDto filter = new FilterDto();
+        filter.setKey(key);
+        filter.setValues(List.of(values));
+        return filter;
+    }
+
+    private static Product product(Long id, String title, String brand, Double price, String categoryName) {
+        Category category = new Category();
+        category.setName(categoryName);
+
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(title);
+        product.setBrand(brand);
+        product.setPrice(price);
+        product.setCategory(category);
+        return product;
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return new ArrayList<>(products.stream().map(Product::getId).toList());
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.productService.services.indexingService;
+
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+import org.example.productService.services.parallelService.SearchParallelism;
+import org.example.productService.services.refreshService.CatalogChangeRefresher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class IndexSnapshotStoreTest {
+    @TempDir
+    Path directory;
+
+    private final ProductSearchIndex loadedIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+    private final CatalogChangeRefresher refresher = mock(CatalogChangeRefresher.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<CatalogChangeRefresher> refresherProvider = mock(ObjectProvider.class);
+    private Path path;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        ProductSearchIndex productSearchIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+        productSearchIndex.indexAll(List.of(product(1L, "Apple smart phone"), product(2L, "Samsung Galaxy phone")));
+        path = directory.resolve("index.snapshot");
+        productSearchIndex.writeSnapshot(path);
+    }
+
+    @Test
+    public void testLoad_WhenCaughtUp_AppliesTheChangesBeforeServingSearches() {
+        when(refresherProvider.getIfAvailable()).thenReturn(refresher);
+        when(refresher.catchUp()).thenAnswer(invocation -> {
+            assertFalse(loadedIndex.isReady());
+            loadedIndex.remove(2L);     // Deleted after the snapshot was taken
+            return true;
+        });
+
+        new IndexSnapshotStore(loadedIndex, refresherProvider, true, path.toString(), Duration.ofHours(1)).load();
+
+        assertTrue(loadedIndex.isReady());
+        assertEquals(List.of(1L), loadedIndex.search("phone").stream().map(Product::getId).toList());
+    }
+
+    @Test
+    public void testLoad_WhenCatchUpFails_DiscardsTheSnapshot() {
+        when(refresherProvider.getIfAvailable()).thenReturn(refresher);
+        when(refresher.catchUp()).thenReturn(false);
+
+        new IndexSnapshotStore(loadedIndex, refresherProvider, true, path.toString(), Duration.ofHours(1)).load();
+
+        assertFalse(loadedIndex.isReady());
+        assertTrue(loadedIndex.search("phone").isEmpty());     // build() starts from an empty index
+        assertNull(loadedIndex.getIndexedUntil());
+    }
+
+    private static Product product(Long id, String title) {
+        Category category = new Category();
+        category.setName("phones");
+
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(title);
+        product.setCategory(category);
+        return product;
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.productService.services.indexingService;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LongIntMapTest {
+
+    @Test
+    public void testPutGetRemove_MatchesHashMap() {
+        LongIntMap map = new LongIntMap(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(3);
+
+        for (int operation = 0; operation < 200_000; operation++) {
+            long key = random.nextInt(5_000);      // Few keys --> many updates, removals and probe collisions
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? LongIntMap.NO_VALUE : removed, map.remove(key));
+            }
+            else {
+                map.put(key, operation);
+                expected.put(key, operation);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 5_000; key++)
+            assertEquals(expected.getOrDefault(key, LongIntMap.NO_VALUE), map.get(key), "key = " + key);
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.productService.services.indexingService;
+
+import org.example.productService.dtos.search.FilterDto;
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+import org.example.productService.services.facetingService.FacetedProducts;
+import org.example.productService.services.parallelService.SearchParallelism;
+import org.example.productService.services.planningService.SearchPlan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ProductSearchIndexFacetsTest {
+    private final ProductSearchIndex productSearchIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+
+    @BeforeEach
+    public void setUp() {
+        productSearchIndex.indexAll(List.of(
+            product(1L, "apple", "ios", 999D, "phones"),
+            product(2L, "apple", "macos", 2499D, "laptops"),
+            product(3L, "samsung", "android", 799D, "phones"),
+            product(4L, "samsung", "android", 49D, "phones"),
+            product(5L, "google", "android", 599D, "phones")));
+    }
+
+    @Test
+    public void testSearchWithFacets_WithoutFilters_CountsEveryCandidate() {
+        FacetedProducts result = productSearchIndex.searchWithFacets("", SearchPlan.compile(null, null));
+
+        assertEquals(5, result.ordinals().length);
+        assertEquals(Map.of("apple", 2, "samsung", 2, "google", 1), result.facets().get("brand"));
+        assertEquals(Map.of("phones", 4, "laptops", 1), result.facets().get("category"));
+        assertEquals(Map.of("0-100", 1, "500-1000", 3, "2000+", 1), result.facets().get("price"));
+        assertEquals(List.of("android", "ios", "macos"), List.copyOf(result.facets().get("os").keySet()));    // Highest count first
+    }
+
+    @Test
+    public void testSearchWithFacets_FacetIsNotNarrowedByItsOwnFilter() {
+        FacetedProducts result = productSearchIndex.searchWithFacets("", SearchPlan.compile(List.of(filter("brand", "apple"), filter("category", "phones")), null));
+
+        assertEquals(List.of(1L), result.productIds());
+        // Brand facet counts the phones of every brand, category facet counts the apple products of every category
+        assertEquals(Map.of("apple", 1, "samsung", 2, "google", 1), result.facets().get("brand"));
+        assertEquals(Map.of("phones", 1, "laptops", 1), result.facets().get("category"));
+        // Other facets only count the results
+        assertEquals(Map.of("ios", 1), result.facets().get("os"));
+    }
+
+    @Test
+    public void testSearchWithFacets_PriceFacetIsNarrowedByPriceRangeFilters() {
+        FacetedProducts result = productSearchIndex.searchWithFacets("", SearchPlan.compile(List.of(filter("lowPrice", "500"), filter("highPrice", "1000")), null));
+
+        assertEquals(List.of(1L, 3L, 5L), result.productIds());
+        assertEquals(Map.of("0-100", 1, "500-1000", 3, "2000+", 1), result.facets().get("price"));
+        assertEquals(Map.of("apple", 1, "samsung", 1, "google", 1), result.facets().get("brand"));
+    }
+
+    private static FilterDto filter(String key, String... values) {
+        FilterDto filter = new FilterDto();
+        filter.setKey(key);
+        filter.setValues(List.of(values));
+        return filter;
+    }
+
+    @Test
+    public void testSearchWithFacets_CountsOnlyDocumentsMatchingTheQuery() {
+        FacetedProducts result = productSearchIndex.searchWithFacets("galaxy", SearchPlan.compile(null, null));
+
+        assertEquals(List.of(3L, 4L), result.productIds());
+        assertEquals(Map.of("samsung", 2), result.facets().get("brand"));
+    }
+
+    @Test
+    public void testSearchWithFacets_InParallel_MatchesSequentialSearch() {
+        SearchParallelism parallelism = new SearchParallelism(4, 1);
+        try {
+            ProductSearchIndex parallelIndex = new ProductSearchIndex(null, parallelism, true);
+            List<Product> products = new ArrayList<>();
+            for (long id = 1; id <= 50_000; id++)
+                products.add(product(id, id % 3 == 0 ? "apple" : "samsung", "android", (double) (id * 7919 % 3_000), "phones"));
+            productSearchIndex.indexAll(products);
+            parallelIndex.indexAll(products);
+
+            SearchPlan plan = SearchPlan.compile(List.of(filter("brand", "apple"), filter("lowPrice", "500"), filter("highPrice", "1500")), null);
+            FacetedProducts sequential = productSearchIndex.searchWithFacets("", plan);
+            FacetedProducts parallel = parallelIndex.searchWithFacets("", plan);
+
+            assertEquals(sequential.productIds(), parallel.productIds());
+            assertEquals(sequential.facets(), parallel.facets());
+        }
+        finally {
+            parallelism.shutdown();
+        }
+    }
+
+    private static Product product(Long id, String brand, String os, Double price, String categoryName) {
+        Category category = new Category();
+        category.setName(categoryName);
+
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(brand + " " + (brand.equals("samsung") ? "galaxy" : "phone"));
+        product.setBrand(brand);
+        product.setOs(os);
+        product.setPrice(price);
+        product.setCategory(category);
+        return product;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.productService.services.indexingService;
+
+import org.example.productService.models.Product;
+import org.example.productService.services.parallelService.SearchParallelism;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSearchIndexTest {
+    private ProductSearchIndex productSearchIndex;
+
+    @BeforeEach
+    public void setUp() {
+        // Repository is not needed as the index is filled directly
+        productSearchIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+        productSearchIndex.indexAll(List.of(
+                product(1L, "Apple iPhone 16", "Fastest iPhone"),
+                product(2L, "Samsung Galaxy S24", "Android phone"),
+                product(3L, "Apple MacBook Pro", "Laptop with M3 chip")
+        ));
+    }
+
+    @Test
+    public void testSearch_WhenAllTokensMatch_ReturnsProductsContainingEveryToken() {
+        assertEquals(List.of(1L, 3L), ids(productSearchIndex.search("apple")));
+        assertEquals(List.of(1L), ids(productSearchIndex.search("APPLE iphone-16")));
+        assertEquals(List.of(3L), ids(productSearchIndex.search("laptop")));    // Description is indexed too
+        assertTrue(productSearchIndex.search("apple android").isEmpty());
+        assertTrue(productSearchIndex.search("nokia").isEmpty());
+    }
+
+    @Test
+    public void testSearch_WhenQueryIsBlank_ReturnsEveryProduct() {
+        assertEquals(List.of(1L, 2L, 3L), ids(productSearchIndex.search(" ")));
+    }
+
+    @Test
+    public void testSearch_AfterUpdateAndDelete_ReturnsCurrentProducts() {
+        productSearchIndex.index(product(1L, "Google Pixel 9", "Android phone"));
+        productSearchIndex.remove(2L);
+
+        assertEquals(List.of(3L), ids(productSearchIndex.search("apple")));
+        assertEquals(List.of(1L), ids(productSearchIndex.search("android")));
+        assertEquals(List.of(1L), ids(productSearchIndex.search("pixel")));
+        assertTrue(productSearchIndex.search("iphone").isEmpty());     // Previous version of the product is gone
+    }
+
+    @Test
+    public void testIndexAll_ReplaysWritesMadeWhileTheIndexWasBuilt() {
+        ProductSearchIndex buildingIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+
+        // Written while the build was reading the products table, which returned the previous versions
+        buildingIndex.index(product(1L, "Google Pixel 9", "Android phone"));
+        buildingIndex.remove(2L);
+        buildingIndex.indexBatch(List.of(product(4L, "Apple iPad", "Tablet")));
+        assertFalse(buildingIndex.isReady());
+
+        buildingIndex.indexAll(List.of(
+                product(1L, "Apple iPhone 16", "Fastest iPhone"),
+                product(2L, "Samsung Galaxy S24", "Android phone")
+        ));
+
+        assertEquals(List.of(1L), ids(buildingIndex.search("android")));
+        assertEquals(List.of(4L), ids(buildingIndex.search("apple")));
+        assertTrue(buildingIndex.search("iphone").isEmpty());
+    }
+
+    private static Product product(Long id, String title, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(title);
+        product.setDescription(description);
+        product.setPrice(100D);
+        return product;
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+}
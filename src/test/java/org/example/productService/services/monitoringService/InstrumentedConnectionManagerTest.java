@@ -0,0 +1,58 @@
+package org.example.productService.services.monitoringService;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstrumentedConnectionManagerTest {
+
+    @Test
+    public void testLease_WhenRouteLimitIsReached_RecordsWaitForConnection() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(2));
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(200);
+            }
+            catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, 2);
+            exchange.getResponseBody().write("ok".getBytes());
+            exchange.close();
+        });
+        server.start();
+
+        InstrumentedConnectionManager connectionManager = new InstrumentedConnectionManager();
+        connectionManager.setMaxTotal(1);
+        connectionManager.setDefaultMaxPerRoute(1);   // Second request has to wait for the first one's connection
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (CloseableHttpClient httpClient = HttpClients.custom().setConnectionManager(connectionManager).build()) {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/slow";
+            Future<?> first = executor.submit(() -> httpClient.execute(new HttpGet(url), response -> EntityUtils.toString(response.getEntity())));
+            Future<?> second = executor.submit(() -> httpClient.execute(new HttpGet(url), response -> EntityUtils.toString(response.getEntity())));
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        }
+        finally {
+            executor.shutdownNow();
+            server.stop(0);
+        }
+
+        assertEquals(2, connectionManager.getLeases());
+        assertEquals(0, connectionManager.getLeaseTimeouts());
+        assertTrue(connectionManager.getMaxLeaseWaitMillis() >= 100, "Max lease wait: " + connectionManager.getMaxLeaseWaitMillis());
+    }
+}
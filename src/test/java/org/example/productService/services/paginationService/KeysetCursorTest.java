@@ -0,0 +1,93 @@
+package org.example.productService.services.paginationService;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.example.productService.dtos.search.SortingCriteria;
+import org.example.productService.exception.BadRequestException;
+import org.example.productService.models.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class KeysetCursorTest {
+
+    @Test
+    public void testDecode_WhenCursorIsEncodedFromAPosition_ReturnsSameKeys() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("price", 999.5D);
+        keys.put("id", 42L);
+
+        String cursor = KeysetCursor.encode(ScrollPosition.forward(keys));
+        KeysetScrollPosition position = (KeysetScrollPosition) KeysetCursor.decode(cursor);
+
+        assertEquals(keys, position.getKeys());
+        assertTrue(position.scrollsForward());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSeekSpecification_WhenSortedByPrice_LeavesOutProductsWithoutPrice() {
+        Root<Product> root = mock(Root.class);
+        CriteriaBuilder criteriaBuilder = mock(CriteriaBuilder.class);
+        Path<Object> price = mock(Path.class);
+        when(root.get("price")).thenReturn(price);
+
+        KeysetCursor.seekSpecification(SortingCriteria.PRICE_HIGH_TO_LOW).toPredicate(root, null, criteriaBuilder);
+        verify(criteriaBuilder).isNotNull(price);
+
+        // Id order has no nullable key, every product is scrolled through
+        assertNull(KeysetCursor.seekSpecification(null).toPredicate(root, null, criteriaBuilder));
+        verify(criteriaBuilder, times(1)).isNotNull(any());
+    }
+
+    @Test
+    public void testSeek_PagesThroughProductsInMemoryFromTheCursorOfTheLastPage() {
+        List<Product> products = List.of(product(1L, 30D), product(2L, 10D), product(3L, null), product(4L, 30D), product(5L, 20D));
+
+        Window<Product> firstPage = KeysetCursor.seek(products, SortingCriteria.PRICE_HIGH_TO_LOW, KeysetCursor.decode(null), 2);
+        String cursor = KeysetCursor.encode(firstPage.positionAt(firstPage.size() - 1));
+        Window<Product> secondPage = KeysetCursor.seek(products, SortingCriteria.PRICE_HIGH_TO_LOW, KeysetCursor.decode(cursor), 2);
+
+        assertEquals(List.of(1L, 4L), firstPage.map(Product::getId).getContent());
+        assertTrue(firstPage.hasNext());
+        assertEquals(List.of(5L, 2L), secondPage.map(Product::getId).getContent());     // Product without price is left out of price sorts
+        assertFalse(secondPage.hasNext());
+    }
+
+    @Test
+    public void testDecode_WhenCursorIsMissing_ReturnsFirstPage() {
+        assertTrue(KeysetCursor.decode(null).isInitial());
+    }
+
+    @Test
+    public void testDecode_WhenCursorIsTampered_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("not-a-cursor"));
+    }
+
+    @Test
+    public void testDecode_WhenCursorIsOfAnotherSort_ThrowsBadRequest() {
+        String idCursor = KeysetCursor.encode(ScrollPosition.forward(Map.of("id", 7L)));
+        String priceCursor = KeysetCursor.encode(ScrollPosition.forward(new LinkedHashMap<>(Map.of("price", 99.0, "id", 7L))));
+
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode(idCursor, SortingCriteria.PRICE_LOW_TO_HIGH));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode(priceCursor, null));
+        assertFalse(KeysetCursor.decode(priceCursor, SortingCriteria.PRICE_HIGH_TO_LOW).isInitial());
+    }
+
+    private static Product product(Long id, Double price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setPrice(price);
+        return product;
+    }
+}
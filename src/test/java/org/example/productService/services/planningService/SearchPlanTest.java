@@ -0,0 +1,79 @@
+package org.example.productService.services.planningService;
+
+import org.example.productService.dtos.search.FilterDto;
+import org.example.productService.dtos.search.SortingCriteria;
+import org.example.productService.exception.BadRequestException;
+import org.example.productService.models.Product;
+import org.example.productService.services.filteringService.FilterFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchPlanTest {
+
+    @Test
+    public void testExecute_FiltersAndSortsInOnePass() {
+        SearchPlan plan = SearchPlan.compile(List.of(filter("brand", "apple", "samsung"), filter("highPrice", "1000")), SortingCriteria.PRICE_HIGH_TO_LOW);
+
+        List<Product> results = plan.execute(List.of(
+                product(1L, "apple", 999D),
+                product(2L, "apple", 2499D),
+                product(3L, "samsung", 799D),
+                product(4L, "google", 599D),
+                product(5L, "Samsung", 999D)));
+
+        assertEquals(List.of(1L, 5L, 3L), results.stream().map(Product::getId).toList());    // Same price: id as tie-breaker
+    }
+
+    @Test
+    public void testGetPlan_WhenFiltersDifferOnlyInOrderOrValues_ReusesShapeWithTheValuesOfTheRequest() {
+        SearchPlanCache searchPlanCache = new SearchPlanCache(10);
+        List<Product> products = List.of(product(1L, "apple", 999D), product(2L, "samsung", 799D), product(3L, "google", 599D));
+
+        SearchPlan apple = searchPlanCache.getPlan(List.of(filter("brand", "apple"), filter("highPrice", "1000")), SortingCriteria.PRICE_LOW_TO_HIGH);
+        SearchPlan cheap = searchPlanCache.getPlan(List.of(filter("highPrice", "700"), filter("brand", "google", "samsung")), SortingCriteria.PRICE_LOW_TO_HIGH);
+        SearchPlan otherSorting = searchPlanCache.getPlan(List.of(filter("brand", "apple"), filter("highPrice", "1000")), SortingCriteria.PRICE_HIGH_TO_LOW);
+
+        assertEquals(1, searchPlanCache.getCounters().getHits());      // Same keys and sorting, other values
+        assertEquals(2, searchPlanCache.getCounters().getMisses());
+        assertEquals(List.of(1L), apple.execute(products).stream().map(Product::getId).toList());
+        assertEquals(List.of(3L), cheap.execute(products).stream().map(Product::getId).toList());
+        assertEquals(List.of(1L), otherSorting.execute(products).stream().map(Product::getId).toList());
+    }
+
+    @Test
+    public void testPriceFilter_WhenValueIsNotAPrice_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> FilterFactory.getFilterFromKey("lowPrice").toPredicate(List.of("cheap")));
+        assertThrows(BadRequestException.class, () -> FilterFactory.getFilterFromKey("highPrice").toSpecification(List.of(" ")));
+        assertThrows(BadRequestException.class, () -> FilterFactory.getFilterFromKey("highPrice").toColumnPredicate(List.of()));
+        assertThrows(BadRequestException.class, () -> FilterFactory.getFilterFromKey("lowPrice").toPredicate(List.of("NaN")));
+    }
+
+    @Test
+    public void testGetPlan_WhenFilterKeyIsNullOrUnknown_ThrowsBadRequest() {
+        SearchPlanCache searchPlanCache = new SearchPlanCache(10);
+
+        assertThrows(BadRequestException.class, () -> searchPlanCache.getPlan(List.of(filter("brand", "Apple"), filter(null, "Apple")), null));
+        assertThrows(BadRequestException.class, () -> searchPlanCache.getPlan(List.of(filter("colour", "red")), null));
+        assertThrows(BadRequestException.class, () -> searchPlanCache.getPlan(Arrays.asList(filter("brand", "Apple"), null), null));
+        assertEquals(0, searchPlanCache.getCounters().getMisses());     // Rejected before the cache lookup
+    }
+
+    private static FilterDto filter(String key, String... values) {
+        FilterDto filter = new FilterDto();
+        filter.setKey(key);
+        filter.setValues(List.of(values));
+        return filter;
+    }
+
+    private static Product product(Long id, String brand, Double price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setBrand(brand);
+        product.setPrice(price);
+        return product;
+    }
+}
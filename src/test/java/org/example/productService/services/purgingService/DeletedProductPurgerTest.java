@@ -0,0 +1,39 @@
+package org.example.productService.services.purgingService;
+
+import org.example.productService.repositories.ProductBulkRepository;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class DeletedProductPurgerTest {
+    private final ProductBulkRepository productBulkRepository = mock(ProductBulkRepository.class);
+    private final DeletedProductPurger purger = new DeletedProductPurger(productBulkRepository, Duration.ofHours(24), 2, Duration.ZERO);
+
+    @Test
+    public void testPurge_DeletesInBatchesTillAPartialOne() {
+        when(productBulkRepository.purgeDeleted(any(), eq(2))).thenReturn(2, 2, 1);
+
+        purger.purge();
+
+        verify(productBulkRepository, times(3)).purgeDeleted(argThat(this::isRetentionAgo), eq(2));
+    }
+
+    @Test
+    public void testPurge_WhenBatchFails_StopsTillTheNextRun() {
+        when(productBulkRepository.purgeDeleted(any(), eq(2))).thenReturn(2).thenThrow(new RuntimeException("lock wait timeout"));
+
+        purger.purge();
+
+        verify(productBulkRepository, times(2)).purgeDeleted(any(), eq(2));
+    }
+
+    private boolean isRetentionAgo(Timestamp deletedBefore) {
+        Instant expected = Instant.now().minus(Duration.ofHours(24));
+        return Math.abs(Duration.between(expected, deletedBefore.toInstant()).toSeconds()) < 60;
+    }
+}
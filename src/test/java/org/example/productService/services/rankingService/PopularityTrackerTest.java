@@ -0,0 +1,56 @@
+package org.example.productService.services.rankingService;
+
+import org.example.productService.models.Product;
+import org.example.productService.services.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class PopularityTrackerTest {
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    private final ProductService productService = mock(ProductService.class);
+    private final ApplicationContext context = mock(ApplicationContext.class);
+    private final PopularityTracker popularityTracker = new PopularityTracker(stringRedisTemplate, "dBProductService", context, 2, 2);
+
+    @Test
+    public void testFlush_DropsTheCountsOfUnknownProducts() {
+        when(context.getBean("dBProductService")).thenReturn(productService);
+        when(productService.getProductsByIds(any())).thenReturn(List.of(product(1L)));
+
+        popularityTracker.recordView(1L);
+        popularityTracker.recordView(999L);     // Unknown id
+        popularityTracker.flush();
+
+        assertEquals(PopularityTracker.VIEW_WEIGHT, popularityTracker.getPopularity(1L));
+        assertEquals(0, popularityTracker.getPopularity(999L));
+        verify(stringRedisTemplate).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    public void testRecordOrder_CapsTheOrdersPerFlushInterval() {
+        assertTrue(popularityTracker.recordOrder(1L));
+        assertTrue(popularityTracker.recordOrder(1L));
+        assertFalse(popularityTracker.recordOrder(1L));     // Max orders of the product
+        assertTrue(popularityTracker.recordOrder(2L));
+        assertFalse(popularityTracker.recordOrder(3L));     // Max distinct products
+
+        when(context.getBean("dBProductService")).thenReturn(productService);
+        when(productService.getProductsByIds(any())).thenReturn(List.of());
+        popularityTracker.flush();
+
+        assertTrue(popularityTracker.recordOrder(3L));
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        return product;
+    }
+}
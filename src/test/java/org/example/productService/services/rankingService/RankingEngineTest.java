@@ -0,0 +1,97 @@
+package org.example.productService.services.rankingService;
+
+import org.example.productService.dtos.search.SortingCriteria;
+import org.example.productService.models.Product;
+import org.example.productService.services.facetingService.FacetedProducts;
+import org.example.productService.services.indexingService.ProductSearchIndex;
+import org.example.productService.services.parallelService.SearchParallelism;
+import org.example.productService.services.planningService.SearchPlan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RankingEngineTest {
+    private final PopularityTracker popularityTracker = mock(PopularityTracker.class);
+    private final RankingEngine rankingEngine = new RankingEngine(popularityTracker);
+    private final ProductSearchIndex productSearchIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+
+    @BeforeEach
+    public void setUp() {
+        productSearchIndex.indexAll(List.of(
+                product(1L, "Protective case", "Fits the apple phone and many other phones, with a long list of words in this description"),
+                product(2L, "Apple iPhone 16", "Apple phone"),
+                product(3L, "Samsung Galaxy S24", "Android phone, not an apple"),
+                product(4L, "Apple MacBook Pro", "Laptop")));
+    }
+
+    @Test
+    public void testRankFirst_ByRelevance_OrdersByBm25() {
+        // Both tokens in the title first, then the short description beats the long one
+        assertEquals(List.of(2L, 3L, 1L), rankFirst("apple phone", SortingCriteria.RELEVANCE, 10));
+    }
+
+    @Test
+    public void testRankFirst_ByRelevance_PopularityBreaksNearTies() {
+        when(popularityTracker.getLogPopularity(anyLong())).thenReturn(0f);
+        when(popularityTracker.getLogPopularity(1L)).thenReturn((float) Math.log1p(1_000));
+
+        assertEquals(List.of(1L, 2L), rankFirst("apple phone", SortingCriteria.RELEVANCE, 2));
+    }
+
+    @Test
+    public void testRankFirst_ByPopularity_OrdersByCounters() {
+        when(popularityTracker.getPopularity(3L)).thenReturn(7f);
+        when(popularityTracker.getPopularity(4L)).thenReturn(3f);
+
+        // Equal popularity keeps the index order
+        assertEquals(List.of(3L, 4L, 1L, 2L), rankFirst("", SortingCriteria.POPULARITY, 10));
+    }
+
+    @Test
+    public void testFloatTopK_MatchesFullSort() {
+        Random random = new Random(11);
+        float[] scores = new float[5_000];
+        for (int i = 0; i < scores.length; i++)
+            scores[i] = random.nextInt(500);     // Many ties
+
+        int[] sorted = IntStream.range(0, scores.length).boxed()
+                .sorted(Comparator.<Integer>comparingDouble(i -> -scores[i]).thenComparingInt(i -> i))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        for (int k : new int[]{0, 1, 10, 1_000, scores.length, scores.length + 5}) {
+            int[] expected = new int[Math.min(k, scores.length)];
+            System.arraycopy(sorted, 0, expected, 0, expected.length);
+            assertArrayEquals(expected, FloatTopK.select(scores, k), "k = " + k);
+        }
+    }
+
+    // Ids of the ranked results
+    private List<Long> rankFirst(String query, SortingCriteria sortingCriteria, int limit) {
+        FacetedProducts facetedProducts = productSearchIndex.searchWithFacets(query, SearchPlan.compile(null, sortingCriteria));
+        List<Long> productIds = new ArrayList<>();
+        for (int ordinal : rankingEngine.rankFirst(facetedProducts, sortingCriteria, limit))
+            productIds.add(facetedProducts.catalog().getId(ordinal));
+        return productIds;
+    }
+
+    private static Product product(Long id, String title, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(title);
+        product.setDescription(description);
+        product.setPrice(100D);
+        return product;
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.productService.services.refreshService;
+
+import org.example.productService.models.Category;
+import org.example.productService.models.Product;
+import org.example.productService.repositories.CategoryCountRepository;
+import org.example.productService.repositories.CategoryRepository;
+import org.example.productService.repositories.ProductRepository;
+import org.example.productService.repositories.projections.ProductChange;
+import org.example.productService.services.cachingService.CategoryIdCache;
+import org.example.productService.services.indexingService.ProductSearchIndex;
+import org.example.productService.services.parallelService.SearchParallelism;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class CatalogChangeRefresherTest {
+    private static final Instant NOW = Instant.now();
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final CategoryCountRepository categoryCountRepository = mock(CategoryCountRepository.class);
+    private final CategoryIdCache categoryIdCache = mock(CategoryIdCache.class);
+    private final ProductSearchIndex productSearchIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+    private final CatalogChangeRefresher refresher = new CatalogChangeRefresher(productRepository, categoryRepository, categoryCountRepository,
+            categoryIdCache, productSearchIndex, 2, Duration.ofSeconds(10), Duration.ofSeconds(30));
+
+    @BeforeEach
+    public void setUp() {
+        productSearchIndex.indexAll(List.of(product(1L, "Old phone", category(10L, "phones"), NOW.minusSeconds(60))));
+        productSearchIndex.setIndexedUntil(NOW.minusSeconds(60));
+        when(categoryIdCache.getCachedId("phones")).thenReturn(10L);
+        when(categoryRepository.findChangedSince(any(), anyLong(), any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    public void testRefresh_AppliesChangedProductsInBatchesFromTheWatermark() {
+        Product moved = product(1L, "Tablet", category(20L, "tablets"), NOW.minusSeconds(20));
+        Product created = product(2L, "New phone", category(10L, "phones"), NOW.minusSeconds(20));
+        when(productRepository.findChangesSince(any(), anyLong(), any(), anyInt()))
+                .thenReturn(List.of(change(moved, false), change(created, false)))
+                .thenReturn(List.of(new Change(3L, Date.from(NOW.minusSeconds(10)), true)));
+        when(productRepository.findAllByIdIn(List.of(1L, 2L))).thenReturn(List.of(moved, created));
+
+        refresher.refresh();
+
+        assertEquals(List.of(1L), ids(productSearchIndex.search("tablet")));
+        assertEquals(List.of(2L), ids(productSearchIndex.search("phone")));
+        verify(categoryCountRepository).reconcile(Set.of(10L, 20L));     // Category the product left and the ones joined
+
+        // First poll starts an overlap before the index was current, the next batch after the last row of the previous one
+        verify(productRepository).findChangesSince(eq(Date.from(NOW.minusSeconds(90))), eq(0L), any(), eq(2));
+        verify(productRepository).findChangesSince(eq(created.getLastModifiedAt()), eq(2L), any(), eq(2));
+        assertTrue(productSearchIndex.getIndexedUntil().isAfter(NOW.minusSeconds(5)));
+    }
+
+    @Test
+    public void testRefresh_WhenProductWasSoftDeleted_RemovesItFromTheIndex() {
+        when(productRepository.findChangesSince(any(), anyLong(), any(), anyInt()))
+                .thenReturn(List.of(new Change(1L, Date.from(NOW.minusSeconds(10)), true)));
+
+        refresher.refresh();
+
+        assertTrue(productSearchIndex.search("phone").isEmpty());
+        verify(productRepository, never()).findAllByIdIn(any());
+        verify(categoryCountRepository).reconcile(Set.of(10L));
+    }
+
+    @Test
+    public void testRefresh_WhenBatchFails_RetriesFromTheSameWatermark() {
+        when(productRepository.findChangesSince(any(), anyLong(), any(), anyInt()))
+                .thenThrow(new RuntimeException("database down"))
+                .thenReturn(List.of());
+
+        refresher.refresh();
+        assertEquals(NOW.minusSeconds(60), productSearchIndex.getIndexedUntil());     // Not moved by the failed poll
+        refresher.refresh();
+
+        verify(productRepository, times(2)).findChangesSince(eq(Date.from(NOW.minusSeconds(90))), eq(0L), any(), anyInt());
+    }
+
+    @Test
+    public void testRefresh_WhenRowCommitsAfterTheWatermarkPassedIt_AppliesItOnTheNextPoll() {
+        Instant lateStamp = Instant.now().minusSeconds(5);
+        Product late = product(2L, "Late phone", category(10L, "phones"), lateStamp);     // Stamped before the first poll, committed after it
+        Product applied = product(1L, "Old phone Pro", category(10L, "phones"), lateStamp.plusSeconds(2));
+        when(productRepository.findChangesSince(any(), anyLong(), any(), anyInt()))
+                .thenReturn(List.of(change(applied, false)))
+                .thenReturn(List.of(change(late, false), change(applied, false)))     // Window read again, late row is visible now
+                .thenReturn(List.of());
+        when(productRepository.findAllByIdIn(List.of(1L))).thenReturn(List.of(applied));
+        when(productRepository.findAllByIdIn(List.of(2L))).thenReturn(List.of(late));
+
+        refresher.refresh();
+        assertTrue(productSearchIndex.getIndexedUntil().isAfter(lateStamp));    // First poll ended after the late row's stamp
+        refresher.refresh();
+
+        assertEquals(List.of(2L), ids(productSearchIndex.search("late")));
+        verify(productRepository, times(1)).findAllByIdIn(List.of(1L));       // Already applied version skipped
+
+        // Second poll starts lookback before the end of the first one, i.e. before the late row's stamp
+        ArgumentCaptor<Date> since = ArgumentCaptor.forClass(Date.class);
+        verify(productRepository, times(3)).findChangesSince(since.capture(), anyLong(), any(), anyInt());
+        assertFalse(since.getAllValues().get(1).toInstant().isAfter(lateStamp));
+    }
+
+    @Test
+    public void testRefresh_WhenCategoryIsRenamed_IndexesItsProductsAgain() {
+        Category renamed = category(10L, "smartphones");
+        renamed.setLastModifiedAt(Date.from(NOW.minusSeconds(10)));
+        when(categoryRepository.findChangedSince(any(), anyLong(), any(), any())).thenReturn(List.of(renamed));
+        when(categoryIdCache.refresh(10L, "smartphones")).thenReturn("phones");
+        when(productRepository.findAllByCategory_Id(10L)).thenReturn(List.of(product(1L, "Old phone", renamed, NOW.minusSeconds(60))));
+        when(productRepository.findChangesSince(any(), anyLong(), any(), anyInt())).thenReturn(List.of());
+
+        refresher.refresh();
+
+        assertEquals("smartphones", productSearchIndex.getCategoryName(1L));
+    }
+
+    private static Product product(Long id, String title, Category category, Instant lastModifiedAt) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(title);
+        product.setCategory(category);
+        product.setLastModifiedAt(Date.from(lastModifiedAt));
+        return product;
+    }
+
+    private record Change(Long id, Date lastModifiedAt, Boolean deleted) implements ProductChange {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Date getLastModifiedAt() {
+            return lastModifiedAt;
+        }
+
+        @Override
+        public Boolean getDeleted() {
+            return deleted;
+        }
+    }
+
+    private static Change change(Product product, boolean deleted) {
+        return new Change(product.getId(), product.getLastModifiedAt(), deleted);
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.productService.services.sortingService;
+
+import org.example.productService.models.Product;
+import org.example.productService.services.indexingService.CatalogSnapshot;
+import org.example.productService.services.indexingService.ProductSearchIndex;
+import org.example.productService.services.parallelService.SearchParallelism;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TopKTest {
+    private final Sorter sorter = new PriceLowToHighSorter();
+
+    @Test
+    public void testSelect_MatchesFullSortForHeapParallelAndFullSortPaths() {
+        SearchParallelism parallelism = new SearchParallelism(4, 50_000);
+        try {
+            List<Product> small = products(1_000);
+            List<Product> large = products(60_000);
+
+            for (List<Product> products : List.of(small, large)) {
+                List<Product> sorted = new ArrayList<>(products);
+                sorted.sort(sorter.getComparator());
+
+                for (int k : new int[]{1, 10, 100, products.size() / TopK.FULL_SORT_DIVISOR, products.size(), products.size() + 5})
+                    assertEquals(sorted.subList(0, Math.min(k, sorted.size())), TopK.select(products, k, sorter.getComparator(), parallelism), "k = " + k);
+            }
+        }
+        finally {
+            parallelism.shutdown();
+        }
+    }
+
+    @Test
+    public void testSelect_WithNullPricesAndTies_KeepsSorterOrder() {
+        List<Product> products = List.of(product(5L, null), product(3L, 10D), product(1L, 10D), product(2L, 20D), product(4L, null));
+
+        assertEquals(List.of(2L, 1L, 3L), ids(new PriceHighToLowSorter().applySorting(products, 3)));
+        assertEquals(List.of(1L, 3L, 2L, 4L), ids(sorter.applySorting(products, 4)));
+    }
+
+    @Test
+    public void testOrdinalSelect_MatchesProductComparatorOverCatalogColumns() {
+        ProductSearchIndex productSearchIndex = new ProductSearchIndex(null, SearchParallelism.sequential(), true);
+        List<Product> products = products(60_000);
+        productSearchIndex.indexAll(products);
+        CatalogSnapshot catalog = productSearchIndex.getCatalog();
+        int[] ordinals = IntStream.range(0, catalog.size()).toArray();
+
+        SearchParallelism parallelism = new SearchParallelism(4, 50_000);
+        try {
+            for (Sorter columnSorter : List.of(sorter, new PriceHighToLowSorter())) {
+                List<Product> sorted = new ArrayList<>(products);
+                sorted.sort(columnSorter.getComparator());
+
+                for (int k : new int[]{1, 100, products.size()}) {
+                    int[] selected = OrdinalTopK.select(ordinals, k, columnSorter.getColumnComparator(catalog), parallelism);
+                    List<Long> selectedIds = IntStream.of(selected).mapToObj(catalog::getId).toList();
+                    assertEquals(ids(sorted.subList(0, k)), selectedIds, "k = " + k);
+                }
+            }
+        }
+        finally {
+            parallelism.shutdown();
+        }
+    }
+
+    private static List<Product> products(int count) {
+        Random random = new Random(7);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            products.add(product((long) i, random.nextInt(10) == 0 ? null : (double) random.nextInt(1_000)));   // Many ties and some null prices
+        return products;
+    }
+
+    private static Product product(Long id, Double price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setPrice(price);
+        return product;
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+}